@@ -7,7 +7,19 @@ plugins {
 
 group = "com.berrie"
 version = "0.0.1-SNAPSHOT"
-java.sourceCompatibility = JavaVersion.VERSION_17
+// -PjavaVersion=21 builds and runs on Java 21, where game.threads.virtual.enabled runs requests on virtual threads
+val javaVersion = providers.gradleProperty("javaVersion").getOrElse("17")
+java {
+	toolchain {
+		languageVersion.set(JavaLanguageVersion.of(javaVersion))
+	}
+}
+if (javaVersion.toInt() >= 21) {
+	// 4.11 replaced the driver's synchronized blocks, which would pin virtual threads to their carrier threads
+	extra["mongodb.version"] = "4.11.1"
+	// the first Lombok release able to run on a Java 21 compiler
+	extra["lombok.version"] = "1.18.30"
+}
 
 configurations {
 	compileOnly {
@@ -20,13 +32,21 @@ repositories {
 }
 
 dependencies {
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	implementation("org.springframework.boot:spring-boot-starter-aop")
 	implementation("org.springframework.boot:spring-boot-starter-data-mongodb")
+	implementation("org.springframework.boot:spring-boot-starter-data-mongodb-reactive")
 	implementation("org.springframework.boot:spring-boot-starter-security")
 	implementation("org.springframework.boot:spring-boot-starter-web")
+	implementation("org.springframework.boot:spring-boot-starter-webflux")
 	implementation("org.springframework.boot:spring-boot-starter-validation")
 	implementation("io.jsonwebtoken:jjwt-api:0.11.5")
 	implementation("io.jsonwebtoken:jjwt-impl:0.11.5")
 	implementation("io.jsonwebtoken:jjwt-jackson:0.11.5")
+	implementation("io.micrometer:micrometer-tracing-bridge-otel")
+	implementation("io.micrometer:context-propagation:1.0.2")
+	implementation("io.opentelemetry:opentelemetry-exporter-otlp")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 	compileOnly("org.projectlombok:lombok")
 	developmentOnly("org.springframework.boot:spring-boot-devtools")
 	annotationProcessor("org.projectlombok:lombok")
@@ -34,6 +54,57 @@ dependencies {
 	testImplementation("org.springframework.security:spring-security-test")
 	testImplementation("org.junit.jupiter:junit-jupiter-engine:5.9.2")
 	testImplementation("org.assertj:assertj-core:3.24.2")
+	testImplementation("io.projectreactor:reactor-test")
+}
+
+sourceSets {
+	// standalone load generators, run against an already started instance or a local MongoDB
+	create("loadTest") {
+		// only for the model enums, the generated documents are written with the plain driver
+		compileClasspath += sourceSets["main"].output
+		runtimeClasspath += sourceSets["main"].output
+	}
+	// JMH microbenchmarks of the application's hot paths
+	create("jmh") {
+		compileClasspath += sourceSets["main"].output
+		runtimeClasspath += sourceSets["main"].output
+	}
+}
+
+configurations["jmhImplementation"].extendsFrom(configurations.implementation.get())
+configurations["jmhRuntimeOnly"].extendsFrom(configurations.runtimeOnly.get())
+
+dependencies {
+	"loadTestImplementation"("org.mongodb:mongodb-driver-sync")
+	"loadTestImplementation"("org.springframework.security:spring-security-crypto")
+	"loadTestRuntimeOnly"("org.springframework:spring-jcl")
+	"jmhImplementation"("org.openjdk.jmh:jmh-core:1.36")
+	"jmhImplementation"("org.springframework:spring-test")
+	"jmhImplementation"("org.mockito:mockito-core")
+	"jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.36")
+}
+
+tasks.register<JavaExec>("loadTest") {
+	description = "Runs a load generator against a running instance, see README.md"
+	group = "verification"
+	classpath = sourceSets["loadTest"].runtimeClasspath
+	mainClass.set(providers.gradleProperty("loadTest.main")
+		.orElse("com.berrie.gamerental.loadtest.ConcurrencyBenchmark"))
+	// every -PloadTest.* property is passed on as a system property
+	systemProperties(project.properties.filterKeys { it.startsWith("loadTest.") })
+}
+
+tasks.register<JavaExec>("jmh") {
+	description = "Runs the JMH microbenchmarks and writes the results to build/reports/jmh/results.json, see README.md"
+	group = "verification"
+	classpath = sourceSets["jmh"].runtimeClasspath
+	mainClass.set("org.openjdk.jmh.Main")
+	val results = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+	doFirst { results.parentFile.mkdirs() }
+	// -Pjmh.include=<regex> runs only the matching benchmarks, -Pjmh.args passes further JMH options
+	args("-rf", "json", "-rff", results.absolutePath, "-prof", "gc")
+	providers.gradleProperty("jmh.args").orNull?.let { args(it.split(" ").filter(String::isNotBlank)) }
+	providers.gradleProperty("jmh.include").orNull?.let { args(it) }
 }
 
 tasks.withType<Test> {
@@ -1 +1,6 @@
+plugins {
+	// downloads the JDK of the java toolchain when it is not installed, see -PjavaVersion in build.gradle.kts
+	id("org.gradle.toolchains.foojay-resolver-convention") version "0.7.0"
+}
+
 rootProject.name = "game-rental"
@@ -0,0 +1,85 @@
+package com.berrie.gamerental.benchmark;
+
+import com.berrie.gamerental.model.Game;
+import com.berrie.gamerental.model.Rental;
+import com.berrie.gamerental.model.User;
+import com.berrie.gamerental.model.enums.GameStatus;
+import com.berrie.gamerental.model.enums.Genre;
+import com.berrie.gamerental.model.enums.Platform;
+import com.berrie.gamerental.model.enums.RentalStatus;
+import com.berrie.gamerental.model.enums.Role;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic games, rentals and users shared by the benchmarks, so runs on different commits measure
+ * the same data.
+ */
+public final class Fixtures {
+
+    private static final long SEED = 42;
+    // 2023-01-01T00:00:00Z, rental dates are spread over the year before it
+    private static final long EPOCH_MILLIS = 1_672_531_200_000L;
+    private static final String[] TITLE_WORDS = {"Call", "Duty", "Legend", "Zelda", "Halo", "Racing", "Street",
+            "Fighter", "Dark", "Souls", "Mario", "Kart", "Final", "Fantasy", "Grand", "Theft", "Auto", "Fifa"};
+
+    private Fixtures() {
+    }
+
+    public static User user(String username) {
+        return User.builder()
+                .id("user-" + username)
+                .username(username)
+                .password("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3gSg7VX4.6MbHgGXiE.dTq6")
+                .role(Role.USER)
+                .submittedGames(new ArrayList<>())
+                .build();
+    }
+
+    public static List<Game> games(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        User submitter = user("berrie.submitter");
+        Genre[] genres = Genre.values();
+        Platform[] platforms = Platform.values();
+        List<Game> games = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            games.add(Game.builder()
+                    .id(String.format("%024x", i))
+                    .title(TITLE_WORDS[random.nextInt(TITLE_WORDS.length)] + " "
+                            + TITLE_WORDS[random.nextInt(TITLE_WORDS.length)] + " " + i)
+                    .genre(genres[random.nextInt(genres.length)])
+                    .platform(platforms[random.nextInt(platforms.length)])
+                    .status(random.nextBoolean() ? GameStatus.AVAILABLE : GameStatus.UNAVAILABLE)
+                    .numberOfRentals(random.nextInt(500))
+                    .submittedBy(submitter)
+                    .updateSequence(i + 1L)
+                    .build());
+        }
+        return games;
+    }
+
+    public static List<Rental> rentals(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        User renter = user("berrie.renter");
+        List<Game> games = games(Math.min(count, 1_000));
+        List<Rental> rentals = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            boolean returned = random.nextBoolean();
+            Date rentalDate = new Date(EPOCH_MILLIS - random.nextLong(365L * 24 * 60 * 60 * 1000));
+            Rental rental = Rental.builder()
+                    .id(String.format("%024x", i))
+                    .rentalStatus(returned ? RentalStatus.RETURNED : RentalStatus.ACTIVE)
+                    .user(renter)
+                    .game(games.get(i % games.size()))
+                    .rentalDate(rentalDate)
+                    .returnDate(returned ? new Date(rentalDate.getTime() + 7L * 24 * 60 * 60 * 1000) : null)
+                    .rentedBy(renter.getUsername())
+                    .build();
+            rentals.add(rental);
+        }
+        return rentals;
+    }
+}
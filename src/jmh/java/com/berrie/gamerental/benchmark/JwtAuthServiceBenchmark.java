@@ -0,0 +1,54 @@
+package com.berrie.gamerental.benchmark;
+
+import com.berrie.gamerental.model.User;
+import com.berrie.gamerental.service.JwtAuthService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing and verification of the JSON Web Tokens, which every authenticated request pays for.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthServiceBenchmark {
+
+    private JwtAuthService jwtAuthService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtAuthService = new JwtAuthService();
+        user = Fixtures.user("berrie.user");
+        token = jwtAuthService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtAuthService.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtAuthService.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtAuthService.isTokenValid(token, user);
+    }
+}
@@ -0,0 +1,64 @@
+package com.berrie.gamerental.benchmark;
+
+import com.berrie.gamerental.dto.GameModel;
+import com.berrie.gamerental.dto.RentalModel;
+import com.berrie.gamerental.model.Game;
+import com.berrie.gamerental.model.Rental;
+import com.berrie.gamerental.util.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping of the documents read from MongoDB to the response models of the catalog and rentals endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelMapperBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private List<Game> games;
+    private List<Rental> rentals;
+    private Date date;
+
+    @Setup
+    public void setup() {
+        games = Fixtures.games(size);
+        rentals = Fixtures.rentals(size);
+        date = rentals.get(0).getRentalDate();
+    }
+
+    @Benchmark
+    public List<GameModel> toGameModelList() {
+        return ModelMapper.toGameModelList(games);
+    }
+
+    @Benchmark
+    public List<RentalModel> toRentalModelList() {
+        return ModelMapper.toRentalModelList(rentals);
+    }
+
+    // independent of the size, measured once per size only to keep the benchmark in one class
+    @Benchmark
+    public String dateToPrettyString() {
+        return ModelMapper.dateToPrettyString(date);
+    }
+}
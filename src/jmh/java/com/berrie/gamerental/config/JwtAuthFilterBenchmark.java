@@ -0,0 +1,66 @@
+package com.berrie.gamerental.config;
+
+import com.berrie.gamerental.benchmark.Fixtures;
+import com.berrie.gamerental.model.User;
+import com.berrie.gamerental.service.JwtAuthService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Authentication of a request carrying a valid token, with the user lookup answered from memory and the rest
+ * of the chain mocked. Lives in the filter's package to call {@code doFilterInternal} directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    private JwtAuthFilter jwtAuthFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private FilterChain filterChain;
+
+    @Setup
+    public void setup() {
+        JwtAuthService jwtAuthService = new JwtAuthService();
+        User user = Fixtures.user("berrie.user");
+        jwtAuthFilter = new JwtAuthFilter(jwtAuthService, username -> user);
+        request = new MockHttpServletRequest("GET", "/api/games");
+        request.addHeader("Authorization", "Bearer " + jwtAuthService.generateToken(user));
+        response = new MockHttpServletResponse();
+        // stub only, so the mock does not keep a record of every invocation
+        filterChain = mock(FilterChain.class, withSettings().stubOnly());
+    }
+
+    @Benchmark
+    public Object doFilterInternal() throws ServletException, IOException {
+        try {
+            jwtAuthFilter.doFilterInternal(request, response, filterChain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
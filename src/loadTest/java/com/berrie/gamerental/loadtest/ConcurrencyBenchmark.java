@@ -0,0 +1,214 @@
+package com.berrie.gamerental.loadtest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps a fixed number of clients in flight against a running instance and reports the throughput
+ * and latency percentiles, used to compare the servlet, virtual thread and reactive modes at high concurrency.
+ * Configured through system properties, see README.md.
+ */
+public class ConcurrencyBenchmark {
+
+    private static final Pattern RENTAL_ID = Pattern.compile("\"rentalId\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final HttpClient client;
+    private final Scenario scenario;
+    private final int concurrency;
+    private final Duration warmup;
+    private final Duration duration;
+
+    ConcurrencyBenchmark(HttpClient client, Scenario scenario, int concurrency, Duration warmup, Duration duration) {
+        this.client = client;
+        this.scenario = scenario;
+        this.concurrency = concurrency;
+        this.warmup = warmup;
+        this.duration = duration;
+    }
+
+    public static void main(String[] args) {
+        final String baseUrl = System.getProperty("loadTest.baseUrl", "http://localhost:8080");
+        final String token = System.getProperty("loadTest.token");
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        Scenario scenario = switch (System.getProperty("loadTest.scenario", "get")) {
+            case "get" -> get(client, request(baseUrl
+                    + System.getProperty("loadTest.path", "/api/games?sortBy=POPULARITY"), token).GET().build());
+            case "rent-return" -> rentReturn(client, baseUrl, token, gameIds(System.getProperty("loadTest.gameIds")));
+            default -> throw new IllegalArgumentException("Unknown scenario " + System.getProperty("loadTest.scenario"));
+        };
+        ConcurrencyBenchmark benchmark = new ConcurrencyBenchmark(client, scenario,
+                Integer.getInteger("loadTest.concurrency", 1000),
+                Duration.parse(System.getProperty("loadTest.warmup", "PT10S")),
+                Duration.parse(System.getProperty("loadTest.duration", "PT30S")));
+        System.out.println(benchmark.run());
+    }
+
+    Result run() {
+        final long start = System.nanoTime();
+        final long measureFrom = start + warmup.toNanos();
+        final long measureUntil = measureFrom + duration.toNanos();
+
+        List<Worker> workers = new ArrayList<>(concurrency);
+        List<CompletableFuture<Void>> done = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Worker worker = new Worker(i, measureFrom, measureUntil);
+            workers.add(worker);
+            done.add(worker.next());
+        }
+        CompletableFuture.allOf(done.toArray(CompletableFuture[]::new)).join();
+        return Result.of(workers, concurrency, duration);
+    }
+
+    /**
+     * One iteration of a client, completing with the highest status code of its requests.
+     */
+    interface Scenario {
+        CompletableFuture<Integer> run(int worker);
+    }
+
+    static Scenario get(HttpClient client, HttpRequest request) {
+        return worker -> client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenApply(HttpResponse::statusCode);
+    }
+
+    /**
+     * Rents a game and returns it again, each client cycling through its own game so clients do not collide.
+     */
+    static Scenario rentReturn(HttpClient client, String baseUrl, String token, List<String> gameIds) {
+        return worker -> {
+            String gameId = gameIds.get(worker % gameIds.size());
+            HttpRequest rent = request(baseUrl + "/api/rentals/rent", token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"gameId\":\"" + gameId + "\"}"))
+                    .build();
+            return client.sendAsync(rent, HttpResponse.BodyHandlers.ofString())
+                    .thenCompose(rented -> {
+                        Matcher rentalId = RENTAL_ID.matcher(rented.body());
+                        if (rented.statusCode() >= 300 || !rentalId.find()) {
+                            return CompletableFuture.completedFuture(rented.statusCode());
+                        }
+                        HttpRequest giveBack = request(baseUrl + "/api/rentals/return", token)
+                                .header("Content-Type", "application/json")
+                                .PUT(HttpRequest.BodyPublishers.ofString(
+                                        "{\"rentalId\":\"" + rentalId.group(1) + "\"}"))
+                                .build();
+                        return client.sendAsync(giveBack, HttpResponse.BodyHandlers.discarding())
+                                .thenApply(HttpResponse::statusCode);
+                    });
+        };
+    }
+
+    private static HttpRequest.Builder request(String url, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request;
+    }
+
+    // a comma separated list of ids, or @path to a file with one id per line
+    private static List<String> gameIds(String gameIds) {
+        if (gameIds == null || gameIds.isBlank()) {
+            throw new IllegalArgumentException("The rent-return scenario needs -PloadTest.gameIds");
+        }
+        try {
+            List<String> ids = gameIds.startsWith("@")
+                    ? Files.readAllLines(Path.of(gameIds.substring(1)))
+                    : Arrays.asList(gameIds.split(","));
+            return ids.stream().map(String::trim).filter(id -> !id.isEmpty()).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * One closed-loop client, starts its next iteration as soon as the previous one completes.
+     * Its callbacks never overlap, so the recorded latencies need no synchronisation.
+     */
+    private class Worker {
+        private final int index;
+        private final long measureFrom;
+        private final long measureUntil;
+        private final List<Long> latencies = new ArrayList<>();
+        private long rejected;
+        private long errors;
+
+        Worker(int index, long measureFrom, long measureUntil) {
+            this.index = index;
+            this.measureFrom = measureFrom;
+            this.measureUntil = measureUntil;
+        }
+
+        CompletableFuture<Void> next() {
+            final long sentAt = System.nanoTime();
+            if (sentAt - measureUntil >= 0) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return scenario.run(index)
+                    .handle((status, failure) -> {
+                        if (sentAt - measureFrom >= 0) {
+                            if (failure != null || status >= 500) {
+                                errors++;
+                            } else if (status >= 400) {
+                                rejected++;
+                            } else {
+                                latencies.add(System.nanoTime() - sentAt);
+                            }
+                        }
+                        return null;
+                    })
+                    .thenCompose(ignored -> next());
+        }
+    }
+
+    record Result(int concurrency, long completed, long rejected, long errors, double throughput,
+                  double p50Millis, double p95Millis, double p99Millis, double maxMillis) {
+
+        static Result of(List<Worker> workers, int concurrency, Duration duration) {
+            long[] latencies = workers.stream()
+                    .flatMap(worker -> worker.latencies.stream())
+                    .mapToLong(Long::longValue)
+                    .toArray();
+            Arrays.sort(latencies);
+            return new Result(concurrency, latencies.length,
+                    workers.stream().mapToLong(worker -> worker.rejected).sum(),
+                    workers.stream().mapToLong(worker -> worker.errors).sum(),
+                    latencies.length / (duration.toNanos() / 1e9),
+                    percentile(latencies, 0.50), percentile(latencies, 0.95), percentile(latencies, 0.99),
+                    latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("concurrency=%d completed=%d rejected=%d errors=%d throughput=%.1f/s "
+                            + "p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms",
+                    concurrency, completed, rejected, errors, throughput, p50Millis, p95Millis, p99Millis,
+                    maxMillis);
+        }
+    }
+}
@@ -0,0 +1,551 @@
+package com.berrie.gamerental.loadtest;
+
+import com.berrie.gamerental.model.enums.GameStatus;
+import com.berrie.gamerental.model.enums.Genre;
+import com.berrie.gamerental.model.enums.Platform;
+import com.berrie.gamerental.model.enums.RentalStatus;
+import com.mongodb.DBRef;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives a closed-loop mix of logins, catalog browsing, searches, rentals and returns against a running instance
+ * backed by a {@link DatasetGenerator} dataset. Rentals pick games from a Zipf distribution so a few hot titles
+ * are contended, and every client waits an exponentially distributed think time between requests.
+ * Reports throughput, latency percentiles and conflicts per operation, then checks that no game was rented twice.
+ * Logins are rate limited per address, so clients retry theirs until the server lets them in, and the run
+ * stops as soon as a client can not log in at all.
+ * Configured through system properties, see README.md.
+ */
+public class MixedWorkloadBenchmark {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern RENTAL_ID = Pattern.compile("\"rentalId\"\\s*:\\s*\"([^\"]+)\"");
+    private static final int RETURN_ATTEMPTS = 5;
+    private static final Duration RETURN_RETRY_DELAY = Duration.ofSeconds(1);
+
+    enum Operation { LOGIN, BROWSE, SEARCH, RENT, RETURN }
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final String password;
+    private final Map<Operation, Integer> mix;
+    private final int totalWeight;
+    private final int concurrency;
+    private final long users;
+    private final long games;
+    private final ZipfSampler hotTitles;
+    private final Duration thinkTime;
+    private final int maxHeld;
+    private final Duration warmup;
+    private final Duration duration;
+    // game id to the rental id of every rental the clients currently hold, to spot a game rented twice
+    private final Map<String, String> held = new ConcurrentHashMap<>();
+    // rental ids whose return was sent and not answered yet, the game may already be rented again
+    private final Set<String> returning = ConcurrentHashMap.newKeySet();
+    private final Set<String> rentedGames = ConcurrentHashMap.newKeySet();
+    private final LongAdder doubleRents = new LongAdder();
+
+    MixedWorkloadBenchmark(HttpClient client, String baseUrl, String password, Map<Operation, Integer> mix,
+                           int concurrency, long users, long games, double hotSkew, Duration thinkTime,
+                           int maxHeld, Duration warmup, Duration duration) {
+        // game i is submitted by user i % users and users can not rent their own games
+        if (users < 2 || games < 2) {
+            throw new IllegalArgumentException("the dataset needs at least two users and two games");
+        }
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.password = password;
+        this.mix = mix;
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        this.concurrency = concurrency;
+        this.users = users;
+        this.games = games;
+        this.hotTitles = new ZipfSampler(games, hotSkew);
+        this.thinkTime = thinkTime;
+        this.maxHeld = maxHeld;
+        this.warmup = warmup;
+        this.duration = duration;
+    }
+
+    public static void main(String[] args) {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        MixedWorkloadBenchmark benchmark = new MixedWorkloadBenchmark(client,
+                System.getProperty("loadTest.baseUrl", "http://localhost:8080"),
+                System.getProperty("loadTest.password", "password"),
+                mix(System.getProperty("loadTest.mix", "login=2,browse=40,search=25,rent=18,return=15")),
+                Integer.getInteger("loadTest.concurrency", 200),
+                Long.getLong("loadTest.users", 10_000),
+                Long.getLong("loadTest.games", 100_000),
+                Double.parseDouble(System.getProperty("loadTest.hotSkew", "1.2")),
+                Duration.parse(System.getProperty("loadTest.thinkTime", "PT0.5S")),
+                Integer.getInteger("loadTest.maxHeld", 1),
+                Duration.parse(System.getProperty("loadTest.warmup", "PT10S")),
+                Duration.parse(System.getProperty("loadTest.duration", "PT60S")));
+        final Date startedAt = new Date();
+        Result result = benchmark.run();
+        System.out.println(result);
+
+        long violations = result.doubleRents();
+        if (Boolean.parseBoolean(System.getProperty("loadTest.checkInvariants", "true"))) {
+            try (MongoClient mongo = MongoClients.create(DatasetGenerator.mongoUri())) {
+                violations += benchmark.checkInvariants(
+                        mongo.getDatabase(System.getProperty("loadTest.database", "game-rental")), startedAt);
+            }
+        }
+        if (violations > 0) {
+            System.exit(1);
+        }
+    }
+
+    Result run() {
+        final long start = System.nanoTime();
+        final long measureFrom = start + warmup.toNanos();
+        final long measureUntil = measureFrom + duration.toNanos();
+
+        List<Client> clients = new ArrayList<>(concurrency);
+        List<CompletableFuture<Void>> done = new ArrayList<>(concurrency);
+        CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+        for (int i = 0; i < concurrency; i++) {
+            Client client = new Client(i, measureFrom, measureUntil);
+            clients.add(client);
+            done.add(client.start().whenComplete((ignored, failure) -> {
+                if (failure != null) {
+                    firstFailure.completeExceptionally(failure);
+                }
+            }));
+        }
+        CompletableFuture.anyOf(CompletableFuture.allOf(done.toArray(CompletableFuture[]::new)), firstFailure).join();
+        return Result.of(clients, concurrency, duration, doubleRents.sum());
+    }
+
+    /**
+     * Checks the rentals created during the run: no game may have been rented again before the previous
+     * rental of it was returned, and a game with an active rental must not be available. The clients return
+     * what they hold when the run ends, so overlapping rentals are looked for rather than active ones.
+     * @return the number of violations found.
+     */
+    long checkInvariants(MongoDatabase database, Date startedAt) {
+        Set<ObjectId> doublyRented = new LinkedHashSet<>();
+        Set<ObjectId> activelyRented = new HashSet<>();
+        ObjectId previousGame = null;
+        long heldUntil = 0;
+        // the rentals of each game in the order they were made, a rental starting before the previous ones
+        // ended was made while the game was already rented
+        for (Document rental : database.getCollection(DatasetGenerator.RENTALS)
+                .find(Filters.gte("rentalDate", startedAt))
+                .sort(Sorts.ascending("game", "rentalDate"))
+                .allowDiskUse(true)) {
+            final ObjectId gameId = gameIdOf(rental.get("game"));
+            final long rentedAt = rental.getDate("rentalDate").getTime();
+            final Date returnDate = rental.getDate("returnDate");
+            final long returnedAt = returnDate == null ? Long.MAX_VALUE : returnDate.getTime();
+            if (gameId.equals(previousGame)) {
+                if (rentedAt < heldUntil) {
+                    doublyRented.add(gameId);
+                }
+                heldUntil = Math.max(heldUntil, returnedAt);
+            } else {
+                heldUntil = returnedAt;
+            }
+            previousGame = gameId;
+            if (RentalStatus.ACTIVE.name().equals(rental.getString("rentalStatus"))) {
+                activelyRented.add(gameId);
+            }
+        }
+        List<ObjectId> availableWhileRented = new ArrayList<>();
+        if (!activelyRented.isEmpty()) {
+            database.getCollection(DatasetGenerator.GAMES)
+                    .find(Filters.and(Filters.in("_id", activelyRented),
+                            Filters.eq("status", GameStatus.AVAILABLE.name())))
+                    .forEach(game -> availableWhileRented.add(game.getObjectId("_id")));
+        }
+        System.out.printf("invariants: rentedGames=%d activeRentals=%d doublyRented=%d availableWhileRented=%d%n",
+                rentedGames.size(), activelyRented.size(), doublyRented.size(), availableWhileRented.size());
+        doublyRented.forEach(id -> System.out.println("  rented again before it was returned: game " + id));
+        availableWhileRented.forEach(id -> System.out.println("  available while actively rented: game " + id));
+        return doublyRented.size() + availableWhileRented.size();
+    }
+
+    // the DBRef is decoded as a plain document unless a DBRef codec is registered
+    private static ObjectId gameIdOf(Object ref) {
+        return (ObjectId) (ref instanceof DBRef dbRef ? dbRef.getId() : ((Document) ref).get("$id"));
+    }
+
+    // comma separated operation=weight pairs, e.g. browse=60,rent=20,return=20
+    static Map<Operation, Integer> mix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] pair = entry.trim().split("=");
+            weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+        }
+        return weights;
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request;
+    }
+
+    private static HttpRequest.BodyPublisher json(String field, String value) {
+        return HttpRequest.BodyPublishers.ofString("{\"" + field + "\":\"" + value + "\"}");
+    }
+
+    private static String group(Pattern pattern, String body) {
+        Matcher matcher = pattern.matcher(body);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private record Held(String gameId, String rentalId) {
+    }
+
+    /**
+     * Counts and latencies of one operation for one client.
+     */
+    private static class Stats {
+        private final List<Long> latencies = new ArrayList<>();
+        private long conflicts;
+        private long rateLimited;
+        private long rejected;
+        private long errors;
+
+        void record(int status, long latency) {
+            if (status >= 500) {
+                errors++;
+            } else if (status == 409) {
+                conflicts++;
+            } else if (status == 429) {
+                rateLimited++;
+            } else if (status >= 400) {
+                rejected++;
+            } else {
+                latencies.add(latency);
+            }
+        }
+    }
+
+    /**
+     * One closed-loop client logged in as one of the generated users. It sends its next request once the
+     * previous one completed and its think time passed, so its callbacks never overlap and its state
+     * needs no synchronisation.
+     */
+    private class Client {
+        private final long measureFrom;
+        private final long measureUntil;
+        private final long userIndex;
+        private final String username;
+        private final SplittableRandom random;
+        private final Deque<Held> rentals = new ArrayDeque<>();
+        private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+        private String token;
+
+        Client(int index, long measureFrom, long measureUntil) {
+            this.measureFrom = measureFrom;
+            this.measureUntil = measureUntil;
+            this.userIndex = index % users;
+            this.username = DatasetGenerator.username(userIndex);
+            this.random = new SplittableRandom(index);
+            for (Operation operation : Operation.values()) {
+                stats.put(operation, new Stats());
+            }
+        }
+
+        CompletableFuture<Void> start() {
+            return signIn().thenCompose(ignored -> next());
+        }
+
+        // a client without a token would only measure rejections, so it waits its turn or stops the run
+        private CompletableFuture<Void> signIn() {
+            return authenticate().thenCompose(response -> {
+                if (response.statusCode() == 429) {
+                    final long retryAfterMillis = 1000 * response.headers().firstValueAsLong("Retry-After").orElse(1);
+                    return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(
+                                    retryAfterMillis + random.nextLong(1000), TimeUnit.MILLISECONDS))
+                            .thenCompose(ignored -> signIn());
+                }
+                if (response.statusCode() != 200 || token == null) {
+                    throw new IllegalStateException("Login as " + username + " failed with status "
+                            + response.statusCode());
+                }
+                return CompletableFuture.completedFuture(null);
+            });
+        }
+
+        private CompletableFuture<Void> next() {
+            final long sentAt = System.nanoTime();
+            if (sentAt - measureUntil >= 0) {
+                return returnAll();
+            }
+            final Operation operation = pick();
+            return execute(operation)
+                    .handle((status, failure) -> {
+                        if (sentAt - measureFrom >= 0) {
+                            stats.get(operation).record(failure != null ? 599 : status, System.nanoTime() - sentAt);
+                        }
+                        return null;
+                    })
+                    .thenCompose(ignored -> think())
+                    .thenCompose(ignored -> next());
+        }
+
+        private Operation pick() {
+            int roll = random.nextInt(totalWeight);
+            Operation picked = Operation.BROWSE;
+            for (Map.Entry<Operation, Integer> weight : mix.entrySet()) {
+                roll -= weight.getValue();
+                if (roll < 0) {
+                    picked = weight.getKey();
+                    break;
+                }
+            }
+            if (picked == Operation.RETURN && rentals.isEmpty()) {
+                return Operation.RENT;
+            }
+            if (picked == Operation.RENT && !rentals.isEmpty() && rentals.size() >= maxHeld) {
+                return Operation.RETURN;
+            }
+            return picked;
+        }
+
+        private CompletableFuture<Integer> execute(Operation operation) {
+            return switch (operation) {
+                case LOGIN -> login();
+                case BROWSE -> browse();
+                case SEARCH -> search();
+                case RENT -> rent();
+                case RETURN -> returnRental(rentals.peek());
+            };
+        }
+
+        private CompletableFuture<Void> think() {
+            if (thinkTime.isZero()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            // exponential think times keep the arrivals of many clients close to a Poisson process
+            final long delay = (long) (-Math.log(1 - random.nextDouble()) * thinkTime.toNanos());
+            return CompletableFuture.runAsync(() -> { },
+                    CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS));
+        }
+
+        private CompletableFuture<Integer> login() {
+            return authenticate().thenApply(HttpResponse::statusCode);
+        }
+
+        private CompletableFuture<HttpResponse<String>> authenticate() {
+            HttpRequest authenticate = request("/api/auth/authenticate", null)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
+                    .build();
+            return client.sendAsync(authenticate, HttpResponse.BodyHandlers.ofString())
+                    .thenApply(response -> {
+                        String issued = group(TOKEN, response.body());
+                        if (response.statusCode() < 300 && issued != null) {
+                            token = issued;
+                        }
+                        return response;
+                    });
+        }
+
+        private CompletableFuture<Integer> browse() {
+            String path = "/api/games?sortBy=" + (random.nextBoolean() ? "POPULARITY" : "TITLE")
+                    + "&genre=" + Genre.values()[random.nextInt(Genre.values().length)].name()
+                    + "&platform=" + Platform.values()[random.nextInt(Platform.values().length)].name();
+            return client.sendAsync(request(path, token).GET().build(), HttpResponse.BodyHandlers.discarding())
+                    .thenApply(HttpResponse::statusCode);
+        }
+
+        private CompletableFuture<Integer> search() {
+            String title = DatasetGenerator.TITLE_WORDS[random.nextInt(DatasetGenerator.TITLE_WORDS.length)];
+            if (random.nextBoolean()) {
+                title += " " + DatasetGenerator.TITLE_WORDS[random.nextInt(DatasetGenerator.TITLE_WORDS.length)];
+            }
+            String path = "/api/games/search?title=" + URLEncoder.encode(title, StandardCharsets.UTF_8) + "&limit=20";
+            return client.sendAsync(request(path, token).GET().build(), HttpResponse.BodyHandlers.discarding())
+                    .thenApply(HttpResponse::statusCode);
+        }
+
+        private CompletableFuture<Integer> rent() {
+            final String gameId = DatasetGenerator.gameId(hotGame()).toHexString();
+            rentedGames.add(gameId);
+            HttpRequest rent = request("/api/rentals/rent", token)
+                    .header("Content-Type", "application/json")
+                    .POST(json("gameId", gameId))
+                    .build();
+            return client.sendAsync(rent, HttpResponse.BodyHandlers.ofString())
+                    .thenApply(response -> {
+                        String rentalId = group(RENTAL_ID, response.body());
+                        if (response.statusCode() < 300 && rentalId != null) {
+                            rentals.add(new Held(gameId, rentalId));
+                            final String previous = held.putIfAbsent(gameId, rentalId);
+                            // a return that failed after this rent succeeded is still caught by checkInvariants
+                            if (previous != null && returning.contains(previous)) {
+                                held.replace(gameId, previous, rentalId);
+                            } else if (previous != null) {
+                                doubleRents.increment();
+                                System.out.println("Game " + gameId + " rented while already held");
+                            }
+                        }
+                        return response.statusCode();
+                    });
+        }
+
+        // users can not rent the games they submitted, game i being submitted by user i % users
+        private long hotGame() {
+            long game = hotTitles.next(random);
+            while (game % users == userIndex) {
+                game = (game + 1) % games;
+            }
+            return game;
+        }
+
+        // the rental stays held until the return is acknowledged, a rejected or failed one is tried again later
+        private CompletableFuture<Integer> returnRental(Held rental) {
+            returning.add(rental.rentalId());
+            HttpRequest giveBack = request("/api/rentals/return", token)
+                    .header("Content-Type", "application/json")
+                    .PUT(json("rentalId", rental.rentalId()))
+                    .build();
+            return client.sendAsync(giveBack, HttpResponse.BodyHandlers.discarding())
+                    .thenApply(HttpResponse::statusCode)
+                    .whenComplete((status, failure) -> {
+                        rentals.remove(rental);
+                        if (failure == null && status >= 200 && status < 300) {
+                            held.remove(rental.gameId(), rental.rentalId());
+                        } else {
+                            rentals.add(rental);
+                        }
+                        returning.remove(rental.rentalId());
+                    });
+        }
+
+        // hands back whatever the client still holds once the run is over, so runs can be repeated
+        private CompletableFuture<Void> returnAll() {
+            return returnAll(1);
+        }
+
+        private CompletableFuture<Void> returnAll(int attempt) {
+            if (rentals.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (attempt > RETURN_ATTEMPTS) {
+                rentals.forEach(rental -> System.out.println("Rental " + rental.rentalId() + " of game "
+                        + rental.gameId() + " could not be returned"));
+                return CompletableFuture.completedFuture(null);
+            }
+            // each pass tries every rental once, a failed return goes to the back of the queue
+            return returnEach(rentals.size())
+                    .thenCompose(ignored -> rentals.isEmpty()
+                            ? CompletableFuture.completedFuture(null)
+                            : CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(
+                                    RETURN_RETRY_DELAY.toMillis() + random.nextLong(1000), TimeUnit.MILLISECONDS))
+                            .thenCompose(delayed -> returnAll(attempt + 1)));
+        }
+
+        private CompletableFuture<Void> returnEach(int remaining) {
+            if (remaining == 0 || rentals.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return returnRental(rentals.peek())
+                    .handle((status, failure) -> null)
+                    .thenCompose(ignored -> returnEach(remaining - 1));
+        }
+    }
+
+    record OperationResult(Operation operation, long completed, long conflicts, long rateLimited, long rejected,
+                           long errors, double throughput, double p50Millis, double p95Millis, double p99Millis) {
+
+        static OperationResult of(Operation operation, List<Client> clients, Duration duration) {
+            List<Stats> stats = clients.stream().map(client -> client.stats.get(operation)).toList();
+            long[] latencies = stats.stream()
+                    .flatMap(operationStats -> operationStats.latencies.stream())
+                    .mapToLong(Long::longValue)
+                    .toArray();
+            Arrays.sort(latencies);
+            return new OperationResult(operation, latencies.length,
+                    stats.stream().mapToLong(operationStats -> operationStats.conflicts).sum(),
+                    stats.stream().mapToLong(operationStats -> operationStats.rateLimited).sum(),
+                    stats.stream().mapToLong(operationStats -> operationStats.rejected).sum(),
+                    stats.stream().mapToLong(operationStats -> operationStats.errors).sum(),
+                    latencies.length / (duration.toNanos() / 1e9),
+                    percentile(latencies, 0.50), percentile(latencies, 0.95), percentile(latencies, 0.99));
+        }
+
+        long attempts() {
+            return completed + conflicts + rateLimited + rejected + errors;
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-6s completed=%d conflicts=%d (%.1f%%) rateLimited=%d rejected=%d errors=%d "
+                            + "throughput=%.1f/s p50=%.2fms p95=%.2fms p99=%.2fms",
+                    operation, completed, conflicts, attempts() == 0 ? 0 : 100.0 * conflicts / attempts(),
+                    rateLimited, rejected, errors, throughput, p50Millis, p95Millis, p99Millis);
+        }
+    }
+
+    record Result(int concurrency, List<OperationResult> operations, double throughput, long doubleRents) {
+
+        static Result of(List<Client> clients, int concurrency, Duration duration, long doubleRents) {
+            List<OperationResult> operations = Arrays.stream(Operation.values())
+                    .map(operation -> OperationResult.of(operation, clients, duration))
+                    .toList();
+            return new Result(concurrency, operations,
+                    operations.stream().mapToDouble(OperationResult::throughput).sum(), doubleRents);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder(String.format(
+                    "concurrency=%d throughput=%.1f/s doubleRents=%d%n", concurrency, throughput, doubleRents));
+            operations.forEach(operation -> report.append(operation).append(System.lineSeparator()));
+            return report.toString();
+        }
+    }
+}
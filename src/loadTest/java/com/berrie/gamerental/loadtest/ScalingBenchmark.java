@@ -0,0 +1,226 @@
+package com.berrie.gamerental.loadtest;
+
+import com.berrie.gamerental.model.enums.Genre;
+import com.berrie.gamerental.model.enums.Platform;
+import com.berrie.gamerental.model.enums.RentalStatus;
+import com.mongodb.DBRef;
+import com.mongodb.MongoExecutionTimeoutException;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grows a synthetic dataset through each of the configured sizes with the {@link DatasetGenerator} and times
+ * the MongoDB queries behind the catalog, search, rentals and authentication endpoints at every size, so the
+ * size at which an endpoint falls off a cliff shows up before production data reaches it. The queries are
+ * issued directly, as the application issues them, so the application's caches do not hide their cost.
+ * Configured through system properties, see README.md.
+ */
+public class ScalingBenchmark {
+
+    private final MongoDatabase database;
+    private final int warmupIterations;
+    private final int iterations;
+    private final Duration queryTimeout;
+    private final String searchTerms;
+
+    ScalingBenchmark(MongoDatabase database, int warmupIterations, int iterations, Duration queryTimeout,
+                     String searchTerms) {
+        this.database = database;
+        this.warmupIterations = warmupIterations;
+        this.iterations = iterations;
+        this.queryTimeout = queryTimeout;
+        this.searchTerms = searchTerms;
+    }
+
+    public static void main(String[] args) {
+        final long[] sizes = Arrays.stream(System.getProperty("loadTest.sizes", "10000,100000,1000000,10000000")
+                        .split(","))
+                .map(String::trim)
+                .mapToLong(Long::parseLong)
+                .sorted()
+                .toArray();
+        final double usersPerGame = Double.parseDouble(System.getProperty("loadTest.usersPerGame", "0.1"));
+        final double rentalsPerGame = Double.parseDouble(System.getProperty("loadTest.rentalsPerGame", "1"));
+
+        try (MongoClient client = MongoClients.create(DatasetGenerator.mongoUri())) {
+            MongoDatabase database = client.getDatabase(System.getProperty("loadTest.database", "game-rental-scaling"));
+            DatasetGenerator generator = new DatasetGenerator(database,
+                    System.getProperty("loadTest.password", "password"),
+                    Double.parseDouble(System.getProperty("loadTest.skew", "1.0")),
+                    Long.getLong("loadTest.seed", 42));
+            // the dataset is grown from one size to the next, so it has to start empty
+            if (Boolean.parseBoolean(System.getProperty("loadTest.drop", "true"))) {
+                generator.drop();
+            }
+            ScalingBenchmark benchmark = new ScalingBenchmark(database,
+                    Integer.getInteger("loadTest.warmupIterations", 2),
+                    Integer.getInteger("loadTest.iterations", 10),
+                    Duration.parse(System.getProperty("loadTest.queryTimeout", "PT60S")),
+                    System.getProperty("loadTest.searchTerms", "legend zelda"));
+
+            List<Result> results = new ArrayList<>();
+            Set<String> timedOut = new LinkedHashSet<>();
+            for (long size : sizes) {
+                generator.growTo(Math.max(1, (long) (size * usersPerGame)), size, (long) (size * rentalsPerGame));
+                for (Result result : benchmark.run(size, timedOut)) {
+                    System.out.println(result);
+                    results.add(result);
+                    if (result.timedOut()) {
+                        timedOut.add(result.query());
+                    }
+                }
+            }
+            System.out.println();
+            System.out.print(summary(sizes, results));
+        }
+    }
+
+    /**
+     * Times every query at the current size of the dataset, skipping the queries that already timed out
+     * at a smaller size.
+     */
+    List<Result> run(long size, Set<String> skipped) {
+        final MongoCollection<Document> users = database.getCollection(DatasetGenerator.USERS);
+        final MongoCollection<Document> games = database.getCollection(DatasetGenerator.GAMES);
+        final MongoCollection<Document> rentals = database.getCollection(DatasetGenerator.RENTALS);
+        // rank 0 is the most common value and the heaviest renter under the generator's skew
+        final String username = DatasetGenerator.username(0);
+        final DBRef renter = new DBRef(DatasetGenerator.USERS, DatasetGenerator.userId(0));
+
+        Map<String, Query> queries = new LinkedHashMap<>();
+        queries.put("userLookup", () -> count(users.find(Filters.eq("username", username)).limit(1)));
+        queries.put("getGames", () -> count(games.find()
+                .sort(Sorts.descending("numberOfRentals"))));
+        queries.put("getGamesFiltered", () -> count(games.find(Filters.and(
+                        Filters.eq("genre", Genre.values()[0].name()),
+                        Filters.eq("platform", Platform.values()[0].name())))
+                .sort(Sorts.descending("numberOfRentals"))));
+        queries.put("searchGame", () -> count(games.find(Filters.text(searchTerms))
+                .projection(Projections.metaTextScore("textScore"))));
+        queries.put("getRentalsActive", () -> rentalsOf(rentals, users, games, renter, RentalStatus.ACTIVE));
+        queries.put("getRentalsReturned", () -> rentalsOf(rentals, users, games, renter, RentalStatus.RETURNED));
+
+        List<Result> results = new ArrayList<>();
+        queries.forEach((name, query) -> {
+            if (!skipped.contains(name)) {
+                results.add(measure(size, name, query));
+            }
+        });
+        return results;
+    }
+
+    private interface Query {
+        long run();
+    }
+
+    private Result measure(long size, String name, Query query) {
+        long documents = 0;
+        long[] latencies = new long[iterations];
+        try {
+            for (int i = 0; i < warmupIterations; i++) {
+                query.run();
+            }
+            for (int i = 0; i < iterations; i++) {
+                final long start = System.nanoTime();
+                documents = query.run();
+                latencies[i] = System.nanoTime() - start;
+            }
+        } catch (MongoExecutionTimeoutException ex) {
+            return new Result(size, name, documents, 0, 0, 0, true);
+        }
+        Arrays.sort(latencies);
+        return new Result(size, name, documents, percentile(latencies, 0.50), percentile(latencies, 0.95),
+                latencies[latencies.length - 1] / 1e6, false);
+    }
+
+    // the rentals query followed by one find per DBRef, as the mapping of the rentals endpoint does
+    private long rentalsOf(MongoCollection<Document> rentals, MongoCollection<Document> users,
+                           MongoCollection<Document> games, DBRef renter, RentalStatus status) {
+        long documents = 0;
+        try (MongoCursor<Document> cursor = withTimeout(rentals.find(Filters.and(
+                        Filters.eq("user", renter),
+                        Filters.eq("rentalStatus", status.name())))
+                .sort(Sorts.descending("rentalDate"))).iterator()) {
+            while (cursor.hasNext()) {
+                Document rental = cursor.next();
+                users.find(Filters.eq("_id", rental.get("user", DBRef.class).getId())).first();
+                games.find(Filters.eq("_id", rental.get("game", DBRef.class).getId())).first();
+                documents++;
+            }
+        }
+        return documents;
+    }
+
+    private long count(FindIterable<Document> find) {
+        long documents = 0;
+        try (MongoCursor<Document> cursor = withTimeout(find).iterator()) {
+            while (cursor.hasNext()) {
+                cursor.next();
+                documents++;
+            }
+        }
+        return documents;
+    }
+
+    private FindIterable<Document> withTimeout(FindIterable<Document> find) {
+        return find.maxTime(queryTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    // p50 latency of every query against the dataset size
+    private static String summary(long[] sizes, List<Result> results) {
+        StringBuilder summary = new StringBuilder(String.format("%-20s", "p50 (ms)"));
+        for (long size : sizes) {
+            summary.append(String.format("%14d", size));
+        }
+        summary.append(System.lineSeparator());
+        results.stream().map(Result::query).distinct().forEach(query -> {
+            summary.append(String.format("%-20s", query));
+            for (long size : sizes) {
+                String cell = results.stream()
+                        .filter(result -> result.size() == size && result.query().equals(query))
+                        .findFirst()
+                        .map(result -> result.timedOut() ? "timeout" : String.format("%.2f", result.p50Millis()))
+                        .orElse("-");
+                summary.append(String.format("%14s", cell));
+            }
+            summary.append(System.lineSeparator());
+        });
+        return summary.toString();
+    }
+
+    record Result(long size, String query, long documents, double p50Millis, double p95Millis, double maxMillis,
+                  boolean timedOut) {
+
+        @Override
+        public String toString() {
+            if (timedOut) {
+                return String.format("size=%d query=%s timed out", size, query);
+            }
+            return String.format("size=%d query=%s documents=%d p50=%.2fms p95=%.2fms max=%.2fms",
+                    size, query, documents, p50Millis, p95Millis, maxMillis);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.berrie.gamerental.loadtest;
+
+import java.util.SplittableRandom;
+
+/**
+ * Samples ranks from 0 to n - 1 with a probability falling off as a power of the rank, rank 0 being the most
+ * likely. Uses the inverse of the continuous power law, close enough to Zipf for synthetic data and constant
+ * in memory however large n is.
+ */
+class ZipfSampler {
+
+    private final long n;
+    private final double exponent;
+    private final double scale;
+
+    ZipfSampler(long n, double exponent) {
+        this.n = n;
+        this.exponent = exponent;
+        this.scale = exponent == 1 ? Math.log(n + 1) : Math.pow(n + 1, 1 - exponent) - 1;
+    }
+
+    long next(SplittableRandom random) {
+        final double u = random.nextDouble();
+        final double x = exponent == 1
+                ? Math.exp(u * scale)
+                : Math.pow(scale * u + 1, 1 / (1 - exponent));
+        return Math.min(Math.max((long) x - 1, 0), n - 1);
+    }
+}
@@ -0,0 +1,26 @@
+package com.berrie.gamerental.cache;
+
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.Document;
+
+/**
+ * A change to a collection backing an in-process cache, possibly made by another node.
+ * @param collection the changed collection, null if every cache must be invalidated.
+ * @param operation the kind of change.
+ * @param documentId id of the changed document, null if unknown.
+ * @param document the document after the change, null for deletes or if it no longer exists.
+ */
+public record CacheInvalidationEvent(String collection, OperationType operation, String documentId,
+                                     Document document) {
+
+    /**
+     * @return an event invalidating every cache, used when changes may have been missed.
+     */
+    public static CacheInvalidationEvent all() {
+        return new CacheInvalidationEvent(null, OperationType.INVALIDATE, null, null);
+    }
+
+    public boolean invalidatesAll() {
+        return collection == null;
+    }
+}
@@ -0,0 +1,62 @@
+package com.berrie.gamerental.cache;
+
+import com.berrie.gamerental.model.Game;
+import com.mongodb.client.model.changestream.OperationType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies {@link CacheInvalidationEvent}s to the in-process game caches. Changes made by this node were already
+ * applied by the Spring Data event listeners, applying them again is harmless.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationHandler {
+
+    private static final String GAMES_COLLECTION = "games";
+
+    @Autowired
+    private final GameFacetIndex facetIndex;
+    @Autowired
+    private final GameFacetIndexListener facetIndexListener;
+    @Autowired
+    private final SearchResultCache searchCache;
+    @Autowired
+    private final CatalogVersion catalogVersion;
+    @Autowired
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener
+    public void onInvalidation(CacheInvalidationEvent event) {
+        if (event.invalidatesAll()) {
+            log.info("Invalidating every game cache");
+            facetIndexListener.loadIndex();
+            searchCache.invalidateAll();
+            catalogVersion.advance();
+        } else if (GAMES_COLLECTION.equals(event.collection())) {
+            applyGameChange(event);
+        }
+        // users and rentals are not cached in process yet, their events are available to future caches
+    }
+
+    private void applyGameChange(CacheInvalidationEvent event) {
+        if (event.operation() == OperationType.DELETE) {
+            facetIndex.remove(event.documentId());
+            // the title of a deleted game is unknown
+            searchCache.invalidateAll();
+        } else if (event.document() != null) {
+            Game game = mongoTemplate.getConverter().read(Game.class, event.document());
+            facetIndex.upsert(game);
+            searchCache.invalidate(game.getTitle());
+        } else {
+            // deleted before the update could be looked up, its delete event follows
+            return;
+        }
+        catalogVersion.advance();
+    }
+}
@@ -0,0 +1,77 @@
+package com.berrie.gamerental.cache;
+
+import com.berrie.gamerental.model.Game;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Monotonically increasing version of the game catalog, bumped whenever a game is saved or deleted.
+ * Submitting, renting and returning a game all save it, so each of them moves the catalog to a new version.
+ * Catalog reads may be served by a secondary lagging by up to the maximum staleness, so the time of the last
+ * change is kept too, telling when a secondary might not have seen the current version yet.
+ */
+@Component
+public class CatalogVersion extends AbstractMongoEventListener<Game> {
+
+    // distinguishes versions issued by this run from those issued before a restart
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong version = new AtomicLong();
+    private final long maxStalenessNanos;
+    private final LongSupplier nanoClock;
+    // changes made before a restart are unknown, so the catalog counts as changed when the run starts
+    private volatile long changedAtNanos;
+
+    public CatalogVersion(@Value("${game.mongodb.catalog.max-staleness:90s}") Duration maxStaleness) {
+        this(maxStaleness, System::nanoTime);
+    }
+
+    CatalogVersion(Duration maxStaleness, LongSupplier nanoClock) {
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        this.nanoClock = nanoClock;
+        this.changedAtNanos = nanoClock.getAsLong();
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * @return the strong entity tag identifying the current catalog version.
+     */
+    public String eTag() {
+        return "\"" + epoch + "-" + version.get() + "\"";
+    }
+
+    /**
+     * @return true if the catalog changed within the maximum staleness of catalog reads, a secondary may not
+     * have seen the current version yet.
+     */
+    public boolean recentlyChanged() {
+        return nanoClock.getAsLong() - changedAtNanos < maxStalenessNanos;
+    }
+
+    /**
+     * Moves the catalog to a new version, used when a game was changed by another node.
+     */
+    public void advance() {
+        changedAtNanos = nanoClock.getAsLong();
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Game> event) {
+        advance();
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Game> event) {
+        advance();
+    }
+}
@@ -0,0 +1,216 @@
+package com.berrie.gamerental.cache;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows the MongoDB change stream of the collections backing in-process caches and publishes every change
+ * as a {@link CacheInvalidationEvent}, so caches converge with writes handled by other nodes.
+ * The resume token of the last published change is persisted per node, at most once per save interval and
+ * whenever the stream goes idle, after a restart the stream resumes where it stopped and replays at most one
+ * interval of changes. If the oplog no longer holds that position every cache is invalidated instead.
+ * A listener failing on a change invalidates every cache rather than stopping the stream.
+ * Change streams require a replica set, the listener is enabled with {@code game.cache.change-streams.enabled}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "game.cache.change-streams.enabled", havingValue = "true")
+public class ChangeStreamListener {
+
+    static final List<String> WATCHED_COLLECTIONS = List.of("games", "users", "rentals");
+    private static final String RESUME_TOKENS_COLLECTION = "change_stream_tokens";
+    private static final String ID_FIELD = "_id";
+    private static final String TOKEN_FIELD = "token";
+    private static final String UPDATED_AT_FIELD = "updatedAt";
+    private static final Set<Integer> HISTORY_LOST_ERROR_CODES = Set.of(136, 280, 286);
+    private static final Set<OperationType> COLLECTION_WIDE_OPERATIONS = Set.of(OperationType.DROP,
+            OperationType.RENAME, OperationType.DROP_DATABASE, OperationType.INVALIDATE);
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String nodeId;
+    private final Duration maxAwaitTime;
+    private final Duration retryDelay;
+    private final long tokenSaveIntervalNanos;
+    private final Thread worker;
+    private volatile boolean running;
+
+    public ChangeStreamListener(MongoTemplate mongoTemplate,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${game.cache.change-streams.node-id:local}") String nodeId,
+                                @Value("${game.cache.change-streams.max-await-time:1s}") Duration maxAwaitTime,
+                                @Value("${game.cache.change-streams.retry-delay:5s}") Duration retryDelay,
+                                @Value("${game.cache.change-streams.token-save-interval:1s}") Duration tokenSaveInterval) {
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.nodeId = nodeId;
+        this.maxAwaitTime = maxAwaitTime;
+        this.retryDelay = retryDelay;
+        this.tokenSaveIntervalNanos = tokenSaveInterval.toNanos();
+        this.worker = new Thread(this::follow, "change-stream-listener");
+        this.worker.setDaemon(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        worker.start();
+        log.info("Following changes to {} as node {}", WATCHED_COLLECTIONS, nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void follow() {
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = openCursor()) {
+                BsonDocument unsavedToken = null;
+                long tokenSavedAt = System.nanoTime();
+                while (running) {
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    if (change != null) {
+                        String collection = change.getNamespace() == null
+                                ? null : change.getNamespace().getCollectionName();
+                        publish(toInvalidationEvent(collection, change.getOperationType(),
+                                change.getDocumentKey(), change.getFullDocument()));
+                        unsavedToken = change.getResumeToken();
+                    }
+                    if (unsavedToken != null
+                            && (change == null || System.nanoTime() - tokenSavedAt >= tokenSaveIntervalNanos)) {
+                        saveResumeToken(unsavedToken);
+                        unsavedToken = null;
+                        tokenSavedAt = System.nanoTime();
+                    }
+                }
+            } catch (MongoCommandException e) {
+                if (!HISTORY_LOST_ERROR_CODES.contains(e.getErrorCode())) {
+                    retryLater(e);
+                    continue;
+                }
+                log.warn("Change stream can no longer resume, invalidating every cache", e);
+                resumeTokens().deleteOne(Filters.eq(ID_FIELD, nodeId));
+                eventPublisher.publishEvent(CacheInvalidationEvent.all());
+            } catch (RuntimeException e) {
+                retryLater(e);
+            }
+        }
+    }
+
+    /**
+     * Publishes an invalidation, invalidating every cache instead if a listener fails on it.
+     * @param event the invalidation to publish.
+     */
+    void publish(CacheInvalidationEvent event) {
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (RuntimeException e) {
+            log.error("Cache invalidation failed for {}, invalidating every cache", event, e);
+            if (event.invalidatesAll()) {
+                return;
+            }
+            try {
+                eventPublisher.publishEvent(CacheInvalidationEvent.all());
+            } catch (RuntimeException ignored) {
+                log.error("Could not invalidate every cache", ignored);
+            }
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> openCursor() {
+        List<Bson> pipeline = List.of(Aggregates.match(Filters.in("ns.coll", WATCHED_COLLECTIONS)));
+        ChangeStreamIterable<Document> changeStream = mongoTemplate.getDb()
+                .watch(pipeline)
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(maxAwaitTime.toMillis(), TimeUnit.MILLISECONDS);
+        BsonDocument resumeToken = loadResumeToken();
+        return resumeToken == null ? changeStream.cursor() : changeStream.resumeAfter(resumeToken).cursor();
+    }
+
+    private void retryLater(RuntimeException e) {
+        if (!running) {
+            return;
+        }
+        log.warn("Change stream interrupted, retrying in {}", retryDelay, e);
+        try {
+            Thread.sleep(retryDelay.toMillis());
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private BsonDocument loadResumeToken() {
+        BsonDocument saved = resumeTokens().find(Filters.eq(ID_FIELD, nodeId)).first();
+        return saved == null ? null : saved.getDocument(TOKEN_FIELD, null);
+    }
+
+    private void saveResumeToken(BsonDocument resumeToken) {
+        BsonDocument saved = new BsonDocument(ID_FIELD, new BsonString(nodeId))
+                .append(TOKEN_FIELD, resumeToken)
+                .append(UPDATED_AT_FIELD, new BsonDateTime(System.currentTimeMillis()));
+        resumeTokens().replaceOne(Filters.eq(ID_FIELD, nodeId), saved, new ReplaceOptions().upsert(true));
+    }
+
+    private MongoCollection<BsonDocument> resumeTokens() {
+        return mongoTemplate.getCollection(RESUME_TOKENS_COLLECTION).withDocumentClass(BsonDocument.class);
+    }
+
+    /**
+     * Maps a change stream event to the invalidation it requires.
+     * @param collection name of the changed collection.
+     * @param operation the kind of change.
+     * @param documentKey the {@code _id} of the changed document, absent for collection wide changes.
+     * @param fullDocument the document after the change, absent for deletes.
+     * @return the {@link CacheInvalidationEvent} to publish.
+     */
+    static CacheInvalidationEvent toInvalidationEvent(String collection, OperationType operation,
+                                                      BsonDocument documentKey, Document fullDocument) {
+        if (collection == null || COLLECTION_WIDE_OPERATIONS.contains(operation)) {
+            return CacheInvalidationEvent.all();
+        }
+        return new CacheInvalidationEvent(collection, operation, idOf(documentKey),
+                operation == OperationType.DELETE ? null : fullDocument);
+    }
+
+    private static String idOf(BsonDocument documentKey) {
+        if (documentKey == null || !documentKey.containsKey(ID_FIELD)) {
+            return null;
+        }
+        BsonValue id = documentKey.get(ID_FIELD);
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+}
@@ -0,0 +1,265 @@
+package com.berrie.gamerental.cache;
+
+import com.berrie.gamerental.dto.FacetCounts;
+import com.berrie.gamerental.dto.GameModel;
+import com.berrie.gamerental.dto.GetGamesRequest;
+import com.berrie.gamerental.model.Game;
+import com.berrie.gamerental.model.enums.GameStatus;
+import com.berrie.gamerental.model.enums.Genre;
+import com.berrie.gamerental.model.enums.Platform;
+import com.berrie.gamerental.model.enums.SortBy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import static com.berrie.gamerental.util.ModelMapper.toGameModel;
+
+/**
+ * In-memory catalog index with one bitmap per {@link Genre}, {@link Platform} and {@link GameStatus} value.
+ * Every game is assigned a dense ordinal, so filtering is a bitmap intersection and facet counts are
+ * bitmap cardinalities. The index is kept up to date by {@link GameFacetIndexListener}. Changes applied while
+ * the catalog is reloaded for a rebuild are recorded and replayed once the reloaded catalog is swapped in, so a
+ * write landing between the reload and the swap is not lost.
+ */
+@Component
+public class GameFacetIndex {
+
+    private static final Comparator<GameModel> BY_POPULARITY =
+            Comparator.comparing(GameModel::getNumberOfRentals, Comparator.nullsLast(Comparator.reverseOrder()));
+    private static final Comparator<GameModel> BY_TITLE =
+            Comparator.comparing(GameModel::getTitle, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // one rebuild at a time, they run in the background and may be slow
+    private final Lock rebuildLock = new ReentrantLock();
+    // guarded by the write lock, null unless a rebuild is loading the catalog
+    private List<Change> pendingChanges;
+    private final Map<String, Integer> ordinalsById = new HashMap<>();
+    private final List<GameModel> gamesByOrdinal = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private final Map<Genre, BitSet> genreBitmaps = bitmapsFor(Genre.class);
+    private final Map<Platform, BitSet> platformBitmaps = bitmapsFor(Platform.class);
+    private final Map<GameStatus, BitSet> statusBitmaps = bitmapsFor(GameStatus.class);
+    private volatile boolean ready;
+
+    /**
+     * @return true once the index has been loaded with the full catalog.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Replaces the contents of the index with the catalog, then replays the changes applied while it was loaded.
+     * @param catalog loads every game in the catalog, called without holding the index lock.
+     */
+    public void rebuild(Supplier<? extends Collection<Game>> catalog) {
+        rebuildLock.lock();
+        try {
+            setPendingChanges(new ArrayList<>());
+            Collection<Game> games;
+            try {
+                games = catalog.get();
+            } catch (RuntimeException e) {
+                setPendingChanges(null);
+                throw e;
+            }
+            lock.writeLock().lock();
+            try {
+                ordinalsById.clear();
+                gamesByOrdinal.clear();
+                live.clear();
+                genreBitmaps.values().forEach(BitSet::clear);
+                platformBitmaps.values().forEach(BitSet::clear);
+                statusBitmaps.values().forEach(BitSet::clear);
+                games.forEach(this::doUpsert);
+                // a change may predate the loaded state of its game, a later event for that game follows it
+                pendingChanges.forEach(change -> {
+                    if (change.game() != null) {
+                        doUpsert(change.game());
+                    } else {
+                        doRemove(change.gameId());
+                    }
+                });
+                pendingChanges = null;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a game to the index or replaces its previous state.
+     * @param game the saved game.
+     */
+    public void upsert(Game game) {
+        lock.writeLock().lock();
+        try {
+            doUpsert(game);
+            if (pendingChanges != null) {
+                pendingChanges.add(new Change(game.getId(), game));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a game from the index, freeing its ordinal for reuse.
+     * @param gameId id of the deleted game.
+     */
+    public void remove(String gameId) {
+        lock.writeLock().lock();
+        try {
+            doRemove(gameId);
+            if (pendingChanges != null) {
+                pendingChanges.add(new Change(gameId, null));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Lists the games matching every filter of the request, sorted by the requested order.
+     * @param request {@link GetGamesRequest} object containing the sort order and optional filters.
+     * @return list of matching {@link GameModel} objects.
+     */
+    public List<GameModel> findGames(GetGamesRequest request) {
+        List<GameModel> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            BitSet matching = matching(request.getGenre(), request.getPlatform(), request.getStatus());
+            for (int ordinal = matching.nextSetBit(0); ordinal >= 0; ordinal = matching.nextSetBit(ordinal + 1)) {
+                matches.add(gamesByOrdinal.get(ordinal));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(request.getSortBy() == SortBy.TITLE ? BY_TITLE : BY_POPULARITY);
+        return matches;
+    }
+
+    /**
+     * Counts the games for every facet value. Each facet is counted against the filters of the other facets,
+     * so clients can show how many games a different choice on the same facet would return.
+     * @param request {@link GetGamesRequest} object containing the optional filters.
+     * @return the {@link FacetCounts} for genre, platform and status.
+     */
+    public FacetCounts countFacets(GetGamesRequest request) {
+        lock.readLock().lock();
+        try {
+            return FacetCounts.builder()
+                    .genres(count(genreBitmaps, matching(null, request.getPlatform(), request.getStatus())))
+                    .platforms(count(platformBitmaps, matching(request.getGenre(), null, request.getStatus())))
+                    .statuses(count(statusBitmaps, matching(request.getGenre(), request.getPlatform(), null)))
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void doUpsert(Game game) {
+        Integer ordinal = ordinalsById.get(game.getId());
+        if (ordinal == null) {
+            ordinal = live.nextClearBit(0);
+            ordinalsById.put(game.getId(), ordinal);
+            if (ordinal == gamesByOrdinal.size()) {
+                gamesByOrdinal.add(null);
+            }
+        } else {
+            clearOrdinal(ordinal);
+        }
+        gamesByOrdinal.set(ordinal, toGameModel(game));
+        live.set(ordinal);
+        setIfPresent(genreBitmaps, game.getGenre(), ordinal);
+        setIfPresent(platformBitmaps, game.getPlatform(), ordinal);
+        setIfPresent(statusBitmaps, game.getStatus(), ordinal);
+    }
+
+    private void doRemove(String gameId) {
+        Integer ordinal = ordinalsById.remove(gameId);
+        if (ordinal != null) {
+            clearOrdinal(ordinal);
+            gamesByOrdinal.set(ordinal, null);
+        }
+    }
+
+    private void setPendingChanges(List<Change> changes) {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clearOrdinal(int ordinal) {
+        live.clear(ordinal);
+        genreBitmaps.values().forEach(bitmap -> bitmap.clear(ordinal));
+        platformBitmaps.values().forEach(bitmap -> bitmap.clear(ordinal));
+        statusBitmaps.values().forEach(bitmap -> bitmap.clear(ordinal));
+    }
+
+    private BitSet matching(Genre genre, Platform platform, GameStatus status) {
+        BitSet matching = (BitSet) live.clone();
+        if (genre != null) {
+            matching.and(genreBitmaps.get(genre));
+        }
+        if (platform != null) {
+            matching.and(platformBitmaps.get(platform));
+        }
+        if (status != null) {
+            matching.and(statusBitmaps.get(status));
+        }
+        return matching;
+    }
+
+    /**
+     * A change applied while a rebuild loads the catalog.
+     * @param gameId id of the changed game.
+     * @param game the saved game, null if it was removed.
+     */
+    private record Change(String gameId, Game game) {
+    }
+
+    private static <E extends Enum<E>> Map<E, Integer> count(Map<E, BitSet> bitmaps, BitSet matching) {
+        Map<E, Integer> counts = new LinkedHashMap<>();
+        bitmaps.forEach((value, bitmap) -> {
+            BitSet intersection = (BitSet) bitmap.clone();
+            intersection.and(matching);
+            counts.put(value, intersection.cardinality());
+        });
+        return counts;
+    }
+
+    private static <E extends Enum<E>> void setIfPresent(Map<E, BitSet> bitmaps, E value, int ordinal) {
+        if (value != null) {
+            bitmaps.get(value).set(ordinal);
+        }
+    }
+
+    private static <E extends Enum<E>> Map<E, BitSet> bitmapsFor(Class<E> enumType) {
+        Map<E, BitSet> bitmaps = new EnumMap<>(enumType);
+        for (E value : enumType.getEnumConstants()) {
+            bitmaps.put(value, new BitSet());
+        }
+        return bitmaps;
+    }
+}
@@ -0,0 +1,55 @@
+package com.berrie.gamerental.cache;
+
+import com.berrie.gamerental.model.Game;
+import com.berrie.gamerental.repository.GameRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.berrie.gamerental.util.MongoEvents.deletedIds;
+
+/**
+ * Loads the {@link GameFacetIndex} on startup and applies every game written through Spring Data to it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GameFacetIndexListener extends AbstractMongoEventListener<Game> {
+
+    @Autowired
+    private final GameFacetIndex facetIndex;
+    @Autowired
+    private final GameRepository gameRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        facetIndex.rebuild(gameRepository::findAll);
+        log.info("Game facet index loaded");
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Game> event) {
+        facetIndex.upsert(event.getSource());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Game> event) {
+        Optional<List<String>> gameIds = deletedIds(event);
+        if (gameIds.isPresent()) {
+            gameIds.get().forEach(facetIndex::remove);
+        } else {
+            // deleted by an arbitrary filter, the affected games are unknown
+            log.info("Reloading game facet index after a bulk delete");
+            loadIndex();
+        }
+    }
+}
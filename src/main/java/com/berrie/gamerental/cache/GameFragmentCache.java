@@ -0,0 +1,111 @@
+package com.berrie.gamerental.cache;
+
+import com.berrie.gamerental.dto.CacheStatsResponse;
+import com.berrie.gamerental.dto.GameModel;
+import com.berrie.gamerental.model.Game;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.berrie.gamerental.util.MongoEvents.deletedIds;
+
+/**
+ * Serialised JSON of every {@link GameModel}, keyed by game id and catalog version. Every save stamps a game
+ * with a new version, so a cached fragment stays valid until the game changes and only the latest version
+ * of each game is kept. Models without an id or version are serialised on every call.
+ */
+@Component
+public class GameFragmentCache extends AbstractMongoEventListener<Game> {
+
+    // rough per-entry size of the map node, key and fragment headers
+    private static final int ENTRY_OVERHEAD_BYTES = 120;
+
+    private final Map<String, Fragment> fragments = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final ObjectWriter writer;
+
+    public GameFragmentCache(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writerFor(GameModel.class);
+    }
+
+    /**
+     * Returns the UTF-8 JSON of a game, serialising and caching it if this version has not been seen yet.
+     * @param game the game to serialise.
+     * @return the JSON bytes of the game, must not be modified.
+     * @throws JsonProcessingException if the game can not be serialised.
+     */
+    public byte[] fragmentOf(GameModel game) throws JsonProcessingException {
+        final String id = game.getId();
+        final Long version = game.getVersion();
+        if (id == null || version == null) {
+            misses.increment();
+            return writer.writeValueAsBytes(game);
+        }
+        Fragment cached = fragments.get(id);
+        if (cached != null && cached.version() == version) {
+            hits.increment();
+            return cached.json();
+        }
+        misses.increment();
+        Fragment fresh = new Fragment(version, writer.writeValueAsBytes(game));
+        // a response served from an older snapshot must not replace the latest version
+        fragments.merge(id, fresh, (previous, next) -> previous.version() >= next.version() ? previous : next);
+        return fresh.json();
+    }
+
+    /**
+     * Drops every cached fragment.
+     */
+    public void clear() {
+        fragments.keySet().forEach(this::remove);
+    }
+
+    public CacheStatsResponse stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        long bytes = 0;
+        for (Fragment fragment : fragments.values()) {
+            bytes += ENTRY_OVERHEAD_BYTES + fragment.json().length;
+        }
+        return CacheStatsResponse.builder()
+                .hits(hitCount)
+                .misses(missCount)
+                .hitRatio(lookups == 0 ? 0 : (double) hitCount / lookups)
+                .entries(fragments.size())
+                .evictions(evictions.sum())
+                .estimatedBytes(bytes)
+                .build();
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Game> event) {
+        Optional<List<String>> gameIds = deletedIds(event);
+        if (gameIds.isPresent()) {
+            gameIds.get().forEach(this::remove);
+        } else {
+            // deleted by an arbitrary filter, the affected games are unknown
+            clear();
+        }
+    }
+
+    private void remove(String gameId) {
+        if (fragments.remove(gameId) != null) {
+            evictions.increment();
+        }
+    }
+
+    private record Fragment(long version, byte[] json) {
+    }
+}
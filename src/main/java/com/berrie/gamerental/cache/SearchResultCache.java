@@ -0,0 +1,254 @@
+package com.berrie.gamerental.cache;
+
+import com.berrie.gamerental.dto.CacheStatsResponse;
+import com.berrie.gamerental.dto.GameModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory cache of game search results keyed by the normalised set of search terms.
+ * Empty results are cached for a shorter time so repeated misses do not reach the database.
+ * The text index stems words and drops stop words, so a changed title can alter the results of searches
+ * that share no word with it. Searches are therefore invalidated by the first letter of each term,
+ * which stemming never changes, rather than by the whole word.
+ */
+@Component
+public class SearchResultCache {
+
+    // rough per-object sizes used to estimate heap usage of the cached results
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+    private static final int GAME_MODEL_OVERHEAD_BYTES = 120;
+    // the text index splits words on anything but letters and digits, and ignores diacritics
+    private static final Pattern WORD_DELIMITER = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<Key>> keysByInitial = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong estimatedBytes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+
+    public SearchResultCache(@Value("${game.search.cache.ttl:60s}") Duration ttl,
+                             @Value("${game.search.cache.negative-ttl:5s}") Duration negativeTtl,
+                             @Value("${game.search.cache.max-entries:10000}") int maxEntries) {
+        this(ttl, negativeTtl, maxEntries, System::nanoTime);
+    }
+
+    SearchResultCache(Duration ttl, Duration negativeTtl, int maxEntries, LongSupplier nanoClock) {
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Builds the cache key for a search, the lowercased, sorted and de-duplicated terms of the title.
+     * @param title title searched for, may contain one or more words.
+     * @param limit maximum number of results requested, or null for every match.
+     * @return the normalised cache key.
+     */
+    public static Key keyOf(String title, Integer limit) {
+        return new Key(termsOf(title), limit);
+    }
+
+    /**
+     * Returns the cached results for a search.
+     * @param key normalised search key.
+     * @return the cached games, an empty list for a search cached as matching nothing, or empty if nothing
+     * is cached.
+     */
+    public Optional<List<GameModel>> get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.isExpired(nanoClock.getAsLong())) {
+            if (entry != null) {
+                remove(key, entry);
+            }
+            misses.increment();
+            return Optional.empty();
+        }
+        if (entry.games().isEmpty()) {
+            negativeHits.increment();
+        }
+        hits.increment();
+        return Optional.of(entry.games());
+    }
+
+    /**
+     * Current invalidation generation, read before querying the database so results computed
+     * across an invalidation are not cached.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches the results of a search unless an invalidation happened since the search started.
+     * @param key normalised search key.
+     * @param games results of the search, empty if nothing matched.
+     * @param startGeneration the {@link #generation()} read before the search was executed.
+     */
+    public void put(Key key, List<GameModel> games, long startGeneration) {
+        if (startGeneration != generation.get()) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        if (entries.size() >= maxEntries && purgeExpired(now) == 0) {
+            return;
+        }
+        long ttl = games.isEmpty() ? negativeTtlNanos : ttlNanos;
+        Entry entry = new Entry(List.copyOf(games), now + ttl, estimateBytes(key, games));
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            estimatedBytes.addAndGet(-previous.bytes());
+        }
+        estimatedBytes.addAndGet(entry.bytes());
+        for (String initial : initialsOf(key.terms())) {
+            keysByInitial.computeIfAbsent(initial, i -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        // an invalidation between the generation check and the registration above may have missed the entry
+        if (startGeneration != generation.get()) {
+            remove(key, entry);
+        }
+    }
+
+    /**
+     * Drops every cached search with a term starting with the same letter as a word of the provided title.
+     * @param title title of a game that was added or changed.
+     */
+    public void invalidate(String title) {
+        generation.incrementAndGet();
+        for (String initial : initialsOf(WORD_DELIMITER.split(title))) {
+            Set<Key> keys = keysByInitial.remove(initial);
+            if (keys != null) {
+                keys.forEach(key -> {
+                    Entry entry = entries.get(key);
+                    if (entry != null) {
+                        remove(key, entry);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Drops every cached search.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.forEach(this::remove);
+    }
+
+    public CacheStatsResponse stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        return CacheStatsResponse.builder()
+                .hits(hitCount)
+                .misses(missCount)
+                .negativeHits(negativeHits.sum())
+                .hitRatio(lookups == 0 ? 0 : (double) hitCount / lookups)
+                .entries(entries.size())
+                .evictions(evictions.sum())
+                .estimatedBytes(estimatedBytes.get())
+                .build();
+    }
+
+    private int purgeExpired(long now) {
+        int purged = 0;
+        for (Map.Entry<Key, Entry> cached : entries.entrySet()) {
+            if (cached.getValue().isExpired(now) && remove(cached.getKey(), cached.getValue())) {
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    private boolean remove(Key key, Entry entry) {
+        if (!entries.remove(key, entry)) {
+            return false;
+        }
+        estimatedBytes.addAndGet(-entry.bytes());
+        evictions.increment();
+        for (String initial : initialsOf(key.terms())) {
+            keysByInitial.computeIfPresent(initial, (i, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+        return true;
+    }
+
+    private static List<String> termsOf(String title) {
+        return Arrays.stream(title.trim().toLowerCase(Locale.ROOT).split("\\s+"))
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    // the first letter of every word, lowercased and without diacritics
+    private static Set<String> initialsOf(Iterable<String> words) {
+        Set<String> initials = new HashSet<>();
+        for (String word : words) {
+            String folded = DIACRITICS.matcher(Normalizer.normalize(word, Normalizer.Form.NFD)).replaceAll("")
+                    .toLowerCase(Locale.ROOT);
+            if (!folded.isEmpty()) {
+                initials.add(folded.substring(0, Character.charCount(folded.codePointAt(0))));
+            }
+        }
+        return initials;
+    }
+
+    private static Set<String> initialsOf(String[] words) {
+        return initialsOf(Arrays.asList(words));
+    }
+
+    private static long estimateBytes(Key key, List<GameModel> games) {
+        long bytes = ENTRY_OVERHEAD_BYTES;
+        for (String term : key.terms()) {
+            bytes += 2L * term.length();
+        }
+        for (GameModel game : games) {
+            bytes += GAME_MODEL_OVERHEAD_BYTES + 2L * lengthOf(game.getTitle()) + 2L * lengthOf(game.getSubmittedBy());
+        }
+        return bytes;
+    }
+
+    private static int lengthOf(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    /**
+     * Normalised search key.
+     */
+    public record Key(List<String> terms, Integer limit) {
+    }
+
+    private record Entry(List<GameModel> games, long expiresAtNanos, long bytes) {
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.berrie.gamerental.cache;
+
+import com.berrie.gamerental.config.RequestDeadlines;
+import com.berrie.gamerental.config.SessionBindingMongoDatabaseFactory;
+import com.berrie.gamerental.dto.CoalescingStatsResponse;
+import com.berrie.gamerental.exception.DeadlineExceededException;
+import com.mongodb.client.ClientSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Coalesces identical concurrent reads, so only the first caller for a key queries the database and every
+ * caller arriving while that query is in flight receives its result, or its exception. Results are shared
+ * between the coalesced callers and must not be modified.
+ * <p>
+ * The shared query runs under the catalog deadline and outside the session of the first caller, so a short
+ * client deadline does not fail every coalesced caller. A caller whose session has to read past a write,
+ * because it sent a causal consistency token or wrote earlier in the request, is not coalesced. Nor is a caller
+ * coalesced with a read started at an older {@link CatalogVersion}, whose result may predate a change the
+ * caller was already told about, such as through the ETag of the response it is building.
+ */
+@Component
+public class SingleFlight {
+
+    private final Map<Flight, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final RequestDeadlines requestDeadlines;
+    private final SessionBindingMongoDatabaseFactory mongoDatabaseFactory;
+    private final CatalogVersion catalogVersion;
+    private final Duration sharedDeadline;
+
+    public SingleFlight(RequestDeadlines requestDeadlines,
+                        SessionBindingMongoDatabaseFactory mongoDatabaseFactory,
+                        CatalogVersion catalogVersion,
+                        @Value("${game.deadline.catalog:2s}") Duration sharedDeadline) {
+        this.requestDeadlines = requestDeadlines;
+        this.mongoDatabaseFactory = mongoDatabaseFactory;
+        this.catalogVersion = catalogVersion;
+        this.sharedDeadline = sharedDeadline;
+    }
+
+    /**
+     * Runs the loader unless an identical call is already in flight, in which case its result is awaited
+     * for no longer than the deadline of the current request. Only calls made at the same catalog version are
+     * identical. A caller with a causal position to read past runs the loader itself.
+     * @param key normalised request, equal for calls returning the same result.
+     * @param loader reads the value from the database.
+     * @return the value read by this call or by the call it was coalesced with.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object key, Supplier<T> loader) {
+        calls.increment();
+        final ClientSession session = mongoDatabaseFactory.boundSession();
+        if (session != null && session.getOperationTime() != null) {
+            return loader.get();
+        }
+        final Flight flight = new Flight(key, catalogVersion.current());
+        final CompletableFuture<Object> call = new CompletableFuture<>();
+        final CompletableFuture<Object> leader = inFlight.putIfAbsent(flight, call);
+        if (leader != null) {
+            coalesced.increment();
+            return (T) await(leader);
+        }
+        final T value;
+        try {
+            value = loadShared(loader, session);
+            call.complete(value);
+        } catch (RuntimeException | Error ex) {
+            call.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(flight, call);
+        }
+        // the leader is held to its own deadline, even though the shared load was given longer
+        requestDeadlines.checkNotExpired();
+        return value;
+    }
+
+    public CoalescingStatsResponse stats() {
+        long callCount = calls.sum();
+        long coalescedCount = coalesced.sum();
+        return CoalescingStatsResponse.builder()
+                .calls(callCount)
+                .coalesced(coalescedCount)
+                .coalescedRatio(callCount == 0 ? 0 : (double) coalescedCount / callCount)
+                .inFlight(inFlight.size())
+                .build();
+    }
+
+    private <T> T loadShared(Supplier<T> loader, ClientSession session) {
+        if (session == null) {
+            return requestDeadlines.callWithin(sharedDeadline, loader);
+        }
+        mongoDatabaseFactory.unbind();
+        try {
+            return requestDeadlines.callWithin(sharedDeadline, loader);
+        } finally {
+            mongoDatabaseFactory.bind(session);
+        }
+    }
+
+    private Object await(CompletableFuture<Object> leader) {
+        final OptionalLong remainingMillis = requestDeadlines.remainingMillis();
+        try {
+            return remainingMillis.isPresent()
+                    ? leader.get(remainingMillis.getAsLong(), MILLISECONDS)
+                    : leader.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new DeadlineExceededException("request deadline exceeded");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DeadlineExceededException("interrupted while waiting for a coalesced read");
+        }
+    }
+
+    private record Flight(Object key, long catalogVersion) {
+    }
+}
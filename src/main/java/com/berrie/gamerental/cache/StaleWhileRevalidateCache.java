@@ -0,0 +1,192 @@
+package com.berrie.gamerental.cache;
+
+import com.berrie.gamerental.config.RequestDeadlines;
+import com.berrie.gamerental.exception.CatalogUnavailableException;
+import com.berrie.gamerental.exception.DeadlineExceededException;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshot;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the last good catalog and search responses, so they can be served while MongoDB is degraded.
+ * A read that fails with a {@link DataAccessException}, including one that exceeds its deadline, is answered
+ * from the last good response. After repeated failures the {@link CircuitBreaker} opens and reads are answered
+ * from the last good responses straight away, while refreshes run in the background and probe the database.
+ * A request running out of its own deadline, which clients can lower, is not counted as a failure. Background
+ * refreshes run under the catalog deadline, so their timeouts do count.
+ * At most {@code max-entries} responses are kept. When a new response does not fit, responses older than the
+ * maximum staleness are dropped, or failing that the response loaded longest ago.
+ */
+@Slf4j
+@Component
+public class StaleWhileRevalidateCache {
+
+    private final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+    private final CircuitBreaker circuitBreaker;
+    private final ExecutorService refresher;
+    private final RequestDeadlines requestDeadlines;
+    private final Duration refreshDeadline;
+    private final long maxStaleNanos;
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+
+    public StaleWhileRevalidateCache(RequestDeadlines requestDeadlines,
+                                     @Value("${game.catalog.stale.max-age:1h}") Duration maxStale,
+                                     @Value("${game.catalog.stale.max-entries:1000}") int maxEntries,
+                                     @Value("${game.catalog.breaker.failure-threshold:5}") int failureThreshold,
+                                     @Value("${game.catalog.breaker.open-duration:10s}") Duration openDuration,
+                                     @Value("${game.deadline.catalog:2s}") Duration refreshDeadline) {
+        this(requestDeadlines, maxStale, maxEntries, failureThreshold, openDuration, refreshDeadline,
+                System::nanoTime);
+    }
+
+    StaleWhileRevalidateCache(RequestDeadlines requestDeadlines, Duration maxStale, int maxEntries,
+                              int failureThreshold, Duration openDuration, Duration refreshDeadline,
+                              LongSupplier nanoClock) {
+        this.requestDeadlines = requestDeadlines;
+        this.refreshDeadline = refreshDeadline;
+        this.maxStaleNanos = maxStale.toNanos();
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration, nanoClock);
+        // refreshes carry the trace of the read that triggered them
+        this.refresher = ContextExecutorService.wrap(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-refresher");
+            thread.setDaemon(true);
+            return thread;
+        }), ContextSnapshot::captureAll);
+    }
+
+    /**
+     * Reads a value through the loader, falling back to the last good value if the database is degraded.
+     * @param key key of the response, such as the request it answers.
+     * @param loader reads the value from the database.
+     * @return the loaded value, or the last good value and its age if the database is degraded.
+     * @throws CatalogUnavailableException if the circuit breaker is open and no last good value is held.
+     */
+    public <T> Served<T> get(Object key, Supplier<T> loader) {
+        if (!circuitBreaker.isClosed()) {
+            refreshInBackground(key, loader);
+            return serveStale(key, null);
+        }
+        try {
+            return new Served<>(load(key, loader, false), false, 0);
+        } catch (DataAccessException ex) {
+            return serveStale(key, ex);
+        }
+    }
+
+    public CircuitBreaker.State breakerState() {
+        return circuitBreaker.state();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private <T> T load(Object key, Supplier<T> loader, boolean background) {
+        final T value;
+        try {
+            value = loader.get();
+        } catch (DeadlineExceededException ex) {
+            // the request ran out of time before reaching the database, which says nothing about its health
+            throw ex;
+        } catch (DataAccessException ex) {
+            // a client can lower its deadline until every read times out, which must not open the breaker
+            if (background || !RequestDeadlines.isDeadlineFailure(ex)) {
+                circuitBreaker.recordFailure();
+            }
+            throw ex;
+        } catch (RuntimeException ex) {
+            // the database answered, the loader rejected the answer
+            circuitBreaker.recordSuccess();
+            throw ex;
+        }
+        circuitBreaker.recordSuccess();
+        final long now = nanoClock.getAsLong();
+        if (entries.put(key, new Entry(value, now)) == null && entries.size() > maxEntries) {
+            evict(key, now);
+        }
+        return value;
+    }
+
+    private void evict(Object added, long now) {
+        // responses too old to be served are of no use
+        entries.values().removeIf(entry -> now - entry.storedAtNanos() > maxStaleNanos);
+        while (entries.size() > maxEntries) {
+            Optional<Object> oldest = entries.entrySet().stream()
+                    .filter(entry -> !entry.getKey().equals(added))
+                    .min(Comparator.comparingLong(entry -> entry.getValue().storedAtNanos()))
+                    .map(Map.Entry::getKey);
+            if (oldest.isEmpty()) {
+                return;
+            }
+            entries.remove(oldest.get());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Served<T> serveStale(Object key, DataAccessException failure) {
+        Entry entry = entries.get(key);
+        final long age = entry == null ? 0 : nanoClock.getAsLong() - entry.storedAtNanos();
+        if (entry == null || age > maxStaleNanos) {
+            if (failure != null) {
+                throw failure;
+            }
+            throw new CatalogUnavailableException("The catalog is temporarily unavailable, try again shortly");
+        }
+        log.warn("Serving a catalog response from {}s ago, the database is degraded", Duration.ofNanos(age).toSeconds());
+        return new Served<>((T) entry.value(), true, Duration.ofNanos(age).toSeconds());
+    }
+
+    private <T> void refreshInBackground(Object key, Supplier<T> loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                requestDeadlines.bind(refreshDeadline);
+                try {
+                    if (circuitBreaker.isClosed() || circuitBreaker.tryProbe()) {
+                        load(key, loader, true);
+                    }
+                } catch (RuntimeException ex) {
+                    log.debug("Background catalog refresh failed: {}", ex.getMessage());
+                } finally {
+                    requestDeadlines.unbind();
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            refreshing.remove(key);
+        }
+    }
+
+    /**
+     * A response and whether it is a last good response served while the database is degraded.
+     * @param ageSeconds seconds since a stale response was loaded, zero for a fresh response.
+     */
+    public record Served<T>(T value, boolean stale, long ageSeconds) {
+    }
+
+    private record Entry(Object value, long storedAtNanos) {
+    }
+}
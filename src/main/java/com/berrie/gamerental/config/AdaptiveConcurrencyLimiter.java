@@ -0,0 +1,114 @@
+package com.berrie.gamerental.config;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Concurrency limit adjusted from observed latency, additive increase and multiplicative decrease (AIMD).
+ * A request that completes within the latency target while the limit was in use raises the limit by about
+ * one per round of {@code limit} requests, a slow or failed request cuts it by the backoff ratio. The limit is
+ * cut at most once per round trip, only requests admitted after the last cut can cut it again, so a burst of
+ * slow requests that were all in flight together counts as a single congestion signal.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long maxLatencyNanos;
+    // the limit is fractional so it can grow by 1/limit per request, kept as double bits for CAS updates
+    private final AtomicLong limitBits;
+    // nanoTime of the last cut, requests that started before it saw the old limit
+    private final AtomicLong backedOffAt = new AtomicLong(NEVER);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      Duration maxLatency) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxLatencyNanos = maxLatency.toNanos();
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(
+                Math.max(minLimit, Math.min(maxLimit, initialLimit))));
+    }
+
+    /**
+     * Admits a request if fewer requests than the current limit are in flight.
+     * @return true if the request was admitted and must be followed by {@link #release(long, long, boolean)}
+     * or {@link #releaseWithoutSample()}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit()) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Completes an admitted request and adjusts the limit from its outcome.
+     * @param startNanos {@link System#nanoTime()} when the request was admitted.
+     * @param endNanos {@link System#nanoTime()} when the request completed.
+     * @param failed true if the request failed, which counts as overload like a slow request.
+     */
+    public void release(long startNanos, long endNanos, boolean failed) {
+        final int inFlightBefore = inFlight.getAndDecrement();
+        if (failed || endNanos - startNanos > maxLatencyNanos) {
+            backOff(startNanos, endNanos);
+        } else if (inFlightBefore * 2 >= limit()) {
+            // only grow while the limit is actually in use, an idle service learns nothing about its capacity
+            updateLimit(limit -> Math.min(maxLimit, limit + 1 / limit));
+        }
+    }
+
+    /**
+     * Completes an admitted request whose outcome says nothing about the capacity of the service, such as a
+     * request that ran out of its own deadline, without adjusting the limit.
+     */
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int limit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    private void backOff(long startNanos, long endNanos) {
+        final long lastBackOff = backedOffAt.get();
+        if (lastBackOff != NEVER && startNanos - lastBackOff < 0) {
+            // admitted before the last cut, its slowness was already accounted for
+            return;
+        }
+        if (backedOffAt.compareAndSet(lastBackOff, endNanos)) {
+            updateLimit(limit -> Math.max(minLimit, limit * BACKOFF_RATIO));
+        }
+    }
+
+    private void updateLimit(DoubleUnaryOperator update) {
+        limitBits.updateAndGet(bits -> Double.doubleToLongBits(update.applyAsDouble(Double.longBitsToDouble(bits))));
+    }
+}
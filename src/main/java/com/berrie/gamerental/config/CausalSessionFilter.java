@@ -0,0 +1,144 @@
+package com.berrie.gamerental.config;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.client.ClientSession;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Runs each authenticated request in a causally consistent session, so a user reads their own writes even
+ * when the read is served by a lagging secondary or another node of the application. A write returns the
+ * cluster and operation time of its session in the {@value #CAUSAL_TOKEN_HEADER} header, and a client sending
+ * that token back has its session advanced past the write. Nothing is kept on the server.
+ */
+@Slf4j
+@Profile("!reactive")
+@Component
+@RequiredArgsConstructor
+public class CausalSessionFilter extends OncePerRequestFilter {
+
+    public static final String CAUSAL_TOKEN_HEADER = "X-Causal-Token";
+    private static final String CLUSTER_TIME_FIELD = "clusterTime";
+    private static final String OPERATION_TIME_FIELD = "operationTime";
+    private static final ClientSessionOptions CAUSALLY_CONSISTENT = ClientSessionOptions.builder()
+            .causallyConsistent(true)
+            .build();
+
+    @Autowired
+    private final SessionBindingMongoDatabaseFactory mongoDatabaseFactory;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try (ClientSession session = mongoDatabaseFactory.getSession(CAUSALLY_CONSISTENT)) {
+            advancePastToken(request.getHeader(CAUSAL_TOKEN_HEADER), session);
+            mongoDatabaseFactory.bind(session);
+            if (HttpMethod.GET.matches(request.getMethod())) {
+                runBound(request, response, filterChain);
+                return;
+            }
+            // the token has to be set before the body commits the response
+            TokenResponseWrapper tokenResponse = new TokenResponseWrapper(response, session);
+            runBound(request, tokenResponse, filterChain);
+            if (!response.isCommitted()) {
+                tokenResponse.writeToken();
+            }
+        }
+    }
+
+    private void runBound(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            mongoDatabaseFactory.unbind();
+        }
+    }
+
+    private static void advancePastToken(String token, ClientSession session) {
+        if (token == null || token.isBlank()) {
+            return;
+        }
+        try {
+            BsonDocument times = new RawBsonDocument(Base64.getUrlDecoder().decode(token));
+            session.advanceClusterTime(times.getDocument(CLUSTER_TIME_FIELD));
+            session.advanceOperationTime(times.getTimestamp(OPERATION_TIME_FIELD));
+        } catch (RuntimeException e) {
+            // the token comes from the client, a malformed one only costs it its own read-your-writes guarantee
+            log.debug("Ignoring malformed causal consistency token: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Encodes the cluster and operation time of a session as the token returned to the client.
+     * @param session the session the request ran in.
+     * @return the token, or null if the session has not talked to the server.
+     */
+    static String tokenOf(ClientSession session) {
+        final BsonDocument clusterTime = session.getClusterTime();
+        final BsonTimestamp operationTime = session.getOperationTime();
+        if (clusterTime == null || operationTime == null) {
+            return null;
+        }
+        BsonDocument times = new BsonDocument(CLUSTER_TIME_FIELD, clusterTime)
+                .append(OPERATION_TIME_FIELD, operationTime);
+        ByteBuffer bytes = new RawBsonDocument(times, new BsonDocumentCodec()).getByteBuffer().asNIO();
+        byte[] encoded = new byte[bytes.remaining()];
+        bytes.get(encoded);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(encoded);
+    }
+
+    private static final class TokenResponseWrapper extends OnCommittedResponseWrapper {
+
+        private final ClientSession session;
+        private boolean written;
+
+        TokenResponseWrapper(HttpServletResponse response, ClientSession session) {
+            super(response);
+            this.session = session;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeToken();
+        }
+
+        void writeToken() {
+            if (written) {
+                return;
+            }
+            written = true;
+            final String token = tokenOf(session);
+            if (token != null) {
+                setHeader(CAUSAL_TOKEN_HEADER, token);
+            }
+        }
+    }
+}
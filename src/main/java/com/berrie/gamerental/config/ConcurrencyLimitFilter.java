@@ -0,0 +1,138 @@
+package com.berrie.gamerental.config;
+
+import com.berrie.gamerental.dto.ConcurrencyLimitStats;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Caps the number of concurrent auth, catalog and rental requests, each with its own
+ * {@link AdaptiveConcurrencyLimiter}, so requests are rejected with 503 Service Unavailable instead of
+ * queueing behind a slow database. Runs ahead of the security chain so rejected requests skip authentication.
+ * A request running out of the deadline its client set, see {@link DeadlineFilter}, does not adjust the limit,
+ * whether it ends in a 504 Gateway Timeout or is answered from the stale catalog.
+ */
+@Profile("!reactive")
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 10)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String AVAILABILITY_STREAM_PATH = "/api/games/availability/stream";
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final AdaptiveConcurrencyLimiter authLimiter;
+    private final AdaptiveConcurrencyLimiter catalogLimiter;
+    private final AdaptiveConcurrencyLimiter rentalLimiter;
+    private final RequestDeadlines requestDeadlines;
+    private final LongSupplier nanoClock;
+
+    public ConcurrencyLimitFilter(RequestDeadlines requestDeadlines,
+                                  @Value("${game.concurrency.min-limit:4}") int minLimit,
+                                  @Value("${game.concurrency.max-limit:500}") int maxLimit,
+                                  @Value("${game.concurrency.auth.initial-limit:20}") int authLimit,
+                                  @Value("${game.concurrency.auth.max-latency:500ms}") Duration authLatency,
+                                  @Value("${game.concurrency.catalog.initial-limit:100}") int catalogLimit,
+                                  @Value("${game.concurrency.catalog.max-latency:250ms}") Duration catalogLatency,
+                                  @Value("${game.concurrency.rental.initial-limit:50}") int rentalLimit,
+                                  @Value("${game.concurrency.rental.max-latency:250ms}") Duration rentalLatency) {
+        this(new AdaptiveConcurrencyLimiter("auth", authLimit, minLimit, maxLimit, authLatency),
+                new AdaptiveConcurrencyLimiter("catalog", catalogLimit, minLimit, maxLimit, catalogLatency),
+                new AdaptiveConcurrencyLimiter("rental", rentalLimit, minLimit, maxLimit, rentalLatency),
+                requestDeadlines, System::nanoTime);
+    }
+
+    ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter authLimiter, AdaptiveConcurrencyLimiter catalogLimiter,
+                           AdaptiveConcurrencyLimiter rentalLimiter, RequestDeadlines requestDeadlines,
+                           LongSupplier nanoClock) {
+        this.authLimiter = authLimiter;
+        this.catalogLimiter = catalogLimiter;
+        this.rentalLimiter = rentalLimiter;
+        this.requestDeadlines = requestDeadlines;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        // the stream holds no request thread once started, so it is not limited
+        return limiterFor(request) == null || AVAILABILITY_STREAM_PATH.equals(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        final AdaptiveConcurrencyLimiter limiter = limiterFor(request);
+        if (!limiter.tryAcquire()) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            return;
+        }
+        final long start = nanoClock.getAsLong();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        } finally {
+            if (response.getStatus() == HttpServletResponse.SC_GATEWAY_TIMEOUT || requestDeadlines.hasExpired()) {
+                limiter.releaseWithoutSample();
+            } else {
+                limiter.release(start, nanoClock.getAsLong(), failed);
+            }
+        }
+    }
+
+    /**
+     * Reports the current limit, in-flight and rejected request counts of every limiter.
+     */
+    public List<ConcurrencyLimitStats> stats() {
+        return limiters().stream()
+                .map(ConcurrencyLimitFilter::statsOf)
+                .toList();
+    }
+
+    /**
+     * @return the auth, catalog and rental limiters.
+     */
+    public List<AdaptiveConcurrencyLimiter> limiters() {
+        return List.of(authLimiter, catalogLimiter, rentalLimiter);
+    }
+
+    private AdaptiveConcurrencyLimiter limiterFor(HttpServletRequest request) {
+        final String path = request.getRequestURI();
+        if (path.startsWith("/api/auth")) {
+            return authLimiter;
+        }
+        if (path.startsWith("/api/games")) {
+            return catalogLimiter;
+        }
+        if (path.startsWith("/api/rentals")) {
+            return rentalLimiter;
+        }
+        return null;
+    }
+
+    private static ConcurrencyLimitStats statsOf(AdaptiveConcurrencyLimiter limiter) {
+        return ConcurrencyLimitStats.builder()
+                .name(limiter.name())
+                .limit(limiter.limit())
+                .inFlight(limiter.inFlight())
+                .rejected(limiter.rejected())
+                .build();
+    }
+}
@@ -0,0 +1,198 @@
+package com.berrie.gamerental.config;
+
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.DistinctIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.CountOptions;
+import com.mongodb.client.model.EstimatedDocumentCountOptions;
+import com.mongodb.client.model.FindOneAndDeleteOptions;
+import com.mongodb.client.model.FindOneAndReplaceOptions;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import org.bson.Document;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Template applying the remaining budget of the current request, see {@link RequestDeadlines}, as
+ * {@code maxTimeMS} to every find, aggregate, distinct, count and find-and-modify, so the server abandons
+ * operations the client has stopped waiting for. Inserts, updates and deletes cannot carry {@code maxTimeMS}
+ * with this driver and are only refused once the deadline has passed.
+ * Spring Data has no hook to set {@code maxTimeMS} on find-and-modify or distinct, so collections are wrapped
+ * in a proxy instead. The proxy class is created once and every collection method is resolved to a method handle
+ * on first use, so an operation only allocates its proxy and handler, and none at all without a deadline.
+ */
+public class DeadlineAwareMongoTemplate extends MongoTemplate {
+
+    // how each collection method takes a deadline, worked out once per method rather than on every call
+    private static final Map<Method, Handling> HANDLINGS = new ConcurrentHashMap<>();
+    private static final Constructor<?> PROXY_CONSTRUCTOR = proxyConstructor();
+    private static final Set<Class<?>> MAX_TIME_RESULTS = Set.of(FindIterable.class, AggregateIterable.class,
+            DistinctIterable.class);
+    private static final Set<Class<?>> MAX_TIME_OPTIONS = Set.of(CountOptions.class,
+            EstimatedDocumentCountOptions.class, FindOneAndUpdateOptions.class, FindOneAndReplaceOptions.class,
+            FindOneAndDeleteOptions.class);
+
+    private final RequestDeadlines requestDeadlines;
+    private ReadConcern readConcern;
+    private BooleanSupplier primaryReadCondition = () -> false;
+
+    public DeadlineAwareMongoTemplate(MongoDatabaseFactory mongoDatabaseFactory, MongoConverter mongoConverter,
+                                      RequestDeadlines requestDeadlines) {
+        super(mongoDatabaseFactory, mongoConverter);
+        this.requestDeadlines = requestDeadlines;
+    }
+
+    /**
+     * Sets the read concern of every operation of this template, the server default is used when unset.
+     * @param readConcern the read concern to apply.
+     */
+    public void setReadConcern(ReadConcern readConcern) {
+        this.readConcern = readConcern;
+    }
+
+    /**
+     * Sends the operations of this template to the primary, whatever its read preference, while the condition
+     * holds. Evaluated for every operation.
+     * @param primaryReadCondition true when reads must see writes a secondary may not have replicated yet.
+     */
+    public void setPrimaryReadCondition(BooleanSupplier primaryReadCondition) {
+        this.primaryReadCondition = primaryReadCondition;
+    }
+
+    @Override
+    protected MongoCollection<Document> prepareCollection(MongoCollection<Document> collection) {
+        MongoCollection<Document> prepared = super.prepareCollection(collection);
+        if (primaryReadCondition.getAsBoolean()) {
+            prepared = prepared.withReadPreference(ReadPreference.primary());
+        }
+        if (readConcern != null) {
+            prepared = prepared.withReadConcern(readConcern);
+        }
+        // operations run on the thread preparing their collection, one without a deadline needs no proxy
+        return requestDeadlines.isBound() ? withDeadline(prepared) : prepared;
+    }
+
+    @SuppressWarnings("unchecked")
+    MongoCollection<Document> withDeadline(MongoCollection<Document> collection) {
+        try {
+            return (MongoCollection<Document>) PROXY_CONSTRUCTOR.newInstance(new DeadlineHandler(collection));
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("could not wrap the collection " + collection.getNamespace(), ex);
+        }
+    }
+
+    private static Constructor<?> proxyConstructor() {
+        try {
+            return Proxy.newProxyInstance(MongoCollection.class.getClassLoader(),
+                            new Class<?>[]{MongoCollection.class}, (proxy, method, args) -> null)
+                    .getClass()
+                    .getConstructor(InvocationHandler.class);
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void applyMaxTime(Object target, long maxTimeMillis) {
+        if (target instanceof FindIterable<?> find) {
+            find.maxTime(maxTimeMillis, MILLISECONDS);
+        } else if (target instanceof AggregateIterable<?> aggregate) {
+            aggregate.maxTime(maxTimeMillis, MILLISECONDS);
+        } else if (target instanceof DistinctIterable<?> distinct) {
+            distinct.maxTime(maxTimeMillis, MILLISECONDS);
+        } else if (target instanceof CountOptions options) {
+            options.maxTime(maxTimeMillis, MILLISECONDS);
+        } else if (target instanceof EstimatedDocumentCountOptions options) {
+            options.maxTime(maxTimeMillis, MILLISECONDS);
+        } else if (target instanceof FindOneAndUpdateOptions options) {
+            options.maxTime(maxTimeMillis, MILLISECONDS);
+        } else if (target instanceof FindOneAndReplaceOptions options) {
+            options.maxTime(maxTimeMillis, MILLISECONDS);
+        } else if (target instanceof FindOneAndDeleteOptions options) {
+            options.maxTime(maxTimeMillis, MILLISECONDS);
+        }
+    }
+
+    private final class DeadlineHandler implements InvocationHandler {
+
+        private final MongoCollection<Document> collection;
+
+        DeadlineHandler(MongoCollection<Document> collection) {
+            this.collection = collection;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            final Handling handling = HANDLINGS.computeIfAbsent(method, Handling::of);
+            if (method.getDeclaringClass() == Object.class) {
+                return handling.target().invoke((Object) collection, args);
+            }
+            final OptionalLong remainingMillis = requestDeadlines.remainingMillis();
+            if (remainingMillis.isPresent() && handling.optionsIndex() >= 0) {
+                applyMaxTime(args[handling.optionsIndex()], remainingMillis.getAsLong());
+            }
+            final Object result = handling.target().invoke((Object) collection, args);
+            // collections derived with another read preference or write concern keep the deadline
+            if (handling.derivesCollection()) {
+                return withDeadline((MongoCollection<Document>) result);
+            }
+            if (remainingMillis.isPresent() && handling.resultTakesMaxTime()) {
+                applyMaxTime(result, remainingMillis.getAsLong());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * How a collection method takes the deadline.
+     * @param target the method, taking the collection and the array of arguments.
+     * @param derivesCollection true if the method returns another collection, which must keep the deadline.
+     * @param resultTakesMaxTime true if the deadline is set on the returned iterable.
+     * @param optionsIndex index of the options parameter the deadline is set on, -1 if there is none.
+     */
+    private record Handling(MethodHandle target, boolean derivesCollection, boolean resultTakesMaxTime,
+                            int optionsIndex) {
+
+        private static final MethodType SPREAD_TYPE = MethodType.methodType(Object.class, Object.class,
+                Object[].class);
+
+        static Handling of(Method method) {
+            final Class<?>[] parameterTypes = method.getParameterTypes();
+            int optionsIndex = -1;
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (MAX_TIME_OPTIONS.contains(parameterTypes[i])) {
+                    optionsIndex = i;
+                }
+            }
+            final MethodHandle target;
+            try {
+                target = MethodHandles.publicLookup().unreflect(method)
+                        .asSpreader(Object[].class, parameterTypes.length)
+                        .asType(SPREAD_TYPE);
+            } catch (IllegalAccessException ex) {
+                throw new IllegalStateException(ex);
+            }
+            return new Handling(target, MongoCollection.class.isAssignableFrom(method.getReturnType()),
+                    MAX_TIME_RESULTS.contains(method.getReturnType()), optionsIndex);
+        }
+    }
+}
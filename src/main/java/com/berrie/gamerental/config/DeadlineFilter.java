@@ -0,0 +1,101 @@
+package com.berrie.gamerental.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Gives every auth, catalog and rental request a deadline, bound to the request thread through
+ * {@link RequestDeadlines}. Clients may lower the deadline of a request with the {@value #TIMEOUT_HEADER}
+ * header, in milliseconds, but never raise it. Runs first so the time spent queueing and authenticating
+ * counts against the deadline.
+ */
+@Profile("!reactive")
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 20)
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    static final String TIMEOUT_HEADER = "X-Request-Timeout";
+    private static final String AVAILABILITY_STREAM_PATH = "/api/games/availability/stream";
+
+    private final RequestDeadlines requestDeadlines;
+    private final Duration authDeadline;
+    private final Duration catalogDeadline;
+    private final Duration rentalDeadline;
+    private final Duration minClientTimeout;
+
+    public DeadlineFilter(RequestDeadlines requestDeadlines,
+                          @Value("${game.deadline.auth:3s}") Duration authDeadline,
+                          @Value("${game.deadline.catalog:2s}") Duration catalogDeadline,
+                          @Value("${game.deadline.rental:8s}") Duration rentalDeadline,
+                          @Value("${game.deadline.min-client-timeout:100ms}") Duration minClientTimeout) {
+        this.requestDeadlines = requestDeadlines;
+        this.authDeadline = authDeadline;
+        this.catalogDeadline = catalogDeadline;
+        this.rentalDeadline = rentalDeadline;
+        this.minClientTimeout = minClientTimeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        // the stream is open ended and does not query the database once started
+        final String path = request.getRequestURI();
+        return AVAILABILITY_STREAM_PATH.equals(path) || deadlineFor(path) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        requestDeadlines.bind(budgetOf(request));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            requestDeadlines.unbind();
+        }
+    }
+
+    private Duration budgetOf(HttpServletRequest request) {
+        final Duration deadline = deadlineFor(request.getRequestURI());
+        final String timeoutHeader = request.getHeader(TIMEOUT_HEADER);
+        if (timeoutHeader == null) {
+            return deadline;
+        }
+        try {
+            // timeouts below the floor are raised so the query still has time to reach the database
+            Duration requested = Duration.ofMillis(Long.parseLong(timeoutHeader.trim()));
+            if (requested.compareTo(minClientTimeout) < 0) {
+                requested = minClientTimeout;
+            }
+            return requested.compareTo(deadline) < 0 ? requested : deadline;
+        } catch (NumberFormatException ex) {
+            return deadline;
+        }
+    }
+
+    private Duration deadlineFor(String path) {
+        if (path.startsWith("/api/auth")) {
+            return authDeadline;
+        }
+        if (path.startsWith("/api/games")) {
+            return catalogDeadline;
+        }
+        if (path.startsWith("/api/rentals")) {
+            return rentalDeadline;
+        }
+        return null;
+    }
+}
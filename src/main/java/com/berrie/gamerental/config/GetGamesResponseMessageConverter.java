@@ -0,0 +1,83 @@
+package com.berrie.gamerental.config;
+
+import com.berrie.gamerental.cache.GameFragmentCache;
+import com.berrie.gamerental.dto.GameModel;
+import com.berrie.gamerental.dto.GetGamesResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes {@link GetGamesResponse} bodies by copying the cached JSON of each game from the
+ * {@link GameFragmentCache} straight into the response stream, so only changed games go through Jackson.
+ * The output matches what Jackson writes for the response. Reading is left to the Jackson converter.
+ */
+@Profile("!reactive")
+@Component
+public class GetGamesResponseMessageConverter extends AbstractHttpMessageConverter<GetGamesResponse> {
+
+    private static final byte[] GAMES_START = "{\"games\":[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NO_GAMES = "{\"games\":null".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FACETS = ",\"facets\":".getBytes(StandardCharsets.UTF_8);
+
+    private final GameFragmentCache fragmentCache;
+    private final ObjectMapper objectMapper;
+
+    public GetGamesResponseMessageConverter(GameFragmentCache fragmentCache, ObjectMapper objectMapper) {
+        super(StandardCharsets.UTF_8, MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.fragmentCache = fragmentCache;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(@NonNull Class<?> clazz) {
+        return GetGamesResponse.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(@NonNull Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    @NonNull
+    protected GetGamesResponse readInternal(@NonNull Class<? extends GetGamesResponse> clazz,
+                                            @NonNull HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("GetGamesResponse is write only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(@NonNull GetGamesResponse response, @NonNull HttpOutputMessage outputMessage)
+            throws IOException {
+        OutputStream body = outputMessage.getBody();
+        List<GameModel> games = response.getGames();
+        if (games == null) {
+            body.write(NO_GAMES);
+        } else {
+            body.write(GAMES_START);
+            for (int i = 0; i < games.size(); i++) {
+                if (i > 0) {
+                    body.write(',');
+                }
+                body.write(fragmentCache.fragmentOf(games.get(i)));
+            }
+            body.write(']');
+        }
+        if (response.getFacets() != null) {
+            body.write(FACETS);
+            body.write(objectMapper.writeValueAsBytes(response.getFacets()));
+        }
+        body.write('}');
+    }
+}
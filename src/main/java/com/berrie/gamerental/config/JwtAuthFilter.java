@@ -1,5 +1,6 @@
 package com.berrie.gamerental.config;
 
+import com.berrie.gamerental.jfr.TokenVerificationEvent;
 import com.berrie.gamerental.service.JwtAuthService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -7,6 +8,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -21,6 +23,7 @@ import java.io.IOException;
 /**
  * Represents the JSON Web Token authentication filter for each HTTP request.
  */
+@Profile("!reactive")
 @Component
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
@@ -50,7 +53,21 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
         // request contains token
         final String jsonWebToken = authHeader.substring(JWT_START_INDEX);
+        TokenVerificationEvent event = TokenVerificationEvent.start();
+        try {
+            authenticate(request, jsonWebToken, event);
+        } catch (RuntimeException ex) {
+            throw event.failed(ex);
+        } finally {
+            event.commit();
+        }
+        // call next filter in chain
+        filterChain.doFilter(request, response);
+    }
+
+    private void authenticate(HttpServletRequest request, String jsonWebToken, TokenVerificationEvent event) {
         final String username = jwtAuthService.extractUsername(jsonWebToken);
+        event.setUsername(username);
 
         // if we have a username and the user is not authenticated
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
@@ -64,9 +81,9 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                         userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
+            } else {
+                event.setOutcome(TokenVerificationEvent.REJECTED);
             }
         }
-        // call next filter in chain
-        filterChain.doFilter(request, response);
     }
 }
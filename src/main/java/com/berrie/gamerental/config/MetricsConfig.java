@@ -0,0 +1,55 @@
+package com.berrie.gamerental.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Micrometer metrics, scraped in Prometheus format from {@code /actuator/prometheus} on the management port.
+ * Controller timings ({@code http.server.requests}) and MongoDB command timings and pool gauges
+ * ({@code mongodb.driver.*}) are recorded by Spring Boot, the services are timed through {@link ObservedAspect},
+ * which also traces them, see {@link TracingConfig}. The limit, in-flight and rejected requests of each
+ * concurrency limiter are published as {@code game.concurrency.*} tagged with the limiter name.
+ */
+@Configuration
+public class MetricsConfig {
+
+    public static final String SERVICE_OBSERVATION = "game.service";
+    public static final String EXCEPTION_COUNTER = "game.exceptions";
+
+    @Bean
+    public ObservedAspect observedAspect(ObservationRegistry observationRegistry) {
+        return new ObservedAspect(observationRegistry);
+    }
+
+    @Bean
+    @Profile("!reactive")
+    public MeterBinder concurrencyLimitMetrics(ConcurrencyLimitFilter concurrencyLimitFilter) {
+        return registry -> concurrencyLimitFilter.limiters().forEach(limiter -> {
+            Gauge.builder("game.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                    .tag("limiter", limiter.name())
+                    .description("Current concurrency limit")
+                    .register(registry);
+            Gauge.builder("game.concurrency.in.flight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+                    .tag("limiter", limiter.name())
+                    .description("Requests currently admitted")
+                    .register(registry);
+            FunctionCounter.builder("game.concurrency.rejected", limiter, AdaptiveConcurrencyLimiter::rejected)
+                    .tag("limiter", limiter.name())
+                    .description("Requests rejected with 503")
+                    .register(registry);
+        });
+    }
+
+    // MongoDB command spans come with their own timer, which would duplicate mongodb.driver.commands
+    @Bean
+    public MeterFilter mongoObservationMeterFilter() {
+        return MeterFilter.denyNameStartsWith("spring.data.mongodb.command");
+    }
+}
@@ -0,0 +1,111 @@
+package com.berrie.gamerental.config;
+
+import com.berrie.gamerental.dto.RateLimitStats;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limits requests per client with a {@link TokenBucketRateLimiter} per route. Runs after
+ * {@link JwtAuthFilter}, so authenticated requests are counted against their user and anonymous ones, such as
+ * the BCrypt heavy {@code /api/auth/**} calls, against their address. Requests over the limit are rejected
+ * with 429 Too Many Requests and a Retry-After header.
+ * <p>
+ * The address is the one Tomcat resolves, which is taken from X-Forwarded-For only when the request comes
+ * from a proxy listed in {@code server.tomcat.remoteip.internal-proxies}. Buckets are kept in memory, so the
+ * limits apply per node and a client spread over several nodes gets the limit of each.
+ */
+@Profile("!reactive")
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String SEARCH_PATH = "/api/games/search";
+
+    private final TokenBucketRateLimiter authLimiter;
+    private final TokenBucketRateLimiter searchLimiter;
+    private final TokenBucketRateLimiter apiLimiter;
+
+    public RateLimitFilter(@Value("${game.rate-limit.max-buckets:100000}") int maxBuckets,
+                           @Value("${game.rate-limit.auth.per-second:1}") double authRate,
+                           @Value("${game.rate-limit.auth.burst:10}") int authBurst,
+                           @Value("${game.rate-limit.search.per-second:5}") double searchRate,
+                           @Value("${game.rate-limit.search.burst:20}") int searchBurst,
+                           @Value("${game.rate-limit.api.per-second:20}") double apiRate,
+                           @Value("${game.rate-limit.api.burst:50}") int apiBurst) {
+        this(new TokenBucketRateLimiter("auth", authRate, authBurst, maxBuckets, System::nanoTime),
+                new TokenBucketRateLimiter("search", searchRate, searchBurst, maxBuckets, System::nanoTime),
+                new TokenBucketRateLimiter("api", apiRate, apiBurst, maxBuckets, System::nanoTime));
+    }
+
+    RateLimitFilter(TokenBucketRateLimiter authLimiter, TokenBucketRateLimiter searchLimiter,
+                    TokenBucketRateLimiter apiLimiter) {
+        this.authLimiter = authLimiter;
+        this.searchLimiter = searchLimiter;
+        this.apiLimiter = apiLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        final String path = request.getRequestURI();
+        final TokenBucketRateLimiter limiter = path.startsWith("/api/auth")
+                ? authLimiter
+                : SEARCH_PATH.equals(path) ? searchLimiter : apiLimiter;
+        final long retryAfterNanos = limiter.tryAcquire(clientKeyOf(request));
+        if (retryAfterNanos > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(toRetryAfterSeconds(retryAfterNanos)));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Reports the live bucket and rejected request counts of every limiter.
+     */
+    public List<RateLimitStats> stats() {
+        return List.of(statsOf(authLimiter), statsOf(searchLimiter), statsOf(apiLimiter));
+    }
+
+    private static String clientKeyOf(HttpServletRequest request) {
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated()
+                ? "user:" + authentication.getName()
+                : "ip:" + request.getRemoteAddr();
+    }
+
+    private static long toRetryAfterSeconds(long retryAfterNanos) {
+        return Math.max(1, (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static RateLimitStats statsOf(TokenBucketRateLimiter limiter) {
+        return RateLimitStats.builder()
+                .name(limiter.name())
+                .buckets(limiter.buckets())
+                .rejected(limiter.rejected())
+                .build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.berrie.gamerental.config;
+
+import com.berrie.gamerental.service.JwtAuthService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * Represents the JSON Web Token authentication filter for each request of the reactive profile,
+ * the {@link WebFilter} counterpart of {@link JwtAuthFilter}. Not a bean, it is added to the security
+ * chain by {@link ReactiveSecurityConfig} so it does not also run as a plain web filter.
+ */
+@RequiredArgsConstructor
+public class ReactiveJwtAuthFilter implements WebFilter {
+
+    private static final String JWT_PREFIX = "Bearer ";
+    private static final int JWT_START_INDEX = 7;
+
+    private final JwtAuthService jwtAuthService;
+    private final ReactiveUserDetailsService userDetailsService;
+
+    /**
+     * Method to intercept each client request made to the service.
+     */
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        final String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith(JWT_PREFIX)) {
+            return chain.filter(exchange);
+        }
+        // request contains token
+        final String jsonWebToken = authHeader.substring(JWT_START_INDEX);
+        final String username = jwtAuthService.extractUsername(jsonWebToken);
+        if (username == null) {
+            return chain.filter(exchange);
+        }
+        return userDetailsService.findByUsername(username)
+                // check if user token is valid
+                .filter(userDetails -> jwtAuthService.isTokenValid(jsonWebToken, userDetails))
+                .map(userDetails -> Optional.<Authentication>of(new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities())))
+                .defaultIfEmpty(Optional.empty())
+                // call next filter in chain, authenticated if the token was valid
+                .flatMap(authToken -> authToken
+                        .map(token -> chain.filter(exchange)
+                                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(token)))
+                        .orElseGet(() -> chain.filter(exchange)));
+    }
+}
@@ -0,0 +1,89 @@
+package com.berrie.gamerental.config;
+
+import com.berrie.gamerental.cache.CatalogVersion;
+import com.berrie.gamerental.model.Game;
+import com.berrie.gamerental.model.Rental;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.WriteConcernResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reactive MongoDB templates for the reactive profile, routed like those of {@link MongoConfig}.
+ * The reactive client is created by Spring Boot from the same properties and pool customizer.
+ */
+@Profile("reactive")
+@Configuration
+public class ReactiveMongoConfig {
+
+    public static final String CATALOG_TEMPLATE = "catalogReactiveMongoTemplate";
+
+    @Value("${game.mongodb.catalog.max-staleness:90s}")
+    private Duration catalogMaxStaleness;
+    @Value("${game.mongodb.rental-write-timeout:5s}")
+    private Duration rentalWriteTimeout;
+
+    @Bean
+    @Primary
+    public ReactiveMongoTemplate reactiveMongoTemplate(ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory,
+                                                       MongoMappingContext mongoMappingContext,
+                                                       MongoCustomConversions mongoCustomConversions) {
+        ReactiveMongoTemplate mongoTemplate = new ReactiveMongoTemplate(reactiveMongoDatabaseFactory,
+                reactiveConverter(mongoMappingContext, mongoCustomConversions));
+        mongoTemplate.setWriteConcernResolver(rentalWriteConcernResolver());
+        return mongoTemplate;
+    }
+
+    @Bean(CATALOG_TEMPLATE)
+    public ReactiveMongoTemplate catalogReactiveMongoTemplate(ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory,
+                                                              MongoMappingContext mongoMappingContext,
+                                                              MongoCustomConversions mongoCustomConversions,
+                                                              CatalogVersion catalogVersion) {
+        ReactiveMongoTemplate mongoTemplate = new ReactiveMongoTemplate(reactiveMongoDatabaseFactory,
+                reactiveConverter(mongoMappingContext, mongoCustomConversions)) {
+            @Override
+            protected MongoCollection<Document> prepareCollection(MongoCollection<Document> collection) {
+                // a secondary may not have the latest change yet, the catalog ETag must not be given an older body
+                MongoCollection<Document> prepared = super.prepareCollection(collection);
+                return catalogVersion.recentlyChanged()
+                        ? prepared.withReadPreference(ReadPreference.primary())
+                        : prepared;
+            }
+        };
+        mongoTemplate.setReadPreference(ReadPreference.secondaryPreferred(catalogMaxStaleness.toSeconds(),
+                TimeUnit.SECONDS));
+        return mongoTemplate;
+    }
+
+    // not a bean, the blocking templates keep the converter that resolves references
+    private static MappingMongoConverter reactiveConverter(MongoMappingContext mongoMappingContext,
+                                                           MongoCustomConversions mongoCustomConversions) {
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mongoMappingContext);
+        converter.setCustomConversions(mongoCustomConversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    private WriteConcernResolver rentalWriteConcernResolver() {
+        final WriteConcern majority = WriteConcern.MAJORITY
+                .withWTimeout(rentalWriteTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        return action -> Rental.class == action.getEntityType() || Game.class == action.getEntityType()
+                ? majority
+                : action.getDefaultWriteConcern();
+    }
+}
@@ -0,0 +1,82 @@
+package com.berrie.gamerental.config;
+
+import com.berrie.gamerental.model.enums.Role;
+import com.berrie.gamerental.repository.ReactiveUserRepository;
+import com.berrie.gamerental.service.JwtAuthService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+/**
+ * Security configuration of the reactive profile, mirroring {@link SecurityConfig}.
+ */
+@Profile("reactive")
+@Configuration
+@EnableWebFluxSecurity
+@RequiredArgsConstructor
+public class ReactiveSecurityConfig {
+
+    @Autowired
+    private final ReactiveUserRepository userRepository;
+    @Autowired
+    private final JwtAuthService jwtAuthService;
+
+    @Bean
+    public ReactiveUserDetailsService reactiveUserDetailsService() {
+        return username -> userRepository.findByUsername(username).cast(UserDetails.class);
+    }
+
+    @Bean
+    public ReactiveAuthenticationManager reactiveAuthenticationManager(ReactiveUserDetailsService userDetailsService,
+                                                                       PasswordEncoder passwordEncoder) {
+        UserDetailsRepositoryReactiveAuthenticationManager authenticationManager =
+                new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+        authenticationManager.setPasswordEncoder(passwordEncoder);
+        return authenticationManager;
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity httpSecurity,
+                                                         ReactiveUserDetailsService userDetailsService) {
+        return httpSecurity
+                .csrf()
+                .disable()
+                .httpBasic()
+                .disable()
+                .formLogin()
+                .disable()
+                .authorizeExchange()
+                .pathMatchers("/api/auth/**")
+                .permitAll()
+                // actuator is only served on the management port, bound to the loopback address
+                .pathMatchers("/actuator/**")
+                .permitAll()
+                .pathMatchers("/api/admin/**")
+                .hasAuthority(Role.ADMIN.name())
+                .anyExchange()
+                .authenticated()
+                .and()
+                // stateless like the servlet stack, and rejected with 403 like it
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .exceptionHandling()
+                .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN))
+                .and()
+                .addFilterAt(new ReactiveJwtAuthFilter(jwtAuthService, userDetailsService),
+                        SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.berrie.gamerental.config;
+
+import com.berrie.gamerental.dto.SpanRecord;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the most recent sampled spans in memory, so traces can be read from {@code /api/admin/traces}
+ * on local and offline runs without a collector. The oldest span is dropped once the capacity is reached.
+ * Spans may be exported from virtual request threads, so the buffer is guarded by a lock rather than a monitor.
+ */
+@Component
+public class RecentSpanExporter implements SpanExporter {
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Deque<SpanRecord> spans = new ArrayDeque<>();
+    private final Lock lock = new ReentrantLock();
+    private final int capacity;
+
+    public RecentSpanExporter(@Value("${game.tracing.memory.capacity:2000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> finished) {
+        List<SpanRecord> records = finished.stream()
+                .map(RecentSpanExporter::toRecord)
+                .toList();
+        lock.lock();
+        try {
+            for (SpanRecord record : records) {
+                if (spans.size() >= capacity) {
+                    spans.removeLast();
+                }
+                spans.addFirst(record);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    /**
+     * @param traceId id of the trace to list the spans of, or null for every trace.
+     * @return the recorded spans, most recently finished first.
+     */
+    public List<SpanRecord> spans(String traceId) {
+        lock.lock();
+        try {
+            return spans.stream()
+                    .filter(span -> traceId == null || traceId.equals(span.getTraceId()))
+                    .toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    private static SpanRecord toRecord(SpanData span) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), String.valueOf(value)));
+        return SpanRecord.builder()
+                .traceId(span.getTraceId())
+                .spanId(span.getSpanId())
+                .parentSpanId(span.getParentSpanContext().isValid() ? span.getParentSpanId() : null)
+                .name(span.getName())
+                .kind(span.getKind().name())
+                .startedAt(Instant.EPOCH.plusNanos(span.getStartEpochNanos()))
+                .durationMillis((span.getEndEpochNanos() - span.getStartEpochNanos()) / NANOS_PER_MILLI)
+                .status(span.getStatus().getStatusCode().name())
+                .attributes(attributes)
+                .build();
+    }
+}
@@ -0,0 +1,157 @@
+package com.berrie.gamerental.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Records the heap allocated and the CPU time used by the request thread for each API request, sampled from
+ * the {@link java.lang.management.ThreadMXBean} before and after the rest of the chain, in the
+ * {@value #ALLOCATED_METRIC} and {@value #CPU_METRIC} histograms tagged by method and route.
+ * Runs first so authentication, mapping and JSON serialisation are all accounted for. With
+ * {@code game.request-cost.headers} enabled, as in the debug profile, the response is buffered so the
+ * {@value #ALLOCATED_HEADER} and {@value #CPU_HEADER} headers can report the cost of the whole request.
+ * Work handed to other threads is not counted. The body of a request completing asynchronously, such as a
+ * streamed recording, is copied to the response once its async dispatch has finished writing it.
+ */
+@Profile("!reactive")
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 40)
+public class RequestCostFilter extends OncePerRequestFilter {
+
+    static final String ALLOCATED_METRIC = "game.request.allocated";
+    static final String CPU_METRIC = "game.request.cpu";
+    static final String ALLOCATED_HEADER = "X-Allocated-Bytes";
+    static final String CPU_HEADER = "X-Cpu-Time-Micros";
+    private static final String AVAILABILITY_STREAM_PATH = "/api/games/availability/stream";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean headers;
+    private final LongSupplier allocatedBytes;
+    private final LongSupplier cpuTimeNanos;
+
+    public RequestCostFilter(MeterRegistry meterRegistry,
+                             @Value("${game.request-cost.headers:false}") boolean headers) {
+        this(meterRegistry, headers, allocatedBytesOfCurrentThread(), cpuTimeOfCurrentThread());
+    }
+
+    RequestCostFilter(MeterRegistry meterRegistry, boolean headers,
+                      LongSupplier allocatedBytes, LongSupplier cpuTimeNanos) {
+        this.meterRegistry = meterRegistry;
+        this.headers = headers;
+        this.allocatedBytes = allocatedBytes;
+        this.cpuTimeNanos = cpuTimeNanos;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        final String path = request.getRequestURI();
+        return !path.startsWith("/api/") || AVAILABILITY_STREAM_PATH.equals(path);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        if (isAsyncDispatch(request)) {
+            filterChain.doFilter(request, response);
+            final ContentCachingResponseWrapper buffered =
+                    WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+            if (buffered != null && !request.isAsyncStarted()) {
+                buffered.copyBodyToResponse();
+            }
+            return;
+        }
+        final ContentCachingResponseWrapper buffered = headers ? new ContentCachingResponseWrapper(response) : null;
+        final long allocatedAtStart = allocatedBytes.getAsLong();
+        final long cpuAtStart = cpuTimeNanos.getAsLong();
+        try {
+            filterChain.doFilter(request, buffered == null ? response : buffered);
+        } finally {
+            final long allocated = elapsed(allocatedAtStart, allocatedBytes.getAsLong());
+            final long cpuNanos = elapsed(cpuAtStart, cpuTimeNanos.getAsLong());
+            record(request, allocated, cpuNanos);
+            if (buffered != null) {
+                if (allocated >= 0 && cpuNanos >= 0) {
+                    buffered.setHeader(ALLOCATED_HEADER, String.valueOf(allocated));
+                    buffered.setHeader(CPU_HEADER, String.valueOf(TimeUnit.NANOSECONDS.toMicros(cpuNanos)));
+                }
+                // an async handler has not written its body yet, it is copied after the async dispatch
+                if (!request.isAsyncStarted()) {
+                    buffered.copyBodyToResponse();
+                }
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, long allocated, long cpuNanos) {
+        final String route = RoundTripFilter.routeOf(request);
+        if (allocated >= 0) {
+            DistributionSummary.builder(ALLOCATED_METRIC)
+                    .description("Heap allocated by the request thread per request")
+                    .baseUnit("bytes")
+                    .tag("method", request.getMethod())
+                    .tag("uri", route)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(allocated);
+        }
+        if (cpuNanos >= 0) {
+            Timer.builder(CPU_METRIC)
+                    .description("CPU time used by the request thread per request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", route)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(cpuNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // -1 when the JVM does not support the measurement, or does not support it for the current thread
+    private static long elapsed(long start, long end) {
+        return start < 0 || end < 0 ? -1 : end - start;
+    }
+
+    private static LongSupplier allocatedBytesOfCurrentThread() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+            return threads::getCurrentThreadAllocatedBytes;
+        }
+        return () -> -1;
+    }
+
+    private static LongSupplier cpuTimeOfCurrentThread() {
+        final java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads.isCurrentThreadCpuTimeSupported()) {
+            threads.setThreadCpuTimeEnabled(true);
+            return threads::getCurrentThreadCpuTime;
+        }
+        return () -> -1;
+    }
+}
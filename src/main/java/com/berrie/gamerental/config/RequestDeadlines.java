@@ -0,0 +1,118 @@
+package com.berrie.gamerental.config;
+
+import com.berrie.gamerental.exception.DeadlineExceededException;
+import com.mongodb.MongoExecutionTimeoutException;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Deadline of the request handled by the current thread. Deadlines are bound by {@link DeadlineFilter} and the
+ * remaining budget is applied as {@code maxTimeMS} to every MongoDB operation by {@link DeadlineAwareMongoTemplate}.
+ */
+@Component
+public class RequestDeadlines {
+
+    private final ThreadLocal<Long> boundDeadline = new ThreadLocal<>();
+    private final LongSupplier nanoClock;
+
+    public RequestDeadlines() {
+        this(System::nanoTime);
+    }
+
+    RequestDeadlines(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Gives the operations of the current thread the provided budget until {@link #unbind()} is called.
+     * @param budget time left to complete the request.
+     */
+    public void bind(Duration budget) {
+        boundDeadline.set(nanoClock.getAsLong() + budget.toNanos());
+    }
+
+    public void unbind() {
+        boundDeadline.remove();
+    }
+
+    /**
+     * Runs a call under the provided budget instead of the deadline of the current thread, which is restored
+     * once the call returns.
+     * @param budget time the call is given.
+     * @param call the call to run.
+     * @return the result of the call.
+     */
+    public <T> T callWithin(Duration budget, Supplier<T> call) {
+        final Long previous = boundDeadline.get();
+        bind(budget);
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                boundDeadline.remove();
+            } else {
+                boundDeadline.set(previous);
+            }
+        }
+    }
+
+    /**
+     * @return the milliseconds left before the deadline of the current thread, rounded up, or empty if no
+     * deadline is bound.
+     * @throws DeadlineExceededException if the deadline has already passed.
+     */
+    public OptionalLong remainingMillis() {
+        final Long deadline = boundDeadline.get();
+        if (deadline == null) {
+            return OptionalLong.empty();
+        }
+        final long remainingNanos = deadline - nanoClock.getAsLong();
+        if (remainingNanos <= 0) {
+            throw new DeadlineExceededException("request deadline exceeded");
+        }
+        return OptionalLong.of(TimeUnit.NANOSECONDS.toMillis(remainingNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1));
+    }
+
+    /**
+     * @return true if a deadline is bound to the current thread.
+     */
+    public boolean isBound() {
+        return boundDeadline.get() != null;
+    }
+
+    /**
+     * @return true if a deadline is bound to the current thread and has passed.
+     */
+    public boolean hasExpired() {
+        final Long deadline = boundDeadline.get();
+        return deadline != null && deadline - nanoClock.getAsLong() <= 0;
+    }
+
+    /**
+     * @throws DeadlineExceededException if a deadline is bound to the current thread and has passed.
+     */
+    public void checkNotExpired() {
+        if (hasExpired()) {
+            throw new DeadlineExceededException("request deadline exceeded");
+        }
+    }
+
+    /**
+     * @param failure a failed request or MongoDB operation.
+     * @return true if it failed because its deadline passed, either before reaching the database or when the
+     * server abandoned it after {@code maxTimeMS}.
+     */
+    public static boolean isDeadlineFailure(Throwable failure) {
+        // operations abandoned by the server after maxTimeMS are translated without a timeout type
+        return failure instanceof DeadlineExceededException
+                || failure instanceof QueryTimeoutException
+                || NestedExceptionUtils.getMostSpecificCause(failure) instanceof MongoExecutionTimeoutException;
+    }
+}
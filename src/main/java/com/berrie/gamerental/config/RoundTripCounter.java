@@ -0,0 +1,93 @@
+package com.berrie.gamerental.config;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the MongoDB commands issued by the current thread while a {@link Scope} is open, used to account the
+ * database round trips of each request and to pin them in tests. Commands are also grouped by command,
+ * collection and filter shape, so a query repeated with different values, an N+1, can be spotted.
+ * Counting relies on the sync driver issuing commands on the calling thread.
+ */
+@Component
+public class RoundTripCounter implements CommandListener {
+
+    private final ThreadLocal<Scope> currentScope = new ThreadLocal<>();
+
+    /**
+     * Starts counting the commands of the current thread until the returned scope is closed. Scopes nest,
+     * a command is counted by every open scope of the thread.
+     * @return the open scope.
+     */
+    public Scope open() {
+        Scope scope = new Scope(currentScope.get());
+        currentScope.set(scope);
+        return scope;
+    }
+
+    /**
+     * @return the commands counted so far by the innermost open scope, or empty if no scope is open.
+     */
+    public OptionalInt currentCount() {
+        Scope scope = currentScope.get();
+        return scope == null ? OptionalInt.empty() : OptionalInt.of(scope.count());
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        Scope scope = currentScope.get();
+        if (scope == null) {
+            return;
+        }
+        final SlowQueryListener.CommandShape commandShape = SlowQueryListener.shapeOf(event);
+        final String shape = event.getCommandName() + " " + commandShape.collection() + " " + commandShape.filter();
+        for (; scope != null; scope = scope.parent) {
+            scope.record(shape);
+        }
+    }
+
+    public class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private final Map<String, Integer> countsByShape = new HashMap<>();
+        private int count;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        /**
+         * @param threshold minimum number of times a command shape must have been issued.
+         * @return the command shapes issued at least {@code threshold} times, with their counts.
+         */
+        public Map<String, Integer> repeatedCommands(int threshold) {
+            return countsByShape.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= threshold)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        }
+
+        @Override
+        public void close() {
+            if (parent == null) {
+                currentScope.remove();
+            } else {
+                currentScope.set(parent);
+            }
+        }
+
+        private void record(String shape) {
+            count++;
+            countsByShape.merge(shape, 1, Integer::sum);
+        }
+    }
+}
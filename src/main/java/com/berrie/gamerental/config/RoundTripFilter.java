@@ -0,0 +1,86 @@
+package com.berrie.gamerental.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Counts the MongoDB commands issued by each API request with the {@link RoundTripCounter} and records them
+ * in the {@value #ROUND_TRIPS_METRIC} histogram, tagged by method and route. Requests that issue the same
+ * query shape {@code game.mongodb.round-trips.repeat-threshold} times or more are logged as a likely N+1.
+ * Runs ahead of the security chain so the user lookup of authentication is counted too.
+ */
+@Slf4j
+@Profile("!reactive")
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 30)
+public class RoundTripFilter extends OncePerRequestFilter {
+
+    static final String ROUND_TRIPS_METRIC = "game.db.round-trips";
+    static final String REPEATED_METRIC = "game.db.repeated-commands";
+    private static final String AVAILABILITY_STREAM_PATH = "/api/games/availability/stream";
+
+    private final RoundTripCounter roundTripCounter;
+    private final MeterRegistry meterRegistry;
+    private final int repeatThreshold;
+
+    public RoundTripFilter(RoundTripCounter roundTripCounter, MeterRegistry meterRegistry,
+                           @Value("${game.mongodb.round-trips.repeat-threshold:3}") int repeatThreshold) {
+        this.roundTripCounter = roundTripCounter;
+        this.meterRegistry = meterRegistry;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        final String path = request.getRequestURI();
+        return !path.startsWith("/api/") || AVAILABILITY_STREAM_PATH.equals(path);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        try (RoundTripCounter.Scope roundTrips = roundTripCounter.open()) {
+            filterChain.doFilter(request, response);
+            final String route = routeOf(request);
+            DistributionSummary.builder(ROUND_TRIPS_METRIC)
+                    .description("MongoDB commands issued per request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", route)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(roundTrips.count());
+
+            final Map<String, Integer> repeated = roundTrips.repeatedCommands(repeatThreshold);
+            if (!repeated.isEmpty()) {
+                meterRegistry.counter(REPEATED_METRIC, "method", request.getMethod(), "uri", route).increment();
+                log.warn("{} {} issued {} commands, repeating {}, likely an N+1", request.getMethod(), route,
+                        roundTrips.count(), repeated);
+            }
+        }
+    }
+
+    // the route pattern keeps the metric cardinality bounded, unlike the raw path
+    static String routeOf(HttpServletRequest request) {
+        final Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? "UNKNOWN" : pattern.toString();
+    }
+}
@@ -0,0 +1,50 @@
+package com.berrie.gamerental.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the number of MongoDB commands issued by the request, as counted by {@link RoundTripFilter}, to every
+ * response body in the {@value #ROUND_TRIPS_HEADER} header. Enabled with {@code game.mongodb.round-trips.header},
+ * as in the debug profile.
+ */
+@Profile("!reactive")
+@ControllerAdvice
+@ConditionalOnProperty(name = "game.mongodb.round-trips.header", havingValue = "true")
+@RequiredArgsConstructor
+public class RoundTripHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String ROUND_TRIPS_HEADER = "X-Db-Round-Trips";
+
+    @Autowired
+    private final RoundTripCounter roundTripCounter;
+
+    @Override
+    public boolean supports(@NonNull MethodParameter returnType,
+                            @NonNull Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body,
+                                  @NonNull MethodParameter returnType,
+                                  @NonNull MediaType selectedContentType,
+                                  @NonNull Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  @NonNull ServerHttpRequest request,
+                                  @NonNull ServerHttpResponse response) {
+        // the handler has returned, so every command of the request has been issued
+        roundTripCounter.currentCount().ifPresent(count ->
+                response.getHeaders().set(ROUND_TRIPS_HEADER, String.valueOf(count)));
+        return body;
+    }
+}
@@ -1,9 +1,12 @@
 package com.berrie.gamerental.config;
 
+import com.berrie.gamerental.model.enums.Role;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -11,6 +14,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+@Profile("!reactive")
 @Configuration
 @EnableWebSecurity
 @RequiredArgsConstructor
@@ -20,6 +24,10 @@ public class SecurityConfig {
     private final AuthenticationProvider authenticationProvider;
     @Autowired
     private final JwtAuthFilter jwtAuthFilter;
+    @Autowired
+    private final CausalSessionFilter causalSessionFilter;
+    @Autowired
+    private final RateLimitFilter rateLimitFilter;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception {
@@ -27,8 +35,16 @@ public class SecurityConfig {
                 .csrf()
                 .disable()
                 .authorizeHttpRequests()
+                // async dispatches continue a request that was already authorized, such as an event stream
+                .dispatcherTypeMatchers(DispatcherType.ASYNC)
+                .permitAll()
                 .requestMatchers("/api/auth/**")
                 .permitAll()
+                // actuator is only served on the management port, bound to the loopback address
+                .requestMatchers("/actuator/**")
+                .permitAll()
+                .requestMatchers("/api/admin/**")
+                .hasAuthority(Role.ADMIN.name())
                 .anyRequest()
                 .authenticated()
                 .and()
@@ -36,7 +52,9 @@ public class SecurityConfig {
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 .and()
                 .authenticationProvider(authenticationProvider)
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtAuthFilter.class)
+                .addFilterAfter(causalSessionFilter, RateLimitFilter.class);
         
         return httpSecurity.build();
     }
@@ -0,0 +1,70 @@
+package com.berrie.gamerental.config;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoDatabase;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+
+/**
+ * Database factory running every operation of the current thread in the {@link ClientSession} bound to it,
+ * used to give each request a causally consistent session without changing the code issuing the operations.
+ */
+public class SessionBindingMongoDatabaseFactory implements MongoDatabaseFactory {
+
+    private final MongoDatabaseFactory delegate;
+    private final ThreadLocal<ClientSession> boundSession = new ThreadLocal<>();
+
+    public SessionBindingMongoDatabaseFactory(MongoDatabaseFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Runs the operations of the current thread in the provided session until {@link #unbind()} is called.
+     * @param session the session to bind.
+     */
+    public void bind(ClientSession session) {
+        boundSession.set(session);
+    }
+
+    public void unbind() {
+        boundSession.remove();
+    }
+
+    /**
+     * @return the session bound to the current thread, or null if there is none.
+     */
+    public ClientSession boundSession() {
+        return boundSession.get();
+    }
+
+    @Override
+    public MongoDatabase getMongoDatabase() throws DataAccessException {
+        ClientSession session = boundSession.get();
+        return session == null ? delegate.getMongoDatabase() : delegate.withSession(session).getMongoDatabase();
+    }
+
+    @Override
+    public MongoDatabase getMongoDatabase(String dbName) throws DataAccessException {
+        ClientSession session = boundSession.get();
+        return session == null
+                ? delegate.getMongoDatabase(dbName)
+                : delegate.withSession(session).getMongoDatabase(dbName);
+    }
+
+    @Override
+    public PersistenceExceptionTranslator getExceptionTranslator() {
+        return delegate.getExceptionTranslator();
+    }
+
+    @Override
+    public ClientSession getSession(ClientSessionOptions options) {
+        return delegate.getSession(options);
+    }
+
+    @Override
+    public MongoDatabaseFactory withSession(ClientSession session) {
+        return delegate.withSession(session);
+    }
+}
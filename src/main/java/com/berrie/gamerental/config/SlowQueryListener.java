@@ -0,0 +1,262 @@
+package com.berrie.gamerental.config;
+
+import com.berrie.gamerental.dto.SlowQueryRecord;
+import com.mongodb.client.MongoClient;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Records MongoDB commands slower than a threshold in the {@link SlowQueryLog}, with the shape of their
+ * filter, values redacted, and the repository or service method they came from. A sample of the query
+ * commands also has its winning plan captured, by running {@code explain} in the background once the
+ * command turned out to be slow.
+ */
+@Slf4j
+public class SlowQueryListener implements CommandListener {
+
+    private static final Set<String> QUERY_COMMANDS =
+            Set.of("find", "aggregate", "count", "distinct", "findAndModify", "update", "delete");
+    // session, cluster time and write concern fields are rejected by explain
+    private static final Set<String> NON_EXPLAINABLE_FIELDS =
+            Set.of("lsid", "txnNumber", "writeConcern", "readConcern", "autocommit", "startTransaction");
+    private static final BsonString REDACTED = new BsonString("?");
+    private static final String APP_PACKAGE = "com.berrie.gamerental.";
+    private static final String CONFIG_PACKAGE = "com.berrie.gamerental.config.";
+    private static final String REPOSITORY_PACKAGE = "com.berrie.gamerental.repository.";
+    private static final StackWalker STACK_WALKER =
+            StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    // every listener is notified of a command on the thread issuing it, one after the other
+    private static final ThreadLocal<CommandShape> LAST_SHAPE = new ThreadLocal<>();
+
+    private final SlowQueryLog slowQueryLog;
+    private final Supplier<MongoClient> mongoClient;
+    private final long thresholdNanos;
+    private final double explainSampleRate;
+    private final Map<Integer, StartedCommand> inFlight = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(16), runnable -> {
+                Thread thread = new Thread(runnable, "slow-query-explainer");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    public SlowQueryListener(SlowQueryLog slowQueryLog, Supplier<MongoClient> mongoClient, Duration threshold,
+                             double explainSampleRate) {
+        this.slowQueryLog = slowQueryLog;
+        this.mongoClient = mongoClient;
+        this.thresholdNanos = threshold.toNanos();
+        this.explainSampleRate = explainSampleRate;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        final String commandName = event.getCommandName();
+        if (!QUERY_COMMANDS.contains(commandName)) {
+            return;
+        }
+        // the command document is only valid during this callback, so the shape is taken now
+        final BsonDocument command = event.getCommand();
+        final BsonDocument explainable = ThreadLocalRandom.current().nextDouble() < explainSampleRate
+                ? explainableCopyOf(command)
+                : null;
+        final CommandShape shape = shapeOf(event);
+        inFlight.put(event.getRequestId(), new StartedCommand(commandName, event.getDatabaseName(),
+                shape.collection(), shape.filter(), explainable));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        completed(event.getRequestId(), event.getElapsedTime(TimeUnit.NANOSECONDS), false);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        completed(event.getRequestId(), event.getElapsedTime(TimeUnit.NANOSECONDS), true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainer.shutdownNow();
+    }
+
+    private void completed(int requestId, long elapsedNanos, boolean failed) {
+        final StartedCommand started = inFlight.remove(requestId);
+        if (started == null || elapsedNanos < thresholdNanos) {
+            return;
+        }
+        final SlowQueryRecord record = SlowQueryRecord.builder()
+                .completedAt(Instant.now())
+                .command(started.name())
+                .database(started.database())
+                .collection(started.collection())
+                .durationMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                .failed(failed)
+                .filterShape(started.filterShape())
+                .origin(originOf())
+                .build();
+        log.warn("Slow {} on {} took {}ms from {}, filter {}", record.getCommand(), record.getCollection(),
+                record.getDurationMillis(), record.getOrigin(), record.getFilterShape());
+        slowQueryLog.add(record);
+        if (started.explainable() != null) {
+            explainer.execute(() -> explain(record, started));
+        }
+    }
+
+    private void explain(SlowQueryRecord record, StartedCommand started) {
+        try {
+            BsonDocument explain = new BsonDocument("explain", started.explainable())
+                    .append("verbosity", new BsonString("queryPlanner"));
+            BsonDocument result = mongoClient.get().getDatabase(started.database())
+                    .runCommand(explain, BsonDocument.class);
+            findWinningPlan(result).ifPresent(plan -> slowQueryLog.attachWinningPlan(record, plan.toJson()));
+        } catch (RuntimeException ex) {
+            log.debug("Could not explain slow {} on {}: {}", started.name(), started.collection(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Returns the collection and redacted filter of a started command, worked out once per command and shared
+     * with the other listeners notified of it, such as the {@link RoundTripCounter}.
+     * @param event the started command.
+     * @return the shape of the command.
+     */
+    static CommandShape shapeOf(CommandStartedEvent event) {
+        final BsonDocument command = event.getCommand();
+        final CommandShape last = LAST_SHAPE.get();
+        if (last != null && last.requestId() == event.getRequestId() && last.command() == command) {
+            return last;
+        }
+        final String commandName = event.getCommandName();
+        final CommandShape shape = new CommandShape(event.getRequestId(), command,
+                collectionOf(command, commandName), filterShapeOf(command, commandName).toJson());
+        LAST_SHAPE.set(shape);
+        return shape;
+    }
+
+    static BsonDocument filterShapeOf(BsonDocument command, String commandName) {
+        final BsonValue filter = switch (commandName) {
+            case "find" -> command.get("filter");
+            case "aggregate" -> new BsonDocument("pipeline", command.getArray("pipeline", new BsonArray()));
+            case "count", "distinct", "findAndModify" -> command.get("query");
+            case "update" -> firstStatementField(command, "updates");
+            case "delete" -> firstStatementField(command, "deletes");
+            default -> null;
+        };
+        return filter == null || !filter.isDocument() ? new BsonDocument() : redact(filter).asDocument();
+    }
+
+    static BsonValue redact(BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument shape = new BsonDocument();
+            value.asDocument().forEach((key, field) -> shape.put(key, redact(field)));
+            return shape;
+        }
+        if (value.isArray()) {
+            BsonArray array = value.asArray();
+            BsonArray shape = new BsonArray();
+            // documents, such as $or branches and pipeline stages, keep their structure, scalar lists collapse
+            if (array.stream().anyMatch(BsonValue::isDocument)) {
+                array.forEach(element -> shape.add(redact(element)));
+            } else if (!array.isEmpty()) {
+                shape.add(REDACTED);
+            }
+            return shape;
+        }
+        return REDACTED;
+    }
+
+    private static BsonValue firstStatementField(BsonDocument command, String statements) {
+        BsonArray array = command.getArray(statements, new BsonArray());
+        return array.isEmpty() || !array.get(0).isDocument() ? null : array.get(0).asDocument().get("q");
+    }
+
+    static String collectionOf(BsonDocument command, String commandName) {
+        BsonValue collection = command.get(commandName);
+        return collection != null && collection.isString() ? collection.asString().getValue() : null;
+    }
+
+    private static BsonDocument explainableCopyOf(BsonDocument command) {
+        BsonDocument copy = command.clone();
+        copy.keySet().removeIf(key -> key.startsWith("$") || NON_EXPLAINABLE_FIELDS.contains(key));
+        return copy;
+    }
+
+    // aggregations nest the plan of their first stage, so the plan is searched for
+    static Optional<BsonDocument> findWinningPlan(BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument document = value.asDocument();
+            if (document.isDocument("winningPlan")) {
+                return Optional.of(document.getDocument("winningPlan"));
+            }
+            for (BsonValue field : document.values()) {
+                Optional<BsonDocument> plan = findWinningPlan(field);
+                if (plan.isPresent()) {
+                    return plan;
+                }
+            }
+        } else if (value.isArray()) {
+            for (BsonValue element : value.asArray()) {
+                Optional<BsonDocument> plan = findWinningPlan(element);
+                if (plan.isPresent()) {
+                    return plan;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    // the sync driver reports completion on the calling thread, so the stack leads back to the caller
+    private static String originOf() {
+        return STACK_WALKER.walk(frames -> frames
+                        .map(SlowQueryListener::describe)
+                        .filter(Objects::nonNull)
+                        .findFirst())
+                .orElse("unknown");
+    }
+
+    private static String describe(StackWalker.StackFrame frame) {
+        final Class<?> type = frame.getDeclaringClass();
+        if (Proxy.isProxyClass(type)) {
+            for (Class<?> repository : type.getInterfaces()) {
+                if (repository.getName().startsWith(REPOSITORY_PACKAGE)) {
+                    return repository.getSimpleName() + "." + frame.getMethodName();
+                }
+            }
+            return null;
+        }
+        final String name = type.getName();
+        return name.startsWith(APP_PACKAGE) && !name.startsWith(CONFIG_PACKAGE)
+                ? type.getSimpleName() + "." + frame.getMethodName()
+                : null;
+    }
+
+    // the command is only kept to tell events apart, it must not be read after its callback
+    record CommandShape(int requestId, BsonDocument command, String collection, String filter) {
+    }
+
+    private record StartedCommand(String name, String database, String collection, String filterShape,
+                                  BsonDocument explainable) {
+    }
+}
@@ -0,0 +1,68 @@
+package com.berrie.gamerental.config;
+
+import com.berrie.gamerental.dto.SlowQueryRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded log of the most recent slow MongoDB commands recorded by {@link SlowQueryListener}, the oldest
+ * record is dropped once the capacity is reached. Guarded by a lock rather than a monitor, records are added
+ * on request threads, which may be virtual.
+ */
+@Component
+public class SlowQueryLog {
+
+    private final Deque<SlowQueryRecord> records = new ArrayDeque<>();
+    private final Lock lock = new ReentrantLock();
+    private final int capacity;
+
+    public SlowQueryLog(@Value("${game.mongodb.slow-query.capacity:200}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void add(SlowQueryRecord record) {
+        lock.lock();
+        try {
+            if (records.size() >= capacity) {
+                records.removeLast();
+            }
+            records.addFirst(record);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Attaches the explain winning plan to a record, which is captured after the record was added.
+     * @param record a record previously passed to {@link #add(SlowQueryRecord)}.
+     * @param winningPlan the winning plan as JSON.
+     */
+    public void attachWinningPlan(SlowQueryRecord record, String winningPlan) {
+        lock.lock();
+        try {
+            record.setWinningPlan(winningPlan);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return copies of the recorded slow commands, most recent first.
+     */
+    public List<SlowQueryRecord> records() {
+        lock.lock();
+        try {
+            return records.stream()
+                    .map(record -> record.toBuilder().build())
+                    .toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.berrie.gamerental.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token buckets, one per client key, refilled at a steady rate up to a burst size.
+ * Each bucket is a single {@link AtomicLong} holding the time at which it would be full again, so taking a
+ * token is one compare-and-set and needs no timer to refill. A bucket that has refilled completely is
+ * indistinguishable from a new one, so idle buckets are evicted to bound memory.
+ */
+public class TokenBucketRateLimiter {
+
+    // sweep for idle buckets every this many requests, or straight away once the bucket cap is reached
+    private static final int SWEEP_INTERVAL = 1024;
+    private static final String OVERFLOW_KEY = "";
+
+    private final String name;
+    private final long refillNanos;
+    private final long burstNanos;
+    private final int maxBuckets;
+    private final LongSupplier nanoClock;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong requestsSinceSweep = new AtomicLong();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final LongAdder rejected = new LongAdder();
+
+    public TokenBucketRateLimiter(String name, double tokensPerSecond, int burst, int maxBuckets,
+                                  LongSupplier nanoClock) {
+        this.name = name;
+        this.refillNanos = (long) (1_000_000_000L / tokensPerSecond);
+        this.burstNanos = refillNanos * burst;
+        this.maxBuckets = maxBuckets;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes a token from the bucket of the provided key.
+     * @param key client the request is counted against, such as a username or address.
+     * @return 0 if a token was taken, otherwise the nanoseconds until the bucket holds a token again.
+     */
+    public long tryAcquire(String key) {
+        final long now = nanoClock.getAsLong();
+        maybeSweep(now);
+        final AtomicLong bucket = bucketOf(key, now);
+        while (true) {
+            final long fullAt = bucket.get();
+            // an empty bucket is full again burstNanos after the last token was taken
+            final long newFullAt = Math.max(fullAt, now) + refillNanos;
+            if (newFullAt - now > burstNanos) {
+                rejected.increment();
+                return newFullAt - now - burstNanos;
+            }
+            if (bucket.compareAndSet(fullAt, newFullAt)) {
+                return 0;
+            }
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int buckets() {
+        return buckets.size();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    private AtomicLong bucketOf(String key, long now) {
+        final AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxBuckets) {
+            sweep(now);
+            if (buckets.size() >= maxBuckets) {
+                // new clients share one bucket until idle ones are evicted
+                return buckets.computeIfAbsent(OVERFLOW_KEY, k -> new AtomicLong(now));
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    private void maybeSweep(long now) {
+        if (requestsSinceSweep.incrementAndGet() >= SWEEP_INTERVAL) {
+            requestsSinceSweep.set(0);
+            sweep(now);
+        }
+    }
+
+    private void sweep(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            buckets.forEach((key, bucket) -> {
+                final long fullAt = bucket.get();
+                if (fullAt - now <= 0) {
+                    buckets.remove(key, bucket);
+                }
+            });
+        } finally {
+            sweeping.set(false);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.berrie.gamerental.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+
+/**
+ * Tracing through Micrometer Observation, bridged to OpenTelemetry. Spring Boot traces every HTTP request,
+ * the services are traced through {@code @Observed} and every MongoDB command gets a span as a child of
+ * the observation that issued it. Sampled spans are kept by the {@link RecentSpanExporter} and, when
+ * {@code game.tracing.otlp.endpoint} is set, exported to an OTLP collector over HTTP.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoObservationCustomizer(ObservationRegistry observationRegistry) {
+        return settings -> settings
+                .contextProvider(ContextProviderFactory.create(observationRegistry))
+                .addCommandListener(new MongoObservationCommandListener(observationRegistry));
+    }
+
+    @Bean
+    @ConditionalOnProperty("game.tracing.otlp.endpoint")
+    public OtlpHttpSpanExporter otlpHttpSpanExporter(@Value("${game.tracing.otlp.endpoint}") String endpoint) {
+        return OtlpHttpSpanExporter.builder()
+                .setEndpoint(endpoint)
+                .build();
+    }
+}
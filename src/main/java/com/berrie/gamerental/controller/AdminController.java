@@ -0,0 +1,176 @@
+package com.berrie.gamerental.controller;
+
+import com.berrie.gamerental.cache.GameFragmentCache;
+import com.berrie.gamerental.cache.SearchResultCache;
+import com.berrie.gamerental.cache.SingleFlight;
+import com.berrie.gamerental.config.ConcurrencyLimitFilter;
+import com.berrie.gamerental.config.RateLimitFilter;
+import com.berrie.gamerental.config.RecentSpanExporter;
+import com.berrie.gamerental.config.SlowQueryLog;
+import com.berrie.gamerental.dto.CacheStatsResponse;
+import com.berrie.gamerental.dto.CoalescingStatsResponse;
+import com.berrie.gamerental.dto.ConcurrencyLimitStats;
+import com.berrie.gamerental.dto.RateLimitStats;
+import com.berrie.gamerental.dto.RecordingResponse;
+import com.berrie.gamerental.dto.SlowQueryRecord;
+import com.berrie.gamerental.dto.SpanRecord;
+import com.berrie.gamerental.jfr.FlightRecordings;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Operational endpoints, restricted to users with the admin role.
+ */
+@Profile("!reactive")
+@Validated
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private static final String SECONDS_ERROR_MESSAGE = "Seconds must be between 1 and 86400";
+
+    @Autowired
+    private SearchResultCache searchCache;
+    @Autowired
+    private GameFragmentCache fragmentCache;
+    @Autowired
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+    @Autowired
+    private SingleFlight singleFlight;
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+    @Autowired
+    private FlightRecordings flightRecordings;
+    @Autowired
+    private RecentSpanExporter recentSpans;
+
+    /**
+     * Reports the hit ratio and estimated memory use of the game search cache.
+     * @return a ResponseEntity containing the search cache statistics
+     */
+    @GetMapping("/cache/search")
+    public ResponseEntity<CacheStatsResponse> getSearchCacheStats() {
+        return new ResponseEntity<>(searchCache.stats(), HttpStatus.OK);
+    }
+
+    /**
+     * Reports the hit ratio and estimated memory use of the cached JSON of catalog entries.
+     * @return a ResponseEntity containing the fragment cache statistics
+     */
+    @GetMapping("/cache/fragments")
+    public ResponseEntity<CacheStatsResponse> getFragmentCacheStats() {
+        return new ResponseEntity<>(fragmentCache.stats(), HttpStatus.OK);
+    }
+
+    /**
+     * Reports the current concurrency limit, in-flight and rejected request counts of the auth, catalog
+     * and rental limiters.
+     * @return a ResponseEntity containing the statistics of every limiter
+     */
+    @GetMapping("/concurrency")
+    public ResponseEntity<List<ConcurrencyLimitStats>> getConcurrencyLimitStats() {
+        return new ResponseEntity<>(concurrencyLimitFilter.stats(), HttpStatus.OK);
+    }
+
+    /**
+     * Reports how many catalog and search reads were coalesced with an identical read already in flight.
+     * @return a ResponseEntity containing the coalescing statistics
+     */
+    @GetMapping("/coalescing")
+    public ResponseEntity<CoalescingStatsResponse> getCoalescingStats() {
+        return new ResponseEntity<>(singleFlight.stats(), HttpStatus.OK);
+    }
+
+    /**
+     * Reports the live bucket and rejected request counts of the auth, search and api rate limiters.
+     * @return a ResponseEntity containing the statistics of every rate limiter
+     */
+    @GetMapping("/rate-limits")
+    public ResponseEntity<List<RateLimitStats>> getRateLimitStats() {
+        return new ResponseEntity<>(rateLimitFilter.stats(), HttpStatus.OK);
+    }
+
+    /**
+     * Lists the most recent MongoDB commands over the slow query threshold, with their redacted filter shape,
+     * originating method and, for a sample of them, the explain winning plan.
+     * @return a ResponseEntity containing the slow commands, most recent first
+     */
+    @GetMapping("/slow-queries")
+    public ResponseEntity<List<SlowQueryRecord>> getSlowQueries() {
+        return new ResponseEntity<>(slowQueryLog.records(), HttpStatus.OK);
+    }
+
+    /**
+     * Lists the most recently finished sampled spans, such as those of a slow rental and its MongoDB commands.
+     * @param traceId id of a trace to list the spans of, every recent span if absent
+     * @return a ResponseEntity containing the spans, most recently finished first
+     */
+    @GetMapping("/traces")
+    public ResponseEntity<List<SpanRecord>> getRecentSpans(@RequestParam(required = false) String traceId) {
+        return new ResponseEntity<>(recentSpans.spans(traceId), HttpStatus.OK);
+    }
+
+    /**
+     * Starts a Java Flight Recorder recording, replacing any previous one. The recording stops on its own after
+     * the requested duration, capped by {@code game.jfr.max-duration}, and is bounded by {@code game.jfr.max-size}.
+     * @param seconds requested length of the recording, the configured maximum if absent
+     * @return a ResponseEntity containing the state of the new recording
+     */
+    @PostMapping("/recording")
+    public ResponseEntity<RecordingResponse> startRecording(@RequestParam(required = false)
+                                                            @Min(value = 1, message = SECONDS_ERROR_MESSAGE)
+                                                            @Max(value = 86400, message = SECONDS_ERROR_MESSAGE)
+                                                            Long seconds) {
+        Duration duration = seconds == null ? null : Duration.ofSeconds(seconds);
+        return new ResponseEntity<>(flightRecordings.start(duration), HttpStatus.OK);
+    }
+
+    /**
+     * Dumps the data of the current recording as a .jfr file, for JDK Mission Control or the jfr tool.
+     * @return a ResponseEntity streaming the recording, or 404 if no recording was started
+     * @throws IOException if the recording could not be written
+     */
+    @GetMapping("/recording")
+    public ResponseEntity<StreamingResponseBody> dumpRecording() throws IOException {
+        Optional<Path> dump = flightRecordings.dump();
+        if (dump.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        final Path file = dump.get();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentLength(Files.size(file));
+        headers.setContentDisposition(ContentDisposition.attachment().filename("game-rental.jfr").build());
+        StreamingResponseBody body = outputStream -> {
+            try {
+                Files.copy(file, outputStream);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+}
@@ -5,6 +5,7 @@ import com.berrie.gamerental.dto.AuthenticationResponse;
 import com.berrie.gamerental.service.AuthenticationService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import static com.berrie.gamerental.util.ModelMapper.*;
 
+@Profile("!reactive")
 @Validated
 @RestController
 @RequestMapping("/api/auth")
@@ -1,15 +1,22 @@
 package com.berrie.gamerental.controller;
 
+import com.berrie.gamerental.config.MetricsConfig;
+import com.berrie.gamerental.config.RequestDeadlines;
 import com.berrie.gamerental.exception.*;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
 import java.util.List;
 
@@ -17,8 +24,12 @@ import java.util.List;
  * Global exception handler controller for handling exceptions thrown by any controller in the application.
  */
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class ExceptionHandlerController {
 
+    @Autowired
+    private final MeterRegistry meterRegistry;
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ErrorResponse handleMethodArgumentNotValidException(MethodArgumentNotValidException ex) {
         BindingResult bindingResult = ex.getBindingResult();
@@ -26,7 +37,16 @@ public class ExceptionHandlerController {
                 .stream()
                 .map(DefaultMessageSourceResolvable::getDefaultMessage)
                 .toList();
-        return ErrorResponse.builder(ex, HttpStatus.BAD_REQUEST, String.valueOf(errorMessages)).build();
+        return errorResponse(ex, HttpStatus.BAD_REQUEST, String.valueOf(errorMessages));
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ErrorResponse handleWebExchangeBindException(WebExchangeBindException ex) {
+        List<String> errorMessages = ex.getAllErrors()
+                .stream()
+                .map(DefaultMessageSourceResolvable::getDefaultMessage)
+                .toList();
+        return errorResponse(ex, HttpStatus.BAD_REQUEST, String.valueOf(errorMessages));
     }
 
     @ExceptionHandler(ConstraintViolationException.class)
@@ -35,26 +55,47 @@ public class ExceptionHandlerController {
                 .stream()
                 .map(ConstraintViolation::getMessage)
                 .toList();
-        return ErrorResponse.builder(ex, HttpStatus.BAD_REQUEST, String.valueOf(errorMessages)).build();
+        return errorResponse(ex, HttpStatus.BAD_REQUEST, String.valueOf(errorMessages));
     }
 
     @ExceptionHandler(GameSubmissionException.class)
     public ErrorResponse handleGameSubmissionException(GameSubmissionException ex) {
-        return ErrorResponse.builder(ex, HttpStatus.BAD_REQUEST, ex.getMessage()).build();
+        return errorResponse(ex, HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 
     @ExceptionHandler({UserExistsException.class, GameRentedException.class, GameReturnedException.class})
     public ErrorResponse handleConflictExceptions(Exception ex) {
-        return ErrorResponse.builder(ex, HttpStatus.CONFLICT, ex.getMessage()).build();
+        return errorResponse(ex, HttpStatus.CONFLICT, ex.getMessage());
     }
 
     @ExceptionHandler({NoGamesFoundException.class, NoRentalsFoundException.class})
     public ErrorResponse handleNotFoundExceptions(Exception ex) {
-        return ErrorResponse.builder(ex, HttpStatus.NOT_FOUND, ex.getMessage()).build();
+        return errorResponse(ex, HttpStatus.NOT_FOUND, ex.getMessage());
+    }
+
+    @ExceptionHandler(CatalogUnavailableException.class)
+    public ErrorResponse handleCatalogUnavailableException(CatalogUnavailableException ex) {
+        return errorResponse(ex, HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+    }
+
+    @ExceptionHandler(DataAccessException.class)
+    public ErrorResponse handleDataAccessException(DataAccessException ex) {
+        if (RequestDeadlines.isDeadlineFailure(ex)) {
+            return errorResponse(ex, HttpStatus.GATEWAY_TIMEOUT, "request deadline exceeded");
+        }
+        return errorResponse(ex, HttpStatus.INTERNAL_SERVER_ERROR, "database request failed");
     }
 
     @ExceptionHandler(UserUnauthorizedException.class)
     public ErrorResponse handleUserUnauthorizedException(UserUnauthorizedException ex) {
-        return ErrorResponse.builder(ex, HttpStatus.UNAUTHORIZED, ex.getMessage()).build();
+        return errorResponse(ex, HttpStatus.UNAUTHORIZED, ex.getMessage());
+    }
+
+    // counted per exception type and status, so error rates can be graphed next to the request timers
+    private ErrorResponse errorResponse(Exception ex, HttpStatus status, String detail) {
+        meterRegistry.counter(MetricsConfig.EXCEPTION_COUNTER,
+                "exception", ex.getClass().getSimpleName(),
+                "status", String.valueOf(status.value())).increment();
+        return ErrorResponse.builder(ex, status, detail).build();
     }
 }
@@ -1,21 +1,37 @@
 package com.berrie.gamerental.controller;
 
+import com.berrie.gamerental.cache.CatalogVersion;
+import com.berrie.gamerental.cache.SearchResultCache;
+import com.berrie.gamerental.cache.StaleWhileRevalidateCache;
+import com.berrie.gamerental.cache.StaleWhileRevalidateCache.Served;
 import com.berrie.gamerental.dto.*;
 import com.berrie.gamerental.model.Game;
+import com.berrie.gamerental.service.AvailabilityBroadcaster;
+import com.berrie.gamerental.service.CatalogSyncService;
 import com.berrie.gamerental.service.GameService;
 import com.berrie.gamerental.service.JwtAuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
 import static com.berrie.gamerental.util.ModelMapper.*;
 
+@Profile("!reactive")
 @Validated
 @RestController
 @RequestMapping("/api/games")
@@ -23,34 +39,101 @@ public class GameController {
 
     private static final String TITLE_ERROR_MESSAGE = "Title must contain letters, numbers, " +
             "and no leading white space";
+    private static final String LIMIT_ERROR_MESSAGE = "Limit must be between 1 and 100";
+    private static final String SINCE_ERROR_MESSAGE = "Version cannot be negative";
+    private static final String STALE_WARNING = "110 - \"Response is Stale\"";
 
     @Autowired
     private GameService gameService;
     @Autowired
     private JwtAuthService jwtAuthService;
+    @Autowired
+    private CatalogVersion catalogVersion;
+    @Autowired
+    private CatalogSyncService catalogSyncService;
+    @Autowired
+    private AvailabilityBroadcaster availabilityBroadcaster;
+    @Autowired
+    private StaleWhileRevalidateCache staleCache;
 
     /**
-     * Retrieves a list of games based on the provided sort parameter.
-     * @param request the request containing the parameters for the game retrieval
-     * @return a ResponseEntity containing the list of games
+     * Retrieves a list of games based on the provided sort parameter and optional genre, platform and status filters.
+     * The response carries the catalog version as its ETag, a request whose If-None-Match header matches it
+     * is answered with 304 Not Modified without reading the catalog. The version is taken before the catalog is
+     * read, and the read goes to the primary while a secondary may lag behind it, so the body is never older
+     * than its ETag. While the database is degraded the last good response is served with Warning and Age
+     * headers, without an ETag and marked as not to be stored.
+     * @param request the query parameters for the game retrieval
+     * @param servletRequest the current request, used to evaluate the If-None-Match header
+     * @return a ResponseEntity containing the list of games and the game counts per facet value
      */
     @GetMapping("")
-    public ResponseEntity<GetGamesResponse> getGames(@Valid @RequestBody GetGamesRequest request) {
-        List<GameModel> games = gameService.getGames(request);
-        return new ResponseEntity<>(toGetGamesResponse(games), HttpStatus.OK);
+    public ResponseEntity<GetGamesResponse> getGames(@Valid GetGamesRequest request,
+                                                     HttpServletRequest servletRequest) {
+        final String eTag = catalogVersion.eTag();
+        // evaluated without the response, which would otherwise be given the ETag even if a stale body follows
+        if (new ServletWebRequest(servletRequest).checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .build();
+        }
+        Served<List<GameModel>> games = staleCache.get(request, () -> gameService.getGames(request));
+        FacetCounts facetCounts = gameService.getFacetCounts(request);
+        if (games.stale()) {
+            // the games are older than the current version, caching them under its ETag would pin them
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    .headers(staleHeaders(games))
+                    .body(toGetGamesResponse(games.value(), facetCounts));
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache().cachePublic())
+                .body(toGetGamesResponse(games.value(), facetCounts));
+    }
+
+    /**
+     * Retrieves the games inserted, updated or deleted since the provided catalog version.
+     * @param since the version of the client's catalog copy, as returned by the previous call
+     * @return a ResponseEntity containing the changed games and the ids of the deleted games, or asking the
+     * client to fetch the full catalog if the version is too old
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<GameChangesResponse> getChanges(@RequestParam(name = "since")
+                                                              @Min(value = 0, message = SINCE_ERROR_MESSAGE)
+                                                              Long since) {
+        return new ResponseEntity<>(catalogSyncService.getChangesSince(since), HttpStatus.OK);
+    }
+
+    /**
+     * Streams an event whenever renting or returning a game changes its availability.
+     * The id of each event is the catalog version of the change, a client that reconnects can catch up on
+     * missed changes through {@link #getChanges(Long)}.
+     * @return the server-sent events emitter for the subscriber
+     */
+    @GetMapping(path = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability() {
+        return availabilityBroadcaster.subscribe();
     }
 
     /**
      * Searches for games based on the provided title parameter.
      * @param title the title to search for, consisting of letters, numbers, and no leading white space
-     * @return a ResponseEntity containing the list of games matching the title
+     * @param limit the optional maximum number of games to return, used to fetch only the first page of results
+     * @return a ResponseEntity containing the list of games matching the title, best ranked first, or the last
+     * good response with Warning and Age headers while the database is degraded
      */
     @GetMapping("/search")
     public ResponseEntity<GetGamesResponse> searchGame(@Valid @RequestParam(name = "title")
                                                            @Pattern(regexp = "^(?!\\s)[A-Za-z0-9 ]+$",
-                                                                   message = TITLE_ERROR_MESSAGE) String title) {
-        List<GameModel> games = gameService.searchGame(title);
-        return new ResponseEntity<>(toGetGamesResponse(games), HttpStatus.OK);
+                                                                   message = TITLE_ERROR_MESSAGE) String title,
+                                                       @RequestParam(name = "limit", required = false)
+                                                           @Min(value = 1, message = LIMIT_ERROR_MESSAGE)
+                                                           @Max(value = 100, message = LIMIT_ERROR_MESSAGE)
+                                                           Integer limit) {
+        Served<List<GameModel>> games = staleCache.get(SearchResultCache.keyOf(title, limit),
+                () -> gameService.searchGame(title, limit));
+        return new ResponseEntity<>(toGetGamesResponse(games.value()), staleHeaders(games), HttpStatus.OK);
     }
 
     /**
@@ -65,4 +148,13 @@ public class GameController {
         Game game = gameService.submitGame(request, jwtAuthService.extractUsername(trimToken(token)));
         return new ResponseEntity<>(toSubmitGameResponse(game), HttpStatus.CREATED);
     }
+
+    private static HttpHeaders staleHeaders(Served<?> served) {
+        HttpHeaders headers = new HttpHeaders();
+        if (served.stale()) {
+            headers.set(HttpHeaders.WARNING, STALE_WARNING);
+            headers.set(HttpHeaders.AGE, String.valueOf(served.ageSeconds()));
+        }
+        return headers;
+    }
 }
@@ -0,0 +1,54 @@
+package com.berrie.gamerental.controller;
+
+import com.berrie.gamerental.dto.AuthenticationRequest;
+import com.berrie.gamerental.dto.AuthenticationResponse;
+import com.berrie.gamerental.service.ReactiveAuthenticationService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import static com.berrie.gamerental.util.ModelMapper.*;
+
+/**
+ * Reactive counterpart of {@link AuthenticationController}, serving the same endpoints under the reactive profile.
+ */
+@Profile("reactive")
+@Validated
+@RestController
+@RequestMapping("/api/auth")
+public class ReactiveAuthenticationController {
+
+    @Autowired
+    private ReactiveAuthenticationService authenticationService;
+
+    /**
+     * Creates a new user account based on the provided authentication request parameters.
+     * @param request the request containing the parameters for creating the user account
+     * @return a ResponseEntity containing the JSON web token for the newly created user
+     */
+    @PostMapping("/create")
+    public Mono<ResponseEntity<AuthenticationResponse>> createUser(@Valid @RequestBody AuthenticationRequest request) {
+        return authenticationService.createUser(request)
+                .map(jsonWebToken -> new ResponseEntity<>(toAuthenticationResponse(jsonWebToken), HttpStatus.CREATED));
+    }
+
+    /**
+     * Authenticates an existing user based on the provided authentication request parameters.
+     * @param request the request containing the parameters for authenticating the user
+     * @return a ResponseEntity containing the JSON web token for the authenticated user
+     */
+    @PostMapping("/authenticate")
+    public Mono<ResponseEntity<AuthenticationResponse>> authenticateUser(
+            @Valid @RequestBody AuthenticationRequest request) {
+        return authenticationService.authenticateUser(request)
+                .map(jsonWebToken -> new ResponseEntity<>(toAuthenticationResponse(jsonWebToken), HttpStatus.OK));
+    }
+}
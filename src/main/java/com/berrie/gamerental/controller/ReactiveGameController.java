@@ -0,0 +1,95 @@
+package com.berrie.gamerental.controller;
+
+import com.berrie.gamerental.cache.CatalogVersion;
+import com.berrie.gamerental.dto.*;
+import com.berrie.gamerental.service.JwtAuthService;
+import com.berrie.gamerental.service.ReactiveGameService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static com.berrie.gamerental.util.ModelMapper.*;
+
+/**
+ * Reactive counterpart of {@link GameController}, serving the same endpoints under the reactive profile.
+ */
+@Profile("reactive")
+@Validated
+@RestController
+@RequestMapping("/api/games")
+public class ReactiveGameController {
+
+    private static final String TITLE_ERROR_MESSAGE = "Title must contain letters, numbers, " +
+            "and no leading white space";
+    private static final String LIMIT_ERROR_MESSAGE = "Limit must be between 1 and 100";
+
+    @Autowired
+    private ReactiveGameService gameService;
+    @Autowired
+    private JwtAuthService jwtAuthService;
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    /**
+     * Retrieves a list of games based on the provided sort parameter and optional genre, platform and status filters.
+     * A request whose If-None-Match header matches the catalog version is answered with 304 Not Modified.
+     * @param request the query parameters for the game retrieval
+     * @param exchange the current exchange, used to evaluate the If-None-Match header
+     * @return a ResponseEntity containing the list of games and the game counts per facet value
+     */
+    @GetMapping("")
+    public Mono<ResponseEntity<GetGamesResponse>> getGames(@Valid GetGamesRequest request,
+                                                           ServerWebExchange exchange) {
+        final String eTag = catalogVersion.eTag();
+        if (exchange.checkNotModified(eTag)) {
+            // the 304 status and ETag header have already been set on the response
+            return Mono.empty();
+        }
+        return gameService.getGames(request)
+                .map(games -> ResponseEntity.ok()
+                        .eTag(eTag)
+                        .cacheControl(CacheControl.noCache().cachePublic())
+                        .body(toGetGamesResponse(games, gameService.getFacetCounts(request))));
+    }
+
+    /**
+     * Searches for games based on the provided title parameter.
+     * @param title the title to search for, consisting of letters, numbers, and no leading white space
+     * @param limit the optional maximum number of games to return, used to fetch only the first page of results
+     * @return a ResponseEntity containing the list of games matching the title, best ranked first
+     */
+    @GetMapping("/search")
+    public Mono<ResponseEntity<GetGamesResponse>> searchGame(@Valid @RequestParam(name = "title")
+                                                                 @Pattern(regexp = "^(?!\\s)[A-Za-z0-9 ]+$",
+                                                                         message = TITLE_ERROR_MESSAGE) String title,
+                                                             @RequestParam(name = "limit", required = false)
+                                                                 @Min(value = 1, message = LIMIT_ERROR_MESSAGE)
+                                                                 @Max(value = 100, message = LIMIT_ERROR_MESSAGE)
+                                                                 Integer limit) {
+        return gameService.searchGame(title, limit)
+                .map(games -> new ResponseEntity<>(toGetGamesResponse(games), HttpStatus.OK));
+    }
+
+    /**
+     * Submits a new game based on the provided request parameters and authorization token.
+     * @param request the request containing the parameters for the game submission
+     * @param token the authorization token used to retrieve the user's username
+     * @return a ResponseEntity containing the newly created game
+     */
+    @PostMapping("/submit")
+    public Mono<ResponseEntity<SubmitGameResponse>> submitGame(@Valid @RequestBody SubmitGameRequest request,
+                                                               @RequestHeader(name = "Authorization") String token) {
+        return gameService.submitGame(request, jwtAuthService.extractUsername(trimToken(token)))
+                .map(game -> new ResponseEntity<>(toSubmitGameResponse(game), HttpStatus.CREATED));
+    }
+}
@@ -6,6 +6,7 @@ import com.berrie.gamerental.service.JwtAuthService;
 import com.berrie.gamerental.service.RentalService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -15,6 +16,7 @@ import java.util.List;
 
 import static com.berrie.gamerental.util.ModelMapper.*;
 
+@Profile("!reactive")
 @Validated
 @RestController
 @RequestMapping("/api/rentals")
@@ -0,0 +1,18 @@
+package com.berrie.gamerental.dto;
+
+import com.berrie.gamerental.model.enums.GameStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AvailabilityEvent {
+    private String gameId;
+    private String title;
+    private GameStatus status;
+    private Long version;
+}
@@ -0,0 +1,20 @@
+package com.berrie.gamerental.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheStatsResponse {
+    private long hits;
+    private long misses;
+    private long negativeHits;
+    private double hitRatio;
+    private int entries;
+    private long evictions;
+    private long estimatedBytes;
+}
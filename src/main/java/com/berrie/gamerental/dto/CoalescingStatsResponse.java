@@ -0,0 +1,17 @@
+package com.berrie.gamerental.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CoalescingStatsResponse {
+    private long calls;
+    private long coalesced;
+    private double coalescedRatio;
+    private int inFlight;
+}
@@ -0,0 +1,17 @@
+package com.berrie.gamerental.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConcurrencyLimitStats {
+    private String name;
+    private int limit;
+    private int inFlight;
+    private long rejected;
+}
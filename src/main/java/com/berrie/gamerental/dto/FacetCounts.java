@@ -0,0 +1,21 @@
+package com.berrie.gamerental.dto;
+
+import com.berrie.gamerental.model.enums.GameStatus;
+import com.berrie.gamerental.model.enums.Genre;
+import com.berrie.gamerental.model.enums.Platform;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FacetCounts {
+    private Map<Genre, Integer> genres;
+    private Map<Platform, Integer> platforms;
+    private Map<GameStatus, Integer> statuses;
+}
@@ -0,0 +1,16 @@
+package com.berrie.gamerental.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class GameChange {
+    private String id;
+    private Long version;
+    private GameModel game;
+}
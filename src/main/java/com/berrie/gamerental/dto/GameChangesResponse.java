@@ -0,0 +1,19 @@
+package com.berrie.gamerental.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class GameChangesResponse {
+    private Long version;
+    private boolean resyncRequired;
+    private List<GameChange> changed;
+    private List<String> deleted;
+}
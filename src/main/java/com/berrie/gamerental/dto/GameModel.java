@@ -3,9 +3,11 @@ package com.berrie.gamerental.dto;
 import com.berrie.gamerental.model.enums.GameStatus;
 import com.berrie.gamerental.model.enums.Genre;
 import com.berrie.gamerental.model.enums.Platform;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 @Data
@@ -20,4 +22,11 @@ public class GameModel {
     private GameStatus status;
     private Integer numberOfRentals;
     private String submittedBy;
+    // identify the game version the model was mapped from, used to cache its serialised form
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private String id;
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private Long version;
 }
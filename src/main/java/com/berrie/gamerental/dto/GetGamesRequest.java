@@ -1,5 +1,8 @@
 package com.berrie.gamerental.dto;
 
+import com.berrie.gamerental.model.enums.GameStatus;
+import com.berrie.gamerental.model.enums.Genre;
+import com.berrie.gamerental.model.enums.Platform;
 import com.berrie.gamerental.model.enums.SortBy;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
@@ -12,4 +15,12 @@ public class GetGamesRequest {
 
     @NotNull(message = "sortBy cannot be null")
     private SortBy sortBy;
+
+    private Genre genre;
+    private Platform platform;
+    private GameStatus status;
+
+    public boolean hasFilters() {
+        return genre != null || platform != null || status != null;
+    }
 }
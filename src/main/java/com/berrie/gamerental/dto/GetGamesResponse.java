@@ -1,5 +1,6 @@
 package com.berrie.gamerental.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,4 +14,6 @@ import java.util.List;
 @NoArgsConstructor
 public class GetGamesResponse {
     private List<GameModel> games;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private FacetCounts facets;
 }
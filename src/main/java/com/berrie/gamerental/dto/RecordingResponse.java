@@ -0,0 +1,20 @@
+package com.berrie.gamerental.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecordingResponse {
+    private long id;
+    private String state;
+    private Instant startTime;
+    private long durationSeconds;
+    private long maxSizeBytes;
+}
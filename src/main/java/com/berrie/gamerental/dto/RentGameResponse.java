@@ -10,6 +10,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 public class RentGameResponse {
+    private String rentalId;
     private String gameTitle;
     private String dateRented;
 }
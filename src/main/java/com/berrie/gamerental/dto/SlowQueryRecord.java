@@ -0,0 +1,24 @@
+package com.berrie.gamerental.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class SlowQueryRecord {
+    private Instant completedAt;
+    private String command;
+    private String database;
+    private String collection;
+    private long durationMillis;
+    private boolean failed;
+    private String filterShape;
+    private String origin;
+    private String winningPlan;
+}
@@ -0,0 +1,25 @@
+package com.berrie.gamerental.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SpanRecord {
+    private String traceId;
+    private String spanId;
+    private String parentSpanId;
+    private String name;
+    private String kind;
+    private Instant startedAt;
+    private double durationMillis;
+    private String status;
+    private Map<String, String> attributes;
+}
@@ -0,0 +1,8 @@
+package com.berrie.gamerental.exception;
+
+public class CatalogUnavailableException extends RuntimeException {
+
+    public CatalogUnavailableException(String message) {
+        super(message);
+    }
+}
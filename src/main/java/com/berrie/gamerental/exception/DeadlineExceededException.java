@@ -0,0 +1,10 @@
+package com.berrie.gamerental.exception;
+
+import org.springframework.dao.QueryTimeoutException;
+
+public class DeadlineExceededException extends QueryTimeoutException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,47 @@
+package com.berrie.gamerental.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(CatalogReadEvent.NAME)
+@Label("Catalog Read")
+@Description("A listing or search of the game catalog")
+@Category({"Berrie Game Rental", "Catalog"})
+public class CatalogReadEvent extends OutcomeEvent {
+
+    public static final String NAME = "com.berrie.gamerental.CatalogRead";
+    public static final String GET_GAMES = "getGames";
+    public static final String SEARCH = "searchGame";
+
+    @Label("Operation")
+    private final String operation;
+    @Label("Query")
+    @Description("The sort order and filters of a listing, or the title searched for")
+    private String query;
+    @Label("Games")
+    private int games;
+
+    private CatalogReadEvent(String operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * Starts timing a catalog read.
+     * @param operation {@link #GET_GAMES} or {@link #SEARCH}.
+     * @param query the listing request or the title searched for, only converted to a string while recording.
+     */
+    public static CatalogReadEvent start(String operation, Object query) {
+        CatalogReadEvent event = new CatalogReadEvent(operation);
+        if (event.isEnabled()) {
+            event.query = String.valueOf(query);
+        }
+        event.begin();
+        return event;
+    }
+
+    public void setGames(int games) {
+        this.games = games;
+    }
+}
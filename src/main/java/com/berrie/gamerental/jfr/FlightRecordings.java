@@ -0,0 +1,113 @@
+package com.berrie.gamerental.jfr;
+
+import com.berrie.gamerental.dto.RecordingResponse;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Starts and dumps Java Flight Recorder recordings on demand. At most one recording runs at a time and
+ * every recording is bounded in duration and size, so a forgotten recording cannot fill the disk.
+ * Dumping writes to disk while holding the lock, which is not a monitor so a virtual thread is not pinned.
+ */
+@Slf4j
+@Component
+public class FlightRecordings {
+
+    private final Duration maxDuration;
+    private final DataSize maxSize;
+    private final Configuration configuration;
+    private final Lock lock = new ReentrantLock();
+    private Recording recording;
+
+    public FlightRecordings(@Value("${game.jfr.max-duration:10m}") Duration maxDuration,
+                            @Value("${game.jfr.max-size:100MB}") DataSize maxSize,
+                            @Value("${game.jfr.settings:default}") String settings)
+            throws IOException, ParseException {
+        this.maxDuration = maxDuration;
+        this.maxSize = maxSize;
+        this.configuration = Configuration.getConfiguration(settings);
+    }
+
+    /**
+     * Starts a new recording with the configured settings, closing the previous one.
+     * @param duration requested length of the recording, capped at the configured maximum.
+     * @return the state of the new recording.
+     */
+    public RecordingResponse start(Duration duration) {
+        lock.lock();
+        try {
+            if (recording != null) {
+                recording.close();
+            }
+            Duration bounded = duration == null || duration.compareTo(maxDuration) > 0 ? maxDuration : duration;
+            recording = new Recording(configuration);
+            recording.setName("game-rental");
+            recording.setToDisk(true);
+            recording.setDuration(bounded);
+            recording.setMaxSize(maxSize.toBytes());
+            recording.start();
+            log.info("Started flight recording {} for {}", recording.getId(), bounded);
+            return toResponse(recording);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the data recorded so far by the current recording, which keeps running, to a temporary file.
+     * The caller deletes the file once it has been sent.
+     * @return the temporary file, or empty if no recording was started.
+     * @throws IOException if the recording could not be written.
+     */
+    public Optional<Path> dump() throws IOException {
+        lock.lock();
+        try {
+            if (recording == null || recording.getState() == RecordingState.NEW) {
+                return Optional.empty();
+            }
+            Path file = Files.createTempFile("game-rental-" + recording.getId() + "-", ".jfr");
+            recording.dump(file);
+            return Optional.of(file);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.lock();
+        try {
+            if (recording != null) {
+                recording.close();
+                recording = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static RecordingResponse toResponse(Recording recording) {
+        return RecordingResponse.builder()
+                .id(recording.getId())
+                .state(recording.getState().name())
+                .startTime(recording.getStartTime())
+                .durationSeconds(recording.getDuration().toSeconds())
+                .maxSizeBytes(recording.getMaxSize())
+                .build();
+    }
+}
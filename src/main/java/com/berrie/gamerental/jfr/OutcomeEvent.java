@@ -0,0 +1,40 @@
+package com.berrie.gamerental.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base of the application's Java Flight Recorder events, which record the duration of an operation
+ * and whether it succeeded. Stack traces are left out to keep the events cheap, the ids carried by each
+ * event identify the request instead. Events cost next to nothing while no recording is running.
+ */
+@Category("Berrie Game Rental")
+@StackTrace(false)
+public abstract class OutcomeEvent extends Event {
+
+    public static final String SUCCESS = "success";
+
+    // JFR only records the private fields of the concrete event class, inherited fields must be protected
+    @Label("Outcome")
+    protected String outcome = SUCCESS;
+
+    /**
+     * Records the failure of the operation as its outcome.
+     * @param ex the exception ending the operation.
+     * @return the provided exception, so it can be rethrown.
+     */
+    public <X extends RuntimeException> X failed(X ex) {
+        outcome = ex.getClass().getSimpleName();
+        return ex;
+    }
+
+    /**
+     * Records a named outcome, such as a rejected token, for an operation that completed without an exception.
+     * @param outcome short name of the outcome.
+     */
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+}
@@ -0,0 +1,35 @@
+package com.berrie.gamerental.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(PasswordHashEvent.NAME)
+@Label("Password Hash")
+@Description("A BCrypt hash of a new password or check of a login password")
+@Category({"Berrie Game Rental", "Authentication"})
+public class PasswordHashEvent extends OutcomeEvent {
+
+    public static final String NAME = "com.berrie.gamerental.PasswordHash";
+    public static final String ENCODE = "encode";
+    public static final String MATCHES = "matches";
+    public static final String MISMATCH = "mismatch";
+
+    @Label("Operation")
+    private final String operation;
+
+    private PasswordHashEvent(String operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * Starts timing a password hash.
+     * @param operation {@link #ENCODE} or {@link #MATCHES}.
+     */
+    public static PasswordHashEvent start(String operation) {
+        PasswordHashEvent event = new PasswordHashEvent(operation);
+        event.begin();
+        return event;
+    }
+}
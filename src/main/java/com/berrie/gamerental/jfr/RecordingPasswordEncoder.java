@@ -0,0 +1,47 @@
+package com.berrie.gamerental.jfr;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Password encoder emitting a {@link PasswordHashEvent} for every hash computed by the delegate encoder,
+ * so slow logins and sign ups can be told apart from the rest of the authentication work.
+ */
+@RequiredArgsConstructor
+public class RecordingPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        PasswordHashEvent event = PasswordHashEvent.start(PasswordHashEvent.ENCODE);
+        try {
+            return delegate.encode(rawPassword);
+        } catch (RuntimeException ex) {
+            throw event.failed(ex);
+        } finally {
+            event.commit();
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        PasswordHashEvent event = PasswordHashEvent.start(PasswordHashEvent.MATCHES);
+        try {
+            boolean matches = delegate.matches(rawPassword, encodedPassword);
+            if (!matches) {
+                event.setOutcome(PasswordHashEvent.MISMATCH);
+            }
+            return matches;
+        } catch (RuntimeException ex) {
+            throw event.failed(ex);
+        } finally {
+            event.commit();
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
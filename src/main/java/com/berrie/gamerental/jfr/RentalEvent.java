@@ -0,0 +1,58 @@
+package com.berrie.gamerental.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(RentalEvent.NAME)
+@Label("Rental")
+@Description("A game being rented or returned")
+@Category({"Berrie Game Rental", "Rentals"})
+public class RentalEvent extends OutcomeEvent {
+
+    public static final String NAME = "com.berrie.gamerental.Rental";
+    public static final String RENT = "rent";
+    public static final String RETURN = "return";
+
+    @Label("Operation")
+    private final String operation;
+    @Label("Game Id")
+    private String gameId;
+    @Label("Rental Id")
+    private String rentalId;
+
+    private RentalEvent(String operation, String gameId, String rentalId) {
+        this.operation = operation;
+        this.gameId = gameId;
+        this.rentalId = rentalId;
+    }
+
+    /**
+     * Starts timing the rental of a game.
+     * @param gameId id of the game being rented.
+     */
+    public static RentalEvent rent(String gameId) {
+        RentalEvent event = new RentalEvent(RENT, gameId, null);
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Starts timing the return of a rental.
+     * @param rentalId id of the rental being returned.
+     */
+    public static RentalEvent returning(String rentalId) {
+        RentalEvent event = new RentalEvent(RETURN, null, rentalId);
+        event.begin();
+        return event;
+    }
+
+    public void setGameId(String gameId) {
+        this.gameId = gameId;
+    }
+
+    public void setRentalId(String rentalId) {
+        this.rentalId = rentalId;
+    }
+}
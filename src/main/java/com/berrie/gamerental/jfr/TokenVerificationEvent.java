@@ -0,0 +1,32 @@
+package com.berrie.gamerental.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(TokenVerificationEvent.NAME)
+@Label("Token Verification")
+@Description("Verification of the JSON Web Token of a request, including the user lookup")
+@Category({"Berrie Game Rental", "Authentication"})
+public class TokenVerificationEvent extends OutcomeEvent {
+
+    public static final String NAME = "com.berrie.gamerental.TokenVerification";
+    public static final String REJECTED = "rejected";
+
+    @Label("Username")
+    private String username;
+
+    /**
+     * Starts timing the verification of a token.
+     */
+    public static TokenVerificationEvent start() {
+        TokenVerificationEvent event = new TokenVerificationEvent();
+        event.begin();
+        return event;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+}
@@ -32,4 +32,5 @@ public class Game {
     private GameStatus status;
     private Integer numberOfRentals;
     private User submittedBy;
+    private Long updateSequence;
 }
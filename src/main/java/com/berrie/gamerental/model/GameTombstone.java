@@ -0,0 +1,23 @@
+package com.berrie.gamerental.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Represents the deletion of a game, kept so clients syncing their catalog copy can drop it.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@Document(collection = "game_tombstones")
+public class GameTombstone {
+    @Id
+    private String id;
+    private Long updateSequence;
+    private Date deletedAt;
+}
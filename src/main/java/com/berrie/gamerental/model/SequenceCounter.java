@@ -0,0 +1,37 @@
+package com.berrie.gamerental.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Represents a named counter shared by every instance of the application.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@Document(collection = "sequences")
+public class SequenceCounter {
+    @Id
+    private String id;
+    private Long value;
+    // allocated values whose writes have not committed yet
+    private List<Reservation> pending;
+
+    /**
+     * An allocated value and the time it was allocated at.
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Reservation {
+        private Long version;
+        private Date at;
+    }
+}
@@ -14,4 +14,6 @@ public interface GameRepository extends MongoRepository<Game, String> {
     List<Game> findAllByOrderByTitleAsc();
     Optional<Game> findGameById(String gameId);
     Optional<Game> findByTitle(String title);
+    // both bounds are exclusive
+    List<Game> findByUpdateSequenceBetweenOrderByUpdateSequenceAsc(Long after, Long before);
 }
@@ -0,0 +1,16 @@
+package com.berrie.gamerental.repository;
+
+import com.berrie.gamerental.model.GameTombstone;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Game tombstone data access object.
+ */
+public interface GameTombstoneRepository extends MongoRepository<GameTombstone, String> {
+    // both bounds are exclusive
+    List<GameTombstone> findByUpdateSequenceBetweenOrderByUpdateSequenceAsc(Long after, Long before);
+    List<GameTombstone> findByDeletedAtBefore(Date deletedAt);
+}
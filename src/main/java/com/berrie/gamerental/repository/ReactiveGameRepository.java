@@ -0,0 +1,25 @@
+package com.berrie.gamerental.repository;
+
+import com.berrie.gamerental.model.Game;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive game data access object, used by the reactive profile.
+ * The submitted games of the embedded submitter are references the reactive driver cannot resolve,
+ * so they are not read.
+ */
+public interface ReactiveGameRepository extends ReactiveMongoRepository<Game, String> {
+    String WITHOUT_SUBMITTED_GAMES = "{ 'submittedBy.submittedGames' : 0 }";
+
+    @Query(value = "{}", fields = WITHOUT_SUBMITTED_GAMES, sort = "{ 'numberOfRentals' : -1 }")
+    Flux<Game> findAllByOrderByNumberOfRentalsDesc();
+    @Query(value = "{}", fields = WITHOUT_SUBMITTED_GAMES, sort = "{ 'title' : 1 }")
+    Flux<Game> findAllByOrderByTitleAsc();
+    @Query(value = "{ '_id' : ?0 }", fields = WITHOUT_SUBMITTED_GAMES)
+    Mono<Game> findGameById(String gameId);
+    @Query(value = "{ 'title' : ?0 }", fields = WITHOUT_SUBMITTED_GAMES)
+    Mono<Game> findByTitle(String title);
+}
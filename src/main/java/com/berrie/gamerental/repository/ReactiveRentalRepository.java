@@ -0,0 +1,12 @@
+package com.berrie.gamerental.repository;
+
+import com.berrie.gamerental.model.Rental;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+/**
+ * Reactive rental access object, used by the reactive profile.
+ * The reactive driver cannot resolve the user and game references of a rental, so rentals are only
+ * written through this repository and are read as documents by the reactive rental service.
+ */
+public interface ReactiveRentalRepository extends ReactiveMongoRepository<Rental, String> {
+}
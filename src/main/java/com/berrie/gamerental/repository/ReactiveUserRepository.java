@@ -0,0 +1,15 @@
+package com.berrie.gamerental.repository;
+
+import com.berrie.gamerental.model.User;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive user data access object, used by the reactive profile.
+ * The submitted games are references the reactive driver cannot resolve, so they are not read.
+ */
+public interface ReactiveUserRepository extends ReactiveMongoRepository<User, String> {
+    @Query(value = "{ 'username' : ?0 }", fields = "{ 'submittedGames' : 0 }")
+    Mono<User> findByUsername(String username);
+}
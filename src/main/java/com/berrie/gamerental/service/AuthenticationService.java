@@ -1,11 +1,13 @@
 package com.berrie.gamerental.service;
 
+import com.berrie.gamerental.config.MetricsConfig;
 import com.berrie.gamerental.dto.AuthenticationRequest;
 import com.berrie.gamerental.exception.UserExistsException;
 import com.berrie.gamerental.exception.UserUnauthorizedException;
 import com.berrie.gamerental.model.enums.Role;
 import com.berrie.gamerental.model.User;
 import com.berrie.gamerental.repository.UserRepository;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +22,7 @@ import java.util.Optional;
 
 @Slf4j
 @Service
+@Observed(name = MetricsConfig.SERVICE_OBSERVATION)
 @RequiredArgsConstructor
 public class AuthenticationService {
 
@@ -0,0 +1,227 @@
+package com.berrie.gamerental.service;
+
+import com.berrie.gamerental.dto.AvailabilityEvent;
+import io.micrometer.context.ContextSnapshot;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fans game availability changes out to the subscribers of the availability stream.
+ * Published events are sequenced into a single ring holding the last {@code buffer-size} events, publishing
+ * is constant time on the caller thread whatever the number of subscribers. Every subscriber only keeps the
+ * sequence of the next event it has to receive, so memory per subscriber stays constant and idle subscribers
+ * hold no thread. A small set of dispatcher threads each own a share of the subscribers and sweep them when
+ * events are published, writing the events each subscriber is missing. A subscriber that falls more than
+ * the ring behind skips the oldest events it missed, the event ids let the client notice the gap. The
+ * dispatchers also send a heartbeat comment to keep idle connections open through proxies.
+ */
+@Slf4j
+@Component
+public class AvailabilityBroadcaster {
+
+    private static final String EVENT_NAME = "availability";
+    private static final String HEARTBEAT_COMMENT = "heartbeat";
+
+    private final AtomicReferenceArray<Entry> ring;
+    // guarded by publishLock, publishers may be virtual threads
+    private final Lock publishLock = new ReentrantLock();
+    private volatile long published;
+    private final Dispatcher[] dispatchers;
+    private final AtomicInteger nextDispatcher = new AtomicInteger();
+    private final LongAdder droppedEvents = new LongAdder();
+    private final long timeoutMillis;
+    private final long heartbeatNanos;
+    private volatile boolean running = true;
+
+    public AvailabilityBroadcaster(@Value("${game.availability.stream.buffer-size:16}") int bufferSize,
+                                   @Value("${game.availability.stream.timeout:30m}") Duration timeout,
+                                   @Value("${game.availability.stream.heartbeat-interval:30s}") Duration heartbeatInterval,
+                                   @Value("${game.availability.stream.dispatch-threads:4}") int dispatchThreads) {
+        // platform threads even with virtual request threads, SseEmitter holds a monitor while it writes
+        this(bufferSize, timeout, heartbeatInterval, dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "availability-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    AvailabilityBroadcaster(int bufferSize, Duration timeout, Duration heartbeatInterval, int dispatchThreads,
+                            ThreadFactory threadFactory) {
+        this.ring = new AtomicReferenceArray<>(bufferSize);
+        this.timeoutMillis = timeout.toMillis();
+        this.heartbeatNanos = heartbeatInterval.toNanos();
+        this.dispatchers = new Dispatcher[dispatchThreads];
+        for (int i = 0; i < dispatchThreads; i++) {
+            dispatchers[i] = new Dispatcher(threadFactory);
+        }
+        Arrays.stream(dispatchers).forEach(dispatcher -> dispatcher.thread.start());
+    }
+
+    /**
+     * Registers a new subscriber to the availability stream, it receives the events published from now on.
+     * @return the emitter streaming availability events to the subscriber until it disconnects or times out.
+     */
+    public SseEmitter subscribe() {
+        return register(new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter register(SseEmitter emitter) {
+        Dispatcher dispatcher = dispatchers[Math.floorMod(nextDispatcher.getAndIncrement(), dispatchers.length)];
+        Subscriber subscriber = new Subscriber(emitter, published);
+        emitter.onCompletion(() -> dispatcher.subscribers.remove(subscriber));
+        emitter.onError(error -> dispatcher.subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        dispatcher.subscribers.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Sequences an availability change for every subscriber and wakes the dispatchers, without blocking on
+     * or walking the subscribers.
+     * @param event the availability change.
+     */
+    public void publish(AvailabilityEvent event) {
+        // dispatches carry the trace of the rental or return that published the event
+        ContextSnapshot context = ContextSnapshot.captureAll();
+        publishLock.lock();
+        try {
+            long sequence = published;
+            ring.set(index(sequence), new Entry(sequence, event, context));
+            published = sequence + 1;
+        } finally {
+            publishLock.unlock();
+        }
+        for (Dispatcher dispatcher : dispatchers) {
+            LockSupport.unpark(dispatcher.thread);
+        }
+    }
+
+    public int subscriberCount() {
+        return Arrays.stream(dispatchers).mapToInt(dispatcher -> dispatcher.subscribers.size()).sum();
+    }
+
+    /**
+     * @return the events skipped by subscribers that fell more than the buffer size behind.
+     */
+    public long droppedEventCount() {
+        return droppedEvents.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        for (Dispatcher dispatcher : dispatchers) {
+            dispatcher.thread.interrupt();
+            dispatcher.subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        }
+    }
+
+    /**
+     * Sweeps every subscriber on the calling thread, as the dispatchers do when events are published.
+     */
+    void sweep(boolean heartbeat) {
+        for (Dispatcher dispatcher : dispatchers) {
+            dispatcher.sweep(heartbeat);
+        }
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % ring.length());
+    }
+
+    private final class Dispatcher implements Runnable {
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private final Thread thread;
+
+        Dispatcher(ThreadFactory threadFactory) {
+            this.thread = threadFactory.newThread(this);
+        }
+
+        @Override
+        public void run() {
+            long nextHeartbeat = System.nanoTime() + heartbeatNanos;
+            while (running) {
+                long seen = published;
+                boolean heartbeat = System.nanoTime() - nextHeartbeat >= 0;
+                if (heartbeat) {
+                    nextHeartbeat = System.nanoTime() + heartbeatNanos;
+                }
+                sweep(heartbeat);
+                // an unpark by a publish after the sweep read published makes the park return at once
+                if (published == seen) {
+                    LockSupport.parkNanos(this, nextHeartbeat - System.nanoTime());
+                }
+            }
+        }
+
+        void sweep(boolean heartbeat) {
+            long end = published;
+            for (Subscriber subscriber : subscribers) {
+                if (heartbeat || subscriber.next != end) {
+                    send(subscriber, end, heartbeat);
+                }
+            }
+        }
+
+        private void send(Subscriber subscriber, long end, boolean heartbeat) {
+            try {
+                if (heartbeat) {
+                    subscriber.emitter.send(SseEmitter.event().comment(HEARTBEAT_COMMENT));
+                }
+                long next = Math.max(subscriber.next, end - ring.length());
+                droppedEvents.add(next - subscriber.next);
+                for (; next < end; next++) {
+                    Entry entry = ring.get(index(next));
+                    if (entry.sequence() != next) {
+                        // overwritten by a publish since the sweep started, the subscriber lags a full ring
+                        droppedEvents.increment();
+                        continue;
+                    }
+                    try (ContextSnapshot.Scope scope = entry.context().setThreadLocals()) {
+                        subscriber.emitter.send(SseEmitter.event()
+                                .name(EVENT_NAME)
+                                .id(String.valueOf(entry.event().getVersion()))
+                                .data(entry.event(), MediaType.APPLICATION_JSON));
+                    }
+                }
+                subscriber.next = end;
+            } catch (IOException | IllegalStateException e) {
+                // the client went away or the emitter already completed
+                log.debug("Dropping availability subscriber: {}", e.getMessage());
+                subscribers.remove(subscriber);
+                subscriber.emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private record Entry(long sequence, AvailabilityEvent event, ContextSnapshot context) {
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        // sequence of the next event to send, only read and written by the owning dispatcher once registered
+        private long next;
+
+        Subscriber(SseEmitter emitter, long next) {
+            this.emitter = emitter;
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.berrie.gamerental.service;
+
+import com.berrie.gamerental.dto.GameChangesResponse;
+import com.berrie.gamerental.model.Game;
+import com.berrie.gamerental.model.GameTombstone;
+import com.berrie.gamerental.model.SequenceCounter;
+import com.berrie.gamerental.repository.GameRepository;
+import com.berrie.gamerental.repository.GameTombstoneRepository;
+import com.berrie.gamerental.util.ModelMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Tracks catalog changes so clients keeping a local copy of the catalog can fetch only what changed.
+ * Every game write is stamped with the next value of a shared update sequence and every delete leaves
+ * a tombstone stamped the same way. Tombstones are pruned after the retention period, which raises the
+ * horizon below which the change history is incomplete.
+ * Versions are allocated before the write commits, so concurrent writers can commit out of order. Every
+ * allocated version stays pending until its writer releases it, and changes are only served up to the
+ * version below the lowest pending one. A writer that never releases its version, because its write failed,
+ * holds the changes back until its reservation lease runs out.
+ */
+@Slf4j
+@Service
+public class CatalogSyncService {
+
+    static final String GAMES_SEQUENCE = "games";
+    static final String HORIZON_SEQUENCE = "games-horizon";
+    static final String VALUE_FIELD = "value";
+    static final String PENDING_FIELD = "pending";
+    private static final String UPDATE_SEQUENCE_FIELD = "updateSequence";
+
+    private final GameRepository gameRepository;
+    private final GameTombstoneRepository tombstoneRepository;
+    private final MongoTemplate mongoTemplate;
+    private final Duration tombstoneRetention;
+    private final Duration reservationLease;
+    // versions whose writes committed, released to the shared counter in batches off the write path
+    private final Queue<Long> released = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService releaser;
+
+    public CatalogSyncService(GameRepository gameRepository,
+                              GameTombstoneRepository tombstoneRepository,
+                              MongoTemplate mongoTemplate,
+                              @Value("${game.sync.tombstone-retention:30d}") Duration tombstoneRetention,
+                              @Value("${game.sync.reservation-lease:30s}") Duration reservationLease,
+                              @Value("${game.sync.release-interval:50ms}") Duration releaseInterval) {
+        this.gameRepository = gameRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.tombstoneRetention = tombstoneRetention;
+        this.reservationLease = reservationLease;
+        this.releaser = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-version-releaser");
+            thread.setDaemon(true);
+            return thread;
+        });
+        releaser.scheduleWithFixedDelay(this::flushReleasesQuietly, releaseInterval.toMillis(),
+                releaseInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        releaser.shutdownNow();
+        flushReleasesQuietly();
+    }
+
+    /**
+     * Stamps games written without an update sequence, such as games saved before update sequences were
+     * introduced or imported straight into MongoDB, so they are part of the change history. They all share one
+     * version. Runs before the in-memory catalog indexes load, so the games they hold carry their version.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void stampUnversionedGames() {
+        Query unversioned = query(where(UPDATE_SEQUENCE_FIELD).is(null));
+        if (!mongoTemplate.exists(unversioned, Game.class)) {
+            return;
+        }
+        final long version = nextSequence();
+        try {
+            long stamped = mongoTemplate.updateMulti(unversioned, new Update().set(UPDATE_SEQUENCE_FIELD, version),
+                    Game.class).getModifiedCount();
+            log.info("Stamped {} games with catalog version {}", stamped, version);
+        } finally {
+            release(version);
+        }
+    }
+
+    /**
+     * Lists the games inserted, updated or deleted after the provided version.
+     * @param since the version of the client's catalog copy, 0 for a client without a copy.
+     * @return the changed games and the ids of the deleted games in version order, or a response asking
+     * the client to resync from the full catalog if changes after {@code since} are no longer recorded.
+     */
+    public GameChangesResponse getChangesSince(long since) {
+        log.info("Fetching catalog changes since version {}", since);
+        // versions this node released are visible to its own clients straight away
+        flushReleases();
+        final SequenceCounter counter = mongoTemplate.findById(GAMES_SEQUENCE, SequenceCounter.class);
+        final long latest = valueOf(counter);
+        final long committed = committedVersion(counter, latest);
+        // the upper bound is exclusive, changes up to the committed version are complete
+        List<Game> changedGames = gameRepository.findByUpdateSequenceBetweenOrderByUpdateSequenceAsc(since,
+                committed + 1);
+        List<GameTombstone> tombstones = tombstoneRepository
+                .findByUpdateSequenceBetweenOrderByUpdateSequenceAsc(since, committed + 1);
+
+        // read after the changes so a concurrent prune cannot hide missing tombstones
+        final long horizon = currentValue(HORIZON_SEQUENCE);
+        if (since < horizon || since > latest) {
+            log.info("Version {} is outside the recorded history {} to {}, client must resync", since, horizon,
+                    latest);
+            return GameChangesResponse.builder()
+                    .version(committed)
+                    .resyncRequired(true)
+                    .changed(List.of())
+                    .deleted(List.of())
+                    .build();
+        }
+
+        log.info("Returning {} changed and {} deleted games up to version {}", changedGames.size(),
+                tombstones.size(), committed);
+        return GameChangesResponse.builder()
+                .version(Math.max(since, committed))
+                .resyncRequired(false)
+                .changed(changedGames.stream()
+                        .map(ModelMapper::toGameChange)
+                        .toList())
+                .deleted(tombstones.stream()
+                        .map(GameTombstone::getId)
+                        .toList())
+                .build();
+    }
+
+    /**
+     * Allocates the next catalog version, shared by every instance of the application. The version stays
+     * pending until it is passed to {@link #release(long)} once the write stamped with it has committed.
+     * @return the allocated version.
+     */
+    public long nextSequence() {
+        SequenceCounter counter = mongoTemplate.findAndModify(
+                query(where("_id").is(GAMES_SEQUENCE)),
+                reserveNext(new Date(), reservationLease),
+                FindAndModifyOptions.options().returnNew(true).upsert(true),
+                SequenceCounter.class);
+        return counter.getValue();
+    }
+
+    /**
+     * Marks the write stamped with a version as committed, so changes up to it can be served.
+     * @param version a version returned by {@link #nextSequence()}.
+     */
+    public void release(long version) {
+        released.add(version);
+    }
+
+    /**
+     * Builds the update allocating the next version and recording it as pending, dropping the pending versions
+     * whose lease ran out.
+     * @param now the time of the allocation.
+     * @param lease how long a version may stay pending.
+     * @return the update to apply to the games sequence.
+     */
+    static AggregationUpdate reserveNext(Date now, Duration lease) {
+        final Date expired = new Date(now.getTime() - lease.toMillis());
+        Document increment = new Document("$set", new Document(VALUE_FIELD,
+                new Document("$add", List.of(new Document("$ifNull", List.of("$" + VALUE_FIELD, 0L)), 1L))));
+        Document leased = new Document("$filter", new Document("input",
+                new Document("$ifNull", List.of("$" + PENDING_FIELD, List.of())))
+                .append("cond", new Document("$gt", List.of("$$this.at", expired))));
+        // the second stage sees the incremented value
+        Document reserve = new Document("$set", new Document(PENDING_FIELD, new Document("$concatArrays",
+                List.of(leased, List.of(new Document("version", "$" + VALUE_FIELD).append("at", now))))));
+        return AggregationUpdate.from(List.of(context -> increment, context -> reserve));
+    }
+
+    /**
+     * Records the deletion of a game and prunes tombstones older than the retention period.
+     * @param gameId id of the deleted game.
+     */
+    public void recordDeletion(String gameId) {
+        final long version = nextSequence();
+        try {
+            GameTombstone tombstone = GameTombstone.builder()
+                    .id(gameId)
+                    .updateSequence(version)
+                    .deletedAt(new Date())
+                    .build();
+            tombstoneRepository.save(tombstone);
+        } finally {
+            release(version);
+        }
+        pruneTombstones();
+    }
+
+    /**
+     * Marks the whole change history as incomplete, used when games were deleted without knowing which.
+     */
+    public void requireResync() {
+        log.warn("Games were deleted by an unknown filter, every client must resync");
+        final long version = nextSequence();
+        raiseHorizon(version);
+        release(version);
+    }
+
+    private void pruneTombstones() {
+        Date cutoff = new Date(System.currentTimeMillis() - tombstoneRetention.toMillis());
+        List<GameTombstone> expired = tombstoneRepository.findByDeletedAtBefore(cutoff);
+        if (expired.isEmpty()) {
+            return;
+        }
+        long newestPruned = expired.stream()
+                .mapToLong(GameTombstone::getUpdateSequence)
+                .max()
+                .getAsLong();
+        // raise the horizon before deleting so a concurrent sync never sees the gap as complete
+        raiseHorizon(newestPruned);
+        tombstoneRepository.deleteAll(expired);
+        log.info("Pruned {} game tombstones up to version {}", expired.size(), newestPruned);
+    }
+
+    private void raiseHorizon(long version) {
+        mongoTemplate.upsert(query(where("_id").is(HORIZON_SEQUENCE)),
+                new Update().max(VALUE_FIELD, version),
+                SequenceCounter.class);
+    }
+
+    private long currentValue(String sequence) {
+        return valueOf(mongoTemplate.findById(sequence, SequenceCounter.class));
+    }
+
+    private static long valueOf(SequenceCounter counter) {
+        return counter == null || counter.getValue() == null ? 0 : counter.getValue();
+    }
+
+    // the highest version below every pending version whose lease has not run out
+    private long committedVersion(SequenceCounter counter, long latest) {
+        if (counter == null || counter.getPending() == null) {
+            return latest;
+        }
+        final Date expired = new Date(System.currentTimeMillis() - reservationLease.toMillis());
+        long committed = latest;
+        for (SequenceCounter.Reservation reservation : counter.getPending()) {
+            if (reservation.getAt().after(expired)) {
+                committed = Math.min(committed, reservation.getVersion() - 1);
+            }
+        }
+        return committed;
+    }
+
+    private void flushReleases() {
+        List<Long> versions = new ArrayList<>();
+        for (Long version = released.poll(); version != null; version = released.poll()) {
+            versions.add(version);
+        }
+        if (versions.isEmpty()) {
+            return;
+        }
+        try {
+            mongoTemplate.updateFirst(query(where("_id").is(GAMES_SEQUENCE)),
+                    new Update().pull(PENDING_FIELD, new Document("version", new Document("$in", versions))),
+                    SequenceCounter.class);
+        } catch (RuntimeException ex) {
+            released.addAll(versions);
+            throw ex;
+        }
+    }
+
+    private void flushReleasesQuietly() {
+        try {
+            flushReleases();
+        } catch (RuntimeException ex) {
+            // retried on the next run, until then the versions stay pending
+            log.warn("Could not release catalog versions", ex);
+        }
+    }
+}
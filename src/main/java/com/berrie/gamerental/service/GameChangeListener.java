@@ -0,0 +1,49 @@
+package com.berrie.gamerental.service;
+
+import com.berrie.gamerental.model.Game;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.berrie.gamerental.util.MongoEvents.deletedIds;
+
+/**
+ * Stamps every game written through Spring Data with the next catalog version, releases the version once
+ * the write has committed and records deleted games with {@link CatalogSyncService}.
+ */
+@Profile("!reactive")
+@Component
+@RequiredArgsConstructor
+public class GameChangeListener extends AbstractMongoEventListener<Game> {
+
+    @Autowired
+    private final CatalogSyncService syncService;
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<Game> event) {
+        event.getSource().setUpdateSequence(syncService.nextSequence());
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Game> event) {
+        syncService.release(event.getSource().getUpdateSequence());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Game> event) {
+        Optional<List<String>> gameIds = deletedIds(event);
+        if (gameIds.isPresent()) {
+            gameIds.get().forEach(syncService::recordDeletion);
+        } else {
+            syncService.requireResync();
+        }
+    }
+}
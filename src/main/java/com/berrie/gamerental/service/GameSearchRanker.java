@@ -0,0 +1,94 @@
+package com.berrie.gamerental.service;
+
+import com.berrie.gamerental.model.Game;
+import com.berrie.gamerental.model.enums.GameStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Ranks text search matches by blending text relevance, popularity and availability.
+ */
+@Component
+public class GameSearchRanker {
+
+    // the heap head is the weakest candidate kept so far, ties favour the earlier match
+    private static final Comparator<RankedGame> WEAKEST_FIRST = Comparator
+            .comparingDouble(RankedGame::score)
+            .thenComparing(Comparator.comparingInt(RankedGame::position).reversed());
+
+    private final double textWeight;
+    private final double popularityWeight;
+    private final double availabilityWeight;
+
+    public GameSearchRanker(@Value("${game.search.ranking.text-weight:0.6}") double textWeight,
+                            @Value("${game.search.ranking.popularity-weight:0.25}") double popularityWeight,
+                            @Value("${game.search.ranking.availability-weight:0.15}") double availabilityWeight) {
+        this.textWeight = textWeight;
+        this.popularityWeight = popularityWeight;
+        this.availabilityWeight = availabilityWeight;
+    }
+
+    /**
+     * Selects the highest ranked games from the provided text search matches.
+     * Only the best {@code limit} matches are kept in a bounded heap, so the full match list is never sorted.
+     * @param matches games matching a text search, each carrying its text score.
+     * @param limit maximum number of games to return, or null to rank every match.
+     * @return up to {@code limit} games in descending order of rank.
+     */
+    public List<Game> topK(List<Game> matches, Integer limit) {
+        final int k = limit == null ? matches.size() : Math.min(limit, matches.size());
+        if (k <= 0) {
+            return List.of();
+        }
+
+        float maxTextScore = 0f;
+        int maxRentals = 0;
+        for (Game game : matches) {
+            maxTextScore = Math.max(maxTextScore, textScoreOf(game));
+            maxRentals = Math.max(maxRentals, rentalsOf(game));
+        }
+
+        PriorityQueue<RankedGame> heap = new PriorityQueue<>(k, WEAKEST_FIRST);
+        for (int position = 0; position < matches.size(); position++) {
+            Game game = matches.get(position);
+            RankedGame candidate = new RankedGame(game, score(game, maxTextScore, maxRentals), position);
+            if (heap.size() < k) {
+                heap.offer(candidate);
+            } else if (WEAKEST_FIRST.compare(candidate, heap.peek()) > 0) {
+                heap.poll();
+                heap.offer(candidate);
+            }
+        }
+
+        List<Game> ranked = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ranked.add(heap.poll().game());
+        }
+        Collections.reverse(ranked);
+        return ranked;
+    }
+
+    private double score(Game game, float maxTextScore, int maxRentals) {
+        double relevance = maxTextScore > 0 ? textScoreOf(game) / maxTextScore : 0;
+        double popularity = maxRentals > 0 ? Math.log1p(rentalsOf(game)) / Math.log1p(maxRentals) : 0;
+        double availability = game.getStatus() == GameStatus.AVAILABLE ? 1 : 0;
+        return textWeight * relevance + popularityWeight * popularity + availabilityWeight * availability;
+    }
+
+    private static float textScoreOf(Game game) {
+        return game.getTextScore() == null ? 0f : game.getTextScore();
+    }
+
+    private static int rentalsOf(Game game) {
+        return game.getNumberOfRentals() == null ? 0 : game.getNumberOfRentals();
+    }
+
+    private record RankedGame(Game game, double score, int position) {
+    }
+}
@@ -1,23 +1,35 @@
 package com.berrie.gamerental.service;
 
+import com.berrie.gamerental.cache.GameFacetIndex;
+import com.berrie.gamerental.cache.SearchResultCache;
+import com.berrie.gamerental.cache.SingleFlight;
+import com.berrie.gamerental.config.MetricsConfig;
+import com.berrie.gamerental.config.MongoConfig;
+import com.berrie.gamerental.dto.AvailabilityEvent;
+import com.berrie.gamerental.dto.FacetCounts;
 import com.berrie.gamerental.dto.GameModel;
 import com.berrie.gamerental.dto.GetGamesRequest;
 import com.berrie.gamerental.dto.SubmitGameRequest;
 import com.berrie.gamerental.exception.NoGamesFoundException;
+import com.berrie.gamerental.jfr.CatalogReadEvent;
 import com.berrie.gamerental.model.Game;
 import com.berrie.gamerental.model.User;
 import com.berrie.gamerental.model.enums.GameStatus;
 import com.berrie.gamerental.model.enums.SortBy;
 import com.berrie.gamerental.repository.GameRepository;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.TextCriteria;
 import org.springframework.data.mongodb.core.query.TextQuery;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +37,7 @@ import static com.berrie.gamerental.util.ModelMapper.toGameModelList;
 
 @Slf4j
 @Service
+@Observed(name = MetricsConfig.SERVICE_OBSERVATION)
 @RequiredArgsConstructor
 public class GameService {
 
@@ -33,7 +46,18 @@ public class GameService {
     @Autowired
     private final AuthenticationService authService;
     @Autowired
-    private final MongoTemplate mongoTemplate;
+    @Qualifier(MongoConfig.CATALOG_TEMPLATE)
+    private final MongoTemplate catalogMongoTemplate;
+    @Autowired
+    private final GameSearchRanker searchRanker;
+    @Autowired
+    private final SearchResultCache searchCache;
+    @Autowired
+    private final GameFacetIndex facetIndex;
+    @Autowired
+    private final AvailabilityBroadcaster availabilityBroadcaster;
+    @Autowired
+    private final SingleFlight singleFlight;
 
     /**
      * Submits a new game with the provided details and username.
@@ -57,27 +81,37 @@ public class GameService {
                 .build();
 
         gameRepository.save(game);
+        searchCache.invalidate(title);
         log.info("Game with title {} successfully submitted", title);
         return game;
     }
 
     /**
-     * Retrieves a list of all games and sorts them according to the specified sort order.
-     * @param request {@link GetGamesRequest} object containing the sort by preference for the games.
+     * Retrieves a list of all games, or of the games matching the requested genre, platform and status filters,
+     * and sorts them according to the specified sort order.
+     * @param request {@link GetGamesRequest} object containing the sort by preference and filters for the games.
      * @return list of {@link GameModel} objects sorted according to the sort order.
      * @throws NoGamesFoundException if no games are found.
      */
     public List<GameModel> getGames(GetGamesRequest request) {
-        final SortBy sortBy = request.getSortBy();
-        List<Game> gameList = new ArrayList<>();
-
-        if (SortBy.POPULARITY == sortBy) {
-            log.info("Fetching games sorted by popularity");
-            gameList = gameRepository.findAllByOrderByNumberOfRentalsDesc();
-        } else if (SortBy.TITLE == sortBy) {
-            log.info("Fetching games sorted by title");
-            gameList = gameRepository.findAllByOrderByTitleAsc();
+        CatalogReadEvent event = CatalogReadEvent.start(CatalogReadEvent.GET_GAMES, request);
+        try {
+            List<GameModel> games = listGames(request);
+            event.setGames(games.size());
+            return games;
+        } catch (RuntimeException ex) {
+            throw event.failed(ex);
+        } finally {
+            event.commit();
         }
+    }
+
+    private List<GameModel> listGames(GetGamesRequest request) {
+        if (request.hasFilters()) {
+            return getFilteredGames(request);
+        }
+        log.info("Fetching games sorted by {}", request.getSortBy().toString().toLowerCase());
+        List<Game> gameList = findCatalog(request);
 
         if (gameList.isEmpty()) {
             log.error("store is out of stock, no games were found");
@@ -88,24 +122,104 @@ public class GameService {
         return toGameModelList(gameList);
     }
 
+    /**
+     * Counts the games per genre, platform and status for the filters of the request.
+     * @param request {@link GetGamesRequest} object containing the filters for the games.
+     * @return the {@link FacetCounts}, or null while the facet index is still loading.
+     */
+    public FacetCounts getFacetCounts(GetGamesRequest request) {
+        return facetIndex.isReady() ? facetIndex.countFacets(request) : null;
+    }
+
+    private List<GameModel> getFilteredGames(GetGamesRequest request) {
+        log.info("Fetching games with genre {}, platform {} and status {} sorted by {}", request.getGenre(),
+                request.getPlatform(), request.getStatus(), request.getSortBy().toString().toLowerCase());
+        List<GameModel> gameModels = facetIndex.isReady()
+                ? facetIndex.findGames(request)
+                : toGameModelList(findCatalog(request));
+
+        if (gameModels.isEmpty()) {
+            log.error("no games were found matching the selected filters");
+            throw new NoGamesFoundException("No games match the selected filters, try another!");
+        }
+
+        log.info("Returning {} games", gameModels.size());
+        return gameModels;
+    }
+
+    // identical concurrent catalog reads, such as the burst after a deploy, share one query
+    private List<Game> findCatalog(GetGamesRequest request) {
+        return singleFlight.execute(request, () -> catalogMongoTemplate.find(toFilterQuery(request), Game.class));
+    }
+
+    static Query toFilterQuery(GetGamesRequest request) {
+        Query query = new Query();
+        if (request.getGenre() != null) {
+            query.addCriteria(Criteria.where("genre").is(request.getGenre()));
+        }
+        if (request.getPlatform() != null) {
+            query.addCriteria(Criteria.where("platform").is(request.getPlatform()));
+        }
+        if (request.getStatus() != null) {
+            query.addCriteria(Criteria.where("status").is(request.getStatus()));
+        }
+        return query.with(request.getSortBy() == SortBy.TITLE
+                ? Sort.by(Sort.Direction.ASC, "title")
+                : Sort.by(Sort.Direction.DESC, "numberOfRentals"));
+    }
+
     /**
      * Searches the database for games matching ths provided title.
      * @param title title to search for, may contain one or more words.
-     * @return list of {@link GameModel} objects matching the search criteria, sorted in descending order.
+     * @param limit maximum number of games to return, or null to return every match.
+     * @return list of {@link GameModel} objects matching the search criteria, ranked by text relevance,
+     * popularity and availability in descending order.
      * @throws NoGamesFoundException if no matches are found.
      */
-    public List<GameModel> searchGame(String title) {
+    public List<GameModel> searchGame(String title, Integer limit) {
+        CatalogReadEvent event = CatalogReadEvent.start(CatalogReadEvent.SEARCH, title);
+        try {
+            List<GameModel> games = search(title, limit);
+            event.setGames(games.size());
+            return games;
+        } catch (RuntimeException ex) {
+            throw event.failed(ex);
+        } finally {
+            event.commit();
+        }
+    }
+
+    private List<GameModel> search(String title, Integer limit) {
         log.info("searching for games matching the title {}", title);
-        TextCriteria criteria = TextCriteria.forDefaultLanguage().matchingAny(title.split("\\s+"));
-        TextQuery query = TextQuery.queryText(criteria).sortByScore();
-        List<Game> gameMatches = mongoTemplate.find(query, Game.class);
+        final SearchResultCache.Key cacheKey = SearchResultCache.keyOf(title, limit);
+        Optional<List<GameModel>> cachedMatches = searchCache.get(cacheKey);
+        if (cachedMatches.isPresent()) {
+            return returnSearchMatches(title, cachedMatches.get());
+        }
+
+        // searches with the same normalised terms and limit share one text query
+        List<GameModel> rankedMatches = singleFlight.execute(cacheKey, () -> findSearchMatches(cacheKey, limit));
+        return returnSearchMatches(title, rankedMatches);
+    }
+
+    private List<GameModel> findSearchMatches(SearchResultCache.Key cacheKey, Integer limit) {
+        final long cacheGeneration = searchCache.generation();
+        TextCriteria criteria = TextCriteria.forDefaultLanguage()
+                .matchingAny(cacheKey.terms().toArray(String[]::new));
+        TextQuery query = TextQuery.queryText(criteria).includeScore();
+        List<Game> gameMatches = catalogMongoTemplate.find(query, Game.class);
+        List<GameModel> rankedMatches = toGameModelList(searchRanker.topK(gameMatches, limit));
+        searchCache.put(cacheKey, rankedMatches, cacheGeneration);
+        return rankedMatches;
+    }
 
+    private List<GameModel> returnSearchMatches(String title, List<GameModel> gameMatches) {
         if (gameMatches.isEmpty()) {
             log.error("no games were found for the title {}", title);
             throw new NoGamesFoundException(String.format("No games found for %s try another!", title));
         }
         log.info("Returning {} games matches", gameMatches.size());
-        return toGameModelList(gameMatches);
+        return gameMatches;
     }
 
     public Optional<Game> findGameById(String gameId) {
@@ -113,16 +227,33 @@ public class GameService {
     }
 
     public Game rentGameCopy(Game game) {
+        final GameStatus previousStatus = game.getStatus();
         int numRentals = game.getNumberOfRentals();
         numRentals++;
         game.setNumberOfRentals(numRentals);
         game.setStatus(GameStatus.UNAVAILABLE);
         gameRepository.save(game);
+        searchCache.invalidate(game.getTitle());
+        publishAvailabilityChange(game, previousStatus);
         return game;
     }
 
     public void returnGameCopy(Game game) {
+        final GameStatus previousStatus = game.getStatus();
         game.setStatus(GameStatus.AVAILABLE);
         gameRepository.save(game);
+        searchCache.invalidate(game.getTitle());
+        publishAvailabilityChange(game, previousStatus);
+    }
+
+    private void publishAvailabilityChange(Game game, GameStatus previousStatus) {
+        if (game.getStatus() != previousStatus) {
+            availabilityBroadcaster.publish(AvailabilityEvent.builder()
+                    .gameId(game.getId())
+                    .title(game.getTitle())
+                    .status(game.getStatus())
+                    .version(game.getUpdateSequence())
+                    .build());
+        }
     }
 }
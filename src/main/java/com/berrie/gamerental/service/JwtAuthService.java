@@ -1,10 +1,12 @@
 package com.berrie.gamerental.service;
 
+import com.berrie.gamerental.config.MetricsConfig;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
@@ -18,6 +20,7 @@ import java.util.function.Function;
  * Represents a service for JSON Web Token authentication and authorization.
  */
 @Service
+@Observed(name = MetricsConfig.SERVICE_OBSERVATION)
 public class JwtAuthService {
 
     // 256-bit encrypted key, generated here:
@@ -0,0 +1,92 @@
+package com.berrie.gamerental.service;
+
+import com.berrie.gamerental.dto.AuthenticationRequest;
+import com.berrie.gamerental.exception.UserExistsException;
+import com.berrie.gamerental.exception.UserUnauthorizedException;
+import com.berrie.gamerental.model.User;
+import com.berrie.gamerental.model.enums.Role;
+import com.berrie.gamerental.repository.ReactiveUserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+
+/**
+ * Non-blocking counterpart of {@link AuthenticationService} served by the reactive profile.
+ */
+@Profile("reactive")
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReactiveAuthenticationService {
+
+    @Autowired
+    private final ReactiveUserRepository userRepository;
+    @Autowired
+    private final PasswordEncoder passwordEncoder;
+    @Autowired
+    private final JwtAuthService jwtAuthService;
+    @Autowired
+    private final ReactiveAuthenticationManager authenticationManager;
+
+    /**
+     * Create a new user provided the user does not already exist.
+     * @param request {@link AuthenticationRequest} object containing the required fields to create a user.
+     * @return JWT generated token.
+     * @throws UserExistsException if a user with the same username already exists.
+     */
+    public Mono<String> createUser(AuthenticationRequest request) {
+        final String username = request.getUsername();
+        log.info("Creating new user with username {}", username);
+        return userRepository.findByUsername(username)
+                .flatMap(existing -> Mono.<User>error(
+                        new UserExistsException(String.format("User with username %s already exists", username))))
+                // hashing is deliberately slow, keep it off the event loop
+                .switchIfEmpty(Mono.fromCallable(() -> User.builder()
+                                .username(username)
+                                .password(passwordEncoder.encode(request.getPassword()))
+                                .role(Role.USER)
+                                .submittedGames(new ArrayList<>())
+                                .build())
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .flatMap(userRepository::save))
+                .map(user -> {
+                    log.info("User with username {} successfully created", username);
+                    return jwtAuthService.generateToken(user);
+                });
+    }
+
+    /**
+     * Logs in a returning user provided the user already exists.
+     * @param request {@link AuthenticationRequest} object containing the required fields to authenticate a user.
+     * @return JWT generated token.
+     * @throws UserUnauthorizedException if the user's credentials are invalid.
+     */
+    public Mono<String> authenticateUser(AuthenticationRequest request) {
+        final String username = request.getUsername();
+        log.info("Authenticating user with username {}", username);
+
+        return authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(
+                        username,
+                        request.getPassword()))
+                .onErrorMap(BadCredentialsException.class, ex -> {
+                    log.error("User with username {} was not authenticated", username);
+                    return new UserUnauthorizedException(
+                            String.format("Either the User %s or password is incorrect", username));
+                })
+                .map(authentication -> {
+                    log.info("User with username {} successfully authenticated", username);
+                    return jwtAuthService.generateToken((UserDetails) authentication.getPrincipal());
+                });
+    }
+}
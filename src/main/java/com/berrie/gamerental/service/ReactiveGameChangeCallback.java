@@ -0,0 +1,62 @@
+package com.berrie.gamerental.service;
+
+import com.berrie.gamerental.model.Game;
+import com.berrie.gamerental.model.SequenceCounter;
+import org.bson.Document;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveAfterSaveCallback;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveBeforeConvertCallback;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Stamps every game written through the reactive templates with the next catalog version and releases it
+ * once the write has committed, the reactive counterpart of {@link GameChangeListener}.
+ */
+@Profile("reactive")
+@Component
+public class ReactiveGameChangeCallback implements ReactiveBeforeConvertCallback<Game>,
+        ReactiveAfterSaveCallback<Game> {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final Duration reservationLease;
+
+    public ReactiveGameChangeCallback(ReactiveMongoTemplate reactiveMongoTemplate,
+                                      @Value("${game.sync.reservation-lease:30s}") Duration reservationLease) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.reservationLease = reservationLease;
+    }
+
+    @Override
+    public Publisher<Game> onBeforeConvert(Game game, String collection) {
+        return reactiveMongoTemplate.findAndModify(
+                        query(where("_id").is(CatalogSyncService.GAMES_SEQUENCE)),
+                        CatalogSyncService.reserveNext(new Date(), reservationLease),
+                        FindAndModifyOptions.options().returnNew(true).upsert(true),
+                        SequenceCounter.class)
+                .map(counter -> {
+                    game.setUpdateSequence(counter.getValue());
+                    return game;
+                });
+    }
+
+    @Override
+    public Publisher<Game> onAfterSave(Game game, Document document, String collection) {
+        return reactiveMongoTemplate.updateFirst(
+                        query(where("_id").is(CatalogSyncService.GAMES_SEQUENCE)),
+                        new Update().pull(CatalogSyncService.PENDING_FIELD,
+                                new Document("version", game.getUpdateSequence())),
+                        SequenceCounter.class)
+                .thenReturn(game);
+    }
+}
@@ -0,0 +1,179 @@
+package com.berrie.gamerental.service;
+
+import com.berrie.gamerental.cache.GameFacetIndex;
+import com.berrie.gamerental.cache.SearchResultCache;
+import com.berrie.gamerental.config.ReactiveMongoConfig;
+import com.berrie.gamerental.dto.FacetCounts;
+import com.berrie.gamerental.dto.GameModel;
+import com.berrie.gamerental.dto.GetGamesRequest;
+import com.berrie.gamerental.dto.SubmitGameRequest;
+import com.berrie.gamerental.exception.NoGamesFoundException;
+import com.berrie.gamerental.model.Game;
+import com.berrie.gamerental.model.enums.GameStatus;
+import com.berrie.gamerental.repository.ReactiveGameRepository;
+import com.berrie.gamerental.repository.ReactiveUserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.berrie.gamerental.util.ModelMapper.toGameModelList;
+
+/**
+ * Non-blocking counterpart of {@link GameService} served by the reactive profile.
+ */
+@Profile("reactive")
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReactiveGameService {
+
+    @Autowired
+    private final ReactiveGameRepository gameRepository;
+    @Autowired
+    private final ReactiveUserRepository userRepository;
+    @Autowired
+    @Qualifier(ReactiveMongoConfig.CATALOG_TEMPLATE)
+    private final ReactiveMongoTemplate catalogMongoTemplate;
+    @Autowired
+    private final GameSearchRanker searchRanker;
+    @Autowired
+    private final SearchResultCache searchCache;
+    @Autowired
+    private final GameFacetIndex facetIndex;
+
+    /**
+     * Submits a new game with the provided details and username.
+     * @param request {@link SubmitGameRequest} object containing details of the game to be submitted.
+     * @param username the username of the user submitting the game.
+     * @return the submitted game.
+     */
+    public Mono<Game> submitGame(SubmitGameRequest request, String username) {
+        final String title = request.getTitle();
+        log.info("User {} submitting game {}", username, title);
+
+        return userRepository.findByUsername(username)
+                .map(user -> Game.builder()
+                        .title(title)
+                        .genre(request.getGenre())
+                        .platform(request.getPlatform())
+                        .status(GameStatus.AVAILABLE)
+                        .numberOfRentals(0)
+                        .submittedBy(user)
+                        .build())
+                .flatMap(gameRepository::save)
+                .doOnNext(game -> {
+                    searchCache.invalidate(title);
+                    log.info("Game with title {} successfully submitted", title);
+                });
+    }
+
+    /**
+     * Retrieves a list of all games, or of the games matching the requested genre, platform and status filters,
+     * and sorts them according to the specified sort order.
+     * @param request {@link GetGamesRequest} object containing the sort by preference and filters for the games.
+     * @return list of {@link GameModel} objects sorted according to the sort order.
+     * @throws NoGamesFoundException if no games are found.
+     */
+    public Mono<List<GameModel>> getGames(GetGamesRequest request) {
+        if (request.hasFilters() && facetIndex.isReady()) {
+            log.info("Fetching games with genre {}, platform {} and status {} sorted by {}", request.getGenre(),
+                    request.getPlatform(), request.getStatus(), request.getSortBy().toString().toLowerCase());
+            return returnGames(request, facetIndex.findGames(request));
+        }
+        log.info("Fetching games sorted by {}", request.getSortBy().toString().toLowerCase());
+        return catalogMongoTemplate.find(withoutSubmittedGames(GameService.toFilterQuery(request)), Game.class)
+                .collectList()
+                .flatMap(games -> returnGames(request, toGameModelList(games)));
+    }
+
+    /**
+     * Counts the games per genre, platform and status for the filters of the request.
+     * @param request {@link GetGamesRequest} object containing the filters for the games.
+     * @return the {@link FacetCounts}, or null while the facet index is still loading.
+     */
+    public FacetCounts getFacetCounts(GetGamesRequest request) {
+        return facetIndex.isReady() ? facetIndex.countFacets(request) : null;
+    }
+
+    private Mono<List<GameModel>> returnGames(GetGamesRequest request, List<GameModel> gameModels) {
+        if (gameModels.isEmpty()) {
+            if (request.hasFilters()) {
+                log.error("no games were found matching the selected filters");
+                return Mono.error(new NoGamesFoundException("No games match the selected filters, try another!"));
+            }
+            log.error("store is out of stock, no games were found");
+            return Mono.error(new NoGamesFoundException("No games in stock, check back at a later time!"));
+        }
+        log.info("Returning {} games", gameModels.size());
+        return Mono.just(gameModels);
+    }
+
+    /**
+     * Searches the database for games matching ths provided title.
+     * @param title title to search for, may contain one or more words.
+     * @param limit maximum number of games to return, or null to return every match.
+     * @return list of {@link GameModel} objects matching the search criteria, ranked by text relevance,
+     * popularity and availability in descending order.
+     * @throws NoGamesFoundException if no matches are found.
+     */
+    public Mono<List<GameModel>> searchGame(String title, Integer limit) {
+        log.info("searching for games matching the title {}", title);
+        final SearchResultCache.Key cacheKey = SearchResultCache.keyOf(title, limit);
+        Optional<List<GameModel>> cachedMatches = searchCache.get(cacheKey);
+        if (cachedMatches.isPresent()) {
+            return returnSearchMatches(title, cachedMatches.get());
+        }
+
+        final long cacheGeneration = searchCache.generation();
+        TextCriteria criteria = TextCriteria.forDefaultLanguage().matchingAny(title.split("\\s+"));
+        Query query = withoutSubmittedGames(TextQuery.queryText(criteria).includeScore());
+        return catalogMongoTemplate.find(query, Game.class)
+                .collectList()
+                .map(gameMatches -> toGameModelList(searchRanker.topK(gameMatches, limit)))
+                .doOnNext(rankedMatches -> searchCache.put(cacheKey, rankedMatches, cacheGeneration))
+                .flatMap(rankedMatches -> returnSearchMatches(title, rankedMatches));
+    }
+
+    private Mono<List<GameModel>> returnSearchMatches(String title, List<GameModel> gameMatches) {
+        if (gameMatches.isEmpty()) {
+            log.error("no games were found for the title {}", title);
+            return Mono.error(new NoGamesFoundException(String.format("No games found for %s try another!", title)));
+        }
+        log.info("Returning {} games matches", gameMatches.size());
+        return Mono.just(gameMatches);
+    }
+
+    public Mono<Game> findGameById(String gameId) {
+        return gameRepository.findGameById(gameId);
+    }
+
+    public Mono<Game> rentGameCopy(Game game) {
+        game.setNumberOfRentals(game.getNumberOfRentals() + 1);
+        game.setStatus(GameStatus.UNAVAILABLE);
+        return gameRepository.save(game)
+                .doOnNext(saved -> searchCache.invalidate(saved.getTitle()));
+    }
+
+    public Mono<Game> returnGameCopy(Game game) {
+        game.setStatus(GameStatus.AVAILABLE);
+        return gameRepository.save(game)
+                .doOnNext(saved -> searchCache.invalidate(saved.getTitle()));
+    }
+
+    // the submitter's own games are references the reactive driver cannot resolve
+    private static Query withoutSubmittedGames(Query query) {
+        query.fields().exclude("submittedBy.submittedGames");
+        return query;
+    }
+}
@@ -0,0 +1,188 @@
+package com.berrie.gamerental.service;
+
+import com.berrie.gamerental.dto.GetRentalsRequest;
+import com.berrie.gamerental.dto.RentGameRequest;
+import com.berrie.gamerental.dto.RentalModel;
+import com.berrie.gamerental.dto.ReturnGameRequest;
+import com.berrie.gamerental.exception.*;
+import com.berrie.gamerental.model.Game;
+import com.berrie.gamerental.model.Rental;
+import com.berrie.gamerental.model.enums.GameStatus;
+import com.berrie.gamerental.model.enums.RentalStatus;
+import com.berrie.gamerental.repository.ReactiveRentalRepository;
+import com.berrie.gamerental.repository.ReactiveUserRepository;
+import com.mongodb.DBRef;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static com.berrie.gamerental.util.ModelMapper.toRentalModel;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Non-blocking counterpart of {@link RentalService} served by the reactive profile.
+ * The reactive driver cannot resolve the user and game references of a rental, so rentals are read as
+ * documents and their games are loaded in a single query by the referenced ids.
+ */
+@Profile("reactive")
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReactiveRentalService {
+
+    private static final String RENTALS_COLLECTION = "rentals";
+
+    @Autowired
+    private final ReactiveRentalRepository rentalRepository;
+    @Autowired
+    private final ReactiveUserRepository userRepository;
+    @Autowired
+    private final ReactiveGameService gameService;
+    @Autowired
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    /**
+     * Rents a game to the user with the provided username.
+     * @param request {@link RentGameRequest} object containing the id of the game to be rented.
+     * @param username the username of the user renting the game.
+     * @return the {@link Rental} object representing the new rental record.
+     * @throws UserUnauthorizedException if the user no longer exists.
+     * @throws NoGamesFoundException if the game id could not be found.
+     * @throws GameSubmissionException if the user tries to rent a game they submitted.
+     * @throws GameRentedException if the game is already rented and unavailable for rent.
+     */
+    public Mono<Rental> rentGame(RentGameRequest request, String username) {
+        final String gameId = request.getGameId();
+        log.info("User {} renting game {}", username, gameId);
+
+        // the user is resolved before the game is marked as rented, so a missing user never strands a game
+        return userRepository.findByUsername(username)
+                .switchIfEmpty(Mono.error(() ->
+                        new UserUnauthorizedException(String.format("User %s was not found", username))))
+                .flatMap(user -> gameService.findGameById(gameId)
+                        .switchIfEmpty(Mono.error(() ->
+                                new NoGamesFoundException(String.format("Game with id %s was not found", gameId))))
+                        .flatMap(game -> {
+                            if (username.equals(game.getSubmittedBy().getUsername())) {
+                                log.error("User {} tried to rent a game they submitted", username);
+                                return Mono.error(new GameSubmissionException(
+                                        "You cannot rent a game that you submitted."));
+                            }
+                            if (game.getStatus() == GameStatus.UNAVAILABLE) {
+                                log.error("User {} tried renting a game {} that was already rented", username,
+                                        game.getTitle());
+                                return Mono.error(new GameRentedException(
+                                        "This game is not currently available to rent."));
+                            }
+                            return gameService.rentGameCopy(game);
+                        })
+                        .flatMap(game -> {
+                            Rental rental = Rental.builder()
+                                    .rentalStatus(RentalStatus.ACTIVE)
+                                    .rentalDate(new Date())
+                                    .build();
+                            rental.setUser(user);
+                            rental.setGame(game);
+                            rental.setRentedBy(username);
+                            return rentalRepository.insert(rental);
+                        }))
+                .doOnNext(rental -> log.info("User {} successfully rented {}", username, rental.getGame().getTitle()));
+    }
+
+    /**
+     * Retrieves a list of rentals for a given user according to the specified rental status.
+     * @param request {@link GetRentalsRequest} object containing the rental status to filter by.
+     * @param username the username of the user whose rentals are being retrieved.
+     * @return list of {@link RentalModel} objects sorted in descending order of the rental date.
+     * @throws NoRentalsFoundException if no rental records were found.
+     */
+    public Mono<List<RentalModel>> getRentals(GetRentalsRequest request, String username) {
+        final RentalStatus rentalStatus = request.getRentalStatus();
+        log.info("Fetching {} rentals for user {}", rentalStatus.toString().toLowerCase(), username);
+
+        Query rentalsQuery = query(where("rentedBy").is(username).and("rentalStatus").is(rentalStatus))
+                .with(Sort.by(Sort.Direction.DESC, "rentalDate"));
+        return reactiveMongoTemplate.find(rentalsQuery, Document.class, RENTALS_COLLECTION)
+                .collectList()
+                .flatMap(rentalDocuments -> {
+                    if (rentalDocuments.isEmpty()) {
+                        log.error("no rental records were found for user {}", username);
+                        String state = rentalStatus == RentalStatus.ACTIVE ? "active" : "past";
+                        return Mono.error(new NoRentalsFoundException(
+                                String.format("Looks like you don't have any %s rentals.", state)));
+                    }
+                    return toRentalModels(rentalDocuments);
+                })
+                .doOnNext(rentals -> log.info("Returning {} {} rentals for {}", rentals.size(), rentalStatus, username));
+    }
+
+    private Mono<List<RentalModel>> toRentalModels(List<Document> rentalDocuments) {
+        List<Object> gameIds = rentalDocuments.stream()
+                .map(rental -> rental.get("game", DBRef.class).getId())
+                .distinct()
+                .toList();
+        Query gamesQuery = query(where("_id").in(gameIds));
+        gamesQuery.fields().exclude("submittedBy");
+        return reactiveMongoTemplate.find(gamesQuery, Game.class)
+                .collectMap(Game::getId, Function.identity())
+                .map(gamesById -> rentalDocuments.stream()
+                        .map(rental -> toRentalModel(toRental(rental, gamesById)))
+                        .toList());
+    }
+
+    /**
+     * Returns a game rented by the returning user.
+     * @param request {@link ReturnGameRequest} object containing the rental id to be returned.
+     * @throws NoRentalsFoundException if no rental was found.
+     * @throws GameRentedException if the rental is in the returned status.
+     */
+    public Mono<Void> returnGame(ReturnGameRequest request) {
+        final String rentalId = request.getRentalId();
+        log.info("Returning rental {}", rentalId);
+
+        return reactiveMongoTemplate.findById(rentalId, Document.class, RENTALS_COLLECTION)
+                .switchIfEmpty(Mono.error(() ->
+                        new NoRentalsFoundException(String.format("Rental with id %s was not found", rentalId))))
+                .flatMap(rental -> {
+                    final String username = rental.getString("rentedBy");
+                    if (RentalStatus.RETURNED.name().equals(rental.getString("rentalStatus"))) {
+                        log.error("{} tried to return a game they have already returned", username);
+                        return Mono.error(new GameReturnedException("This game has already been returned by you"));
+                    }
+                    final String gameId = rental.get("game", DBRef.class).getId().toString();
+                    Update update = new Update()
+                            .set("returnDate", new Date())
+                            .set("rentalStatus", RentalStatus.RETURNED);
+                    return reactiveMongoTemplate.updateFirst(query(where("_id").is(rentalId)), update, Rental.class)
+                            .then(gameService.findGameById(gameId))
+                            .flatMap(gameService::returnGameCopy)
+                            .doOnNext(game -> log.info("{} successfully returned by {}", game.getId(), username));
+                })
+                .then();
+    }
+
+    private static Rental toRental(Document rental, Map<String, Game> gamesById) {
+        return Rental.builder()
+                .id(rental.getObjectId("_id").toHexString())
+                .rentalStatus(RentalStatus.valueOf(rental.getString("rentalStatus")))
+                .game(gamesById.get(rental.get("game", DBRef.class).getId().toString()))
+                .rentalDate(rental.getDate("rentalDate"))
+                .returnDate(rental.getDate("returnDate"))
+                .rentedBy(rental.getString("rentedBy"))
+                .build();
+    }
+}
@@ -1,16 +1,19 @@
 package com.berrie.gamerental.service;
 
+import com.berrie.gamerental.config.MetricsConfig;
 import com.berrie.gamerental.dto.GetRentalsRequest;
 import com.berrie.gamerental.dto.RentGameRequest;
 import com.berrie.gamerental.dto.RentalModel;
 import com.berrie.gamerental.dto.ReturnGameRequest;
 import com.berrie.gamerental.exception.*;
+import com.berrie.gamerental.jfr.RentalEvent;
 import com.berrie.gamerental.model.Game;
 import com.berrie.gamerental.model.Rental;
 import com.berrie.gamerental.model.User;
 import com.berrie.gamerental.model.enums.GameStatus;
 import com.berrie.gamerental.model.enums.RentalStatus;
 import com.berrie.gamerental.repository.RentalRepository;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,6 +27,7 @@ import static com.berrie.gamerental.util.ModelMapper.toRentalModelList;
 
 @Slf4j
 @Service
+@Observed(name = MetricsConfig.SERVICE_OBSERVATION)
 @RequiredArgsConstructor
 public class RentalService {
 
@@ -43,8 +47,21 @@ public class RentalService {
      * @throws GameSubmissionException if the user tries to rent a game they submitted.
      * @throws GameRentedException if the game is already rented and unavailable for rent.
      */
-    @SuppressWarnings("OptionalGetWithoutIsPresent")
     public Rental rentGame(RentGameRequest request, String username) {
+        RentalEvent event = RentalEvent.rent(request.getGameId());
+        try {
+            Rental rental = rent(request, username);
+            event.setRentalId(rental.getId());
+            return rental;
+        } catch (RuntimeException ex) {
+            throw event.failed(ex);
+        } finally {
+            event.commit();
+        }
+    }
+
+    @SuppressWarnings("OptionalGetWithoutIsPresent")
+    private Rental rent(RentGameRequest request, String username) {
         final String gameId = request.getGameId();
         log.info("User {} renting game {}", username, gameId);
 
@@ -110,6 +127,17 @@ public class RentalService {
      * @throws GameRentedException if the rental is in the returned status.
      */
     public void returnGame(ReturnGameRequest request) {
+        RentalEvent event = RentalEvent.returning(request.getRentalId());
+        try {
+            event.setGameId(returnRental(request).getId());
+        } catch (RuntimeException ex) {
+            throw event.failed(ex);
+        } finally {
+            event.commit();
+        }
+    }
+
+    private Game returnRental(ReturnGameRequest request) {
         final String rentalId = request.getRentalId();
         log.info("Returning rental {}", rentalId);
 
@@ -131,5 +159,6 @@ public class RentalService {
         rentalRepository.save(rental);
         gameService.returnGameCopy(gameCopy);
         log.info("{} successfully returned by {}", gameCopy.getId(), username);
+        return gameCopy;
     }
 }
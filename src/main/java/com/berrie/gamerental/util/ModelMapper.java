@@ -35,8 +35,16 @@ public class ModelMapper {
                 .build();
     }
 
+    public static GetGamesResponse toGetGamesResponse(List<GameModel> gameModelList, FacetCounts facetCounts) {
+        return GetGamesResponse.builder()
+                .games(gameModelList)
+                .facets(facetCounts)
+                .build();
+    }
+
     public static RentGameResponse toRentGameResponse(Rental rental) {
         return RentGameResponse.builder()
+                .rentalId(rental.getId())
                 .gameTitle(rental.getGame().getTitle())
                 .dateRented(dateToPrettyString(rental.getRentalDate()))
                 .build();
@@ -62,6 +70,16 @@ public class ModelMapper {
                 .status(game.getStatus())
                 .numberOfRentals(game.getNumberOfRentals())
                 .submittedBy(game.getSubmittedBy().getUsername())
+                .id(game.getId())
+                .version(game.getUpdateSequence())
+                .build();
+    }
+
+    public static GameChange toGameChange(Game game) {
+        return GameChange.builder()
+                .id(game.getId())
+                .version(game.getUpdateSequence())
+                .game(toGameModel(game))
                 .build();
     }
 
@@ -0,0 +1,32 @@
+package com.berrie.gamerental.util;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public class MongoEvents {
+
+    private static final String ID_FIELD = "_id";
+    private static final String IN_OPERATOR = "$in";
+
+    /**
+     * Extracts the ids of the deleted documents from the filter of a delete.
+     * Spring Data deletes a single entity by {@code _id} and several by {@code _id: {$in: [...]}}.
+     * @param event the delete event.
+     * @return the deleted ids, or empty if the delete used another filter and the affected documents are unknown.
+     */
+    public static Optional<List<String>> deletedIds(AfterDeleteEvent<?> event) {
+        Object id = event.getSource().get(ID_FIELD);
+        if (id instanceof Document operator && operator.get(IN_OPERATOR) instanceof Collection<?> ids) {
+            return Optional.of(ids.stream()
+                    .map(Object::toString)
+                    .toList());
+        } else if (id != null && !(id instanceof Document)) {
+            return Optional.of(List.of(id.toString()));
+        }
+        return Optional.empty();
+    }
+}
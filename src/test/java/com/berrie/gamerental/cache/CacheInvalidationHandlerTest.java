@@ -0,0 +1,84 @@
+package com.berrie.gamerental.cache;
+
+import com.berrie.gamerental.model.Game;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CacheInvalidationHandlerTest {
+
+    @Mock
+    private GameFacetIndex facetIndex;
+    @Mock
+    private GameFacetIndexListener facetIndexListener;
+    @Mock
+    private SearchResultCache searchCache;
+    @Mock
+    private CatalogVersion catalogVersion;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private MongoConverter mongoConverter;
+    @InjectMocks
+    private CacheInvalidationHandler invalidationHandler;
+
+    @Test
+    void onInvalidation_gameUpdatedElsewhere_refreshesGameCaches() {
+        // given
+        Document document = new Document("title", "Returnal");
+        Game game = Game.builder().id("game-1").title("Returnal").build();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(mongoConverter.read(Game.class, document)).thenReturn(game);
+
+        // when
+        invalidationHandler.onInvalidation(
+                new CacheInvalidationEvent("games", OperationType.UPDATE, "game-1", document));
+
+        // then
+        verify(facetIndex).upsert(game);
+        verify(searchCache).invalidate("Returnal");
+        verify(catalogVersion).advance();
+    }
+
+    @Test
+    void onInvalidation_gameDeletedElsewhere_removesGame() {
+        // when
+        invalidationHandler.onInvalidation(
+                new CacheInvalidationEvent("games", OperationType.DELETE, "game-1", null));
+
+        // then
+        verify(facetIndex).remove("game-1");
+        verify(searchCache).invalidateAll();
+        verify(catalogVersion).advance();
+    }
+
+    @Test
+    void onInvalidation_historyLost_invalidatesEveryCache() {
+        // when
+        invalidationHandler.onInvalidation(CacheInvalidationEvent.all());
+
+        // then
+        verify(facetIndexListener).loadIndex();
+        verify(searchCache).invalidateAll();
+        verify(catalogVersion).advance();
+    }
+
+    @Test
+    void onInvalidation_rentalChanged_leavesGameCaches() {
+        // when
+        invalidationHandler.onInvalidation(
+                new CacheInvalidationEvent("rentals", OperationType.INSERT, "rental-1", new Document()));
+
+        // then
+        verifyNoInteractions(facetIndex, searchCache, catalogVersion);
+    }
+}
@@ -0,0 +1,51 @@
+package com.berrie.gamerental.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CatalogVersionTest {
+
+    private static final Duration MAX_STALENESS = Duration.ofSeconds(90);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final CatalogVersion catalogVersion = new CatalogVersion(MAX_STALENESS, clock::get);
+
+    @Test
+    void recentlyChanged_justStarted_isTrue() {
+        // when & then
+        assertThat(catalogVersion.recentlyChanged()).isTrue();
+    }
+
+    @Test
+    void recentlyChanged_maxStalenessPassedSinceChange_isFalse() {
+        // given
+        catalogVersion.onAfterSave(null);
+
+        // when
+        clock.addAndGet(MAX_STALENESS.toNanos() - 1);
+        boolean withinMaxStaleness = catalogVersion.recentlyChanged();
+        clock.addAndGet(1);
+
+        // then
+        assertThat(withinMaxStaleness).isTrue();
+        assertThat(catalogVersion.recentlyChanged()).isFalse();
+    }
+
+    @Test
+    void advance_afterSettling_isRecentlyChangedAgain() {
+        // given
+        clock.addAndGet(MAX_STALENESS.toNanos());
+        String settledETag = catalogVersion.eTag();
+
+        // when
+        catalogVersion.advance();
+
+        // then
+        assertThat(catalogVersion.recentlyChanged()).isTrue();
+        assertThat(catalogVersion.eTag()).isNotEqualTo(settledETag);
+    }
+}
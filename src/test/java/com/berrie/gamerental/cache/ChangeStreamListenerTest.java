@@ -0,0 +1,81 @@
+package com.berrie.gamerental.cache;
+
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+
+import static com.berrie.gamerental.cache.ChangeStreamListener.toInvalidationEvent;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ChangeStreamListenerTest {
+
+    @Test
+    void toInvalidationEvent_update_carriesIdAndDocument() {
+        // given
+        ObjectId id = new ObjectId();
+        Document game = new Document("_id", id).append("title", "Returnal");
+
+        // when
+        CacheInvalidationEvent event = toInvalidationEvent("games", OperationType.UPDATE,
+                new BsonDocument("_id", new BsonObjectId(id)), game);
+
+        // then
+        assertThat(event.invalidatesAll()).isFalse();
+        assertThat(event.collection()).isEqualTo("games");
+        assertThat(event.documentId()).isEqualTo(id.toHexString());
+        assertThat(event.document()).isEqualTo(game);
+    }
+
+    @Test
+    void toInvalidationEvent_delete_dropsDocument() {
+        // when
+        CacheInvalidationEvent event = toInvalidationEvent("users", OperationType.DELETE,
+                new BsonDocument("_id", new BsonString("user-1")), new Document("username", "berrie.user"));
+
+        // then
+        assertThat(event.operation()).isEqualTo(OperationType.DELETE);
+        assertThat(event.documentId()).isEqualTo("user-1");
+        assertThat(event.document()).isNull();
+    }
+
+    @Test
+    void toInvalidationEvent_collectionDropped_invalidatesAll() {
+        // when
+        CacheInvalidationEvent event = toInvalidationEvent("rentals", OperationType.DROP, null, null);
+
+        // then
+        assertThat(event.invalidatesAll()).isTrue();
+    }
+
+    @Test
+    void publish_listenerFails_invalidatesAll() {
+        // given
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+        doThrow(new IllegalStateException("listener failed")).doNothing()
+                .when(eventPublisher).publishEvent(any(Object.class));
+        ChangeStreamListener listener = new ChangeStreamListener(mock(MongoTemplate.class), eventPublisher, "node-1",
+                Duration.ofSeconds(1), Duration.ofSeconds(5), Duration.ofSeconds(1));
+        CacheInvalidationEvent event = toInvalidationEvent("games", OperationType.DELETE,
+                new BsonDocument("_id", new BsonString("game-1")), null);
+
+        // when
+        listener.publish(event);
+
+        // then
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(2)).publishEvent(captor.capture());
+        assertThat(captor.getAllValues().get(0)).isEqualTo(event);
+        assertThat(((CacheInvalidationEvent) captor.getAllValues().get(1)).invalidatesAll()).isTrue();
+    }
+}
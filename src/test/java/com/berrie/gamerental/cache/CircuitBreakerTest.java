@@ -0,0 +1,78 @@
+package com.berrie.gamerental.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(3, Duration.ofSeconds(10), clock::get);
+
+    @Test
+    void recordFailure_thresholdReached_opens() {
+        // when
+        breaker.recordFailure();
+        breaker.recordFailure();
+        boolean closedBeforeThreshold = breaker.isClosed();
+        breaker.recordFailure();
+
+        // then
+        assertThat(closedBeforeThreshold).isTrue();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void recordSuccess_resetsConsecutiveFailures() {
+        // when
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+
+        // then
+        assertThat(breaker.isClosed()).isTrue();
+    }
+
+    @Test
+    void tryProbe_openDurationPassed_allowsSingleProbe() {
+        // given
+        open();
+
+        // when
+        boolean tooEarly = breaker.tryProbe();
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        boolean first = breaker.tryProbe();
+        boolean second = breaker.tryProbe();
+
+        // then
+        assertThat(tooEarly).isFalse();
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    }
+
+    @Test
+    void recordFailure_probeFails_reopens() {
+        // given
+        open();
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        breaker.tryProbe();
+
+        // when
+        breaker.recordFailure();
+
+        // then
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryProbe()).isFalse();
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.berrie.gamerental.cache;
+
+import com.berrie.gamerental.dto.FacetCounts;
+import com.berrie.gamerental.dto.GameModel;
+import com.berrie.gamerental.dto.GetGamesRequest;
+import com.berrie.gamerental.model.Game;
+import com.berrie.gamerental.model.User;
+import com.berrie.gamerental.model.enums.GameStatus;
+import com.berrie.gamerental.model.enums.Genre;
+import com.berrie.gamerental.model.enums.Platform;
+import com.berrie.gamerental.model.enums.SortBy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.berrie.gamerental.model.enums.GameStatus.AVAILABLE;
+import static com.berrie.gamerental.model.enums.GameStatus.UNAVAILABLE;
+import static com.berrie.gamerental.model.enums.Genre.*;
+import static com.berrie.gamerental.model.enums.Platform.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GameFacetIndexTest {
+
+    private GameFacetIndex facetIndex;
+
+    @BeforeEach
+    void setup() {
+        facetIndex = new GameFacetIndex();
+        facetIndex.rebuild(() -> List.of(
+                buildGame("1", "Uncharted", 15, ADVENTURE, PS5, AVAILABLE),
+                buildGame("2", "Horizon", 8, ADVENTURE, PS4, UNAVAILABLE),
+                buildGame("3", "Skyrim", 3, RPG, PC, AVAILABLE),
+                buildGame("4", "Elden Ring", 20, RPG, PS5, AVAILABLE)));
+    }
+
+    @Test
+    void findGames_withFilters_returnsMatchingGamesInSortOrder() {
+        // given
+        GetGamesRequest request = GetGamesRequest.builder()
+                .sortBy(SortBy.POPULARITY)
+                .platform(PS5)
+                .status(AVAILABLE)
+                .build();
+
+        // when
+        List<GameModel> result = facetIndex.findGames(request);
+
+        // then
+        assertThat(facetIndex.isReady()).isTrue();
+        assertThat(result).extracting(GameModel::getTitle).containsExactly("Elden Ring", "Uncharted");
+    }
+
+    @Test
+    void countFacets_withFilters_countsEachFacetAgainstOtherFilters() {
+        // given
+        GetGamesRequest request = GetGamesRequest.builder()
+                .sortBy(SortBy.TITLE)
+                .genre(ADVENTURE)
+                .status(AVAILABLE)
+                .build();
+
+        // when
+        FacetCounts result = facetIndex.countFacets(request);
+
+        // then
+        assertThat(result.getGenres()).containsEntry(ADVENTURE, 1).containsEntry(RPG, 2).containsEntry(SPORTS, 0);
+        assertThat(result.getPlatforms()).containsEntry(PS5, 1).containsEntry(PS4, 0);
+        assertThat(result.getStatuses()).containsEntry(AVAILABLE, 1).containsEntry(UNAVAILABLE, 1);
+    }
+
+    @Test
+    void upsert_changedStatus_movesGameBetweenBitmaps() {
+        // given
+        Game rented = buildGame("1", "Uncharted", 16, ADVENTURE, PS5, UNAVAILABLE);
+
+        // when
+        facetIndex.upsert(rented);
+
+        // then
+        List<GameModel> result = facetIndex.findGames(GetGamesRequest.builder()
+                .sortBy(SortBy.TITLE)
+                .status(UNAVAILABLE)
+                .build());
+        assertThat(result).extracting(GameModel::getTitle).containsExactly("Horizon", "Uncharted");
+    }
+
+    @Test
+    void remove_existingGame_reusesOrdinalForNextGame() {
+        // given
+        facetIndex.remove("3");
+
+        // when
+        facetIndex.upsert(buildGame("5", "FIFA 23", 1, SPORTS, XBOX_ONE, AVAILABLE));
+
+        // then
+        List<GameModel> result = facetIndex.findGames(GetGamesRequest.builder().sortBy(SortBy.TITLE).build());
+        assertThat(result).extracting(GameModel::getTitle)
+                .containsExactly("Elden Ring", "FIFA 23", "Horizon", "Uncharted");
+        assertThat(facetIndex.countFacets(GetGamesRequest.builder().sortBy(SortBy.TITLE).build()).getGenres())
+                .containsEntry(RPG, 1)
+                .containsEntry(SPORTS, 1);
+    }
+
+    @Test
+    void rebuild_changesWhileCatalogLoads_replaysChangesAfterSwap() {
+        // given
+        List<Game> staleCatalog = List.of(
+                buildGame("1", "Uncharted", 15, ADVENTURE, PS5, AVAILABLE),
+                buildGame("2", "Horizon", 8, ADVENTURE, PS4, UNAVAILABLE));
+
+        // when
+        facetIndex.rebuild(() -> {
+            // written after the catalog was read, before the rebuild swaps it in
+            facetIndex.upsert(buildGame("1", "Uncharted", 16, ADVENTURE, PS5, UNAVAILABLE));
+            facetIndex.remove("2");
+            return staleCatalog;
+        });
+
+        // then
+        List<GameModel> result = facetIndex.findGames(GetGamesRequest.builder().sortBy(SortBy.TITLE).build());
+        assertThat(result).extracting(GameModel::getTitle).containsExactly("Uncharted");
+        assertThat(result).extracting(GameModel::getStatus).containsExactly(UNAVAILABLE);
+    }
+
+    private Game buildGame(String id, String title, Integer numberOfRentals, Genre genre,
+                           Platform platform, GameStatus status) {
+        return Game.builder()
+                .id(id)
+                .title(title)
+                .genre(genre)
+                .platform(platform)
+                .status(status)
+                .numberOfRentals(numberOfRentals)
+                .submittedBy(User.builder()
+                        .username("berrie.user")
+                        .build())
+                .build();
+    }
+}
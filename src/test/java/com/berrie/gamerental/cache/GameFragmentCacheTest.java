@@ -0,0 +1,108 @@
+package com.berrie.gamerental.cache;
+
+import com.berrie.gamerental.dto.CacheStatsResponse;
+import com.berrie.gamerental.dto.GameModel;
+import com.berrie.gamerental.model.Game;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GameFragmentCacheTest {
+
+    private static final String GAME_ID = "640f1a2b3c4d5e6f7a8b9c0d";
+
+    private GameFragmentCache fragmentCache;
+
+    @BeforeEach
+    void setup() {
+        fragmentCache = new GameFragmentCache(new ObjectMapper());
+    }
+
+    @Test
+    void fragmentOf_sameVersion_returnsCachedFragment() throws Exception {
+        // given
+        byte[] first = fragmentCache.fragmentOf(gameModel("Returnal", 1L));
+
+        // when
+        byte[] second = fragmentCache.fragmentOf(gameModel("Returnal", 1L));
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(new String(second, StandardCharsets.UTF_8)).contains("\"title\":\"Returnal\"")
+                .doesNotContain(GAME_ID);
+        CacheStatsResponse stats = fragmentCache.stats();
+        assertThat(stats.getHits()).isEqualTo(1);
+        assertThat(stats.getMisses()).isEqualTo(1);
+        assertThat(stats.getEntries()).isEqualTo(1);
+    }
+
+    @Test
+    void fragmentOf_newVersion_serialisesChangedGame() throws Exception {
+        // given
+        fragmentCache.fragmentOf(gameModel("Returnal", 1L));
+
+        // when
+        byte[] fragment = fragmentCache.fragmentOf(gameModel("Returnal 2", 2L));
+
+        // then
+        assertThat(new String(fragment, StandardCharsets.UTF_8)).contains("\"title\":\"Returnal 2\"");
+        assertThat(fragmentCache.stats().getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    void fragmentOf_olderVersion_keepsLatestFragment() throws Exception {
+        // given
+        fragmentCache.fragmentOf(gameModel("Returnal 2", 2L));
+        fragmentCache.fragmentOf(gameModel("Returnal", 1L));
+
+        // when
+        byte[] fragment = fragmentCache.fragmentOf(gameModel("Returnal 2", 2L));
+
+        // then
+        assertThat(new String(fragment, StandardCharsets.UTF_8)).contains("\"title\":\"Returnal 2\"");
+        assertThat(fragmentCache.stats().getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void fragmentOf_unversionedGame_isNotCached() throws Exception {
+        // given
+        GameModel game = gameModel("Returnal", null);
+
+        // when
+        fragmentCache.fragmentOf(game);
+        fragmentCache.fragmentOf(game);
+
+        // then
+        assertThat(fragmentCache.stats().getEntries()).isZero();
+        assertThat(fragmentCache.stats().getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    void onAfterDelete_deletedGame_evictsFragment() throws Exception {
+        // given
+        fragmentCache.fragmentOf(gameModel("Returnal", 1L));
+
+        // when
+        fragmentCache.onAfterDelete(new AfterDeleteEvent<>(new Document("_id", GAME_ID), Game.class, "games"));
+
+        // then
+        CacheStatsResponse stats = fragmentCache.stats();
+        assertThat(stats.getEntries()).isZero();
+        assertThat(stats.getEvictions()).isEqualTo(1);
+    }
+
+    private static GameModel gameModel(String title, Long version) {
+        return GameModel.builder()
+                .id(GAME_ID)
+                .version(version)
+                .title(title)
+                .submittedBy("berrie.user")
+                .build();
+    }
+}
@@ -0,0 +1,144 @@
+package com.berrie.gamerental.cache;
+
+import com.berrie.gamerental.dto.CacheStatsResponse;
+import com.berrie.gamerental.dto.GameModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SearchResultCacheTest {
+
+    private static final List<GameModel> MATCHES = List.of(GameModel.builder()
+            .title("Horizon Zero Dawn")
+            .submittedBy("berrie.user")
+            .build());
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private SearchResultCache searchCache;
+
+    @BeforeEach
+    void setup() {
+        searchCache = new SearchResultCache(Duration.ofSeconds(60), Duration.ofSeconds(5), 100, nanoTime::get);
+    }
+
+    @Test
+    void keyOf_equivalentTitles_normalisesToSameKey() {
+        // given & when
+        SearchResultCache.Key key1 = SearchResultCache.keyOf("Zero  horizon HORIZON", 10);
+        SearchResultCache.Key key2 = SearchResultCache.keyOf("horizon zero", 10);
+
+        // then
+        assertThat(key1).isEqualTo(key2);
+        assertThat(key1.terms()).containsExactly("horizon", "zero");
+    }
+
+    @Test
+    void get_cachedMatches_returnsMatchesAndCountsHit() {
+        // given
+        SearchResultCache.Key key = SearchResultCache.keyOf("horizon", null);
+        searchCache.put(key, MATCHES, searchCache.generation());
+
+        // when
+        Optional<List<GameModel>> result = searchCache.get(key);
+
+        // then
+        assertThat(result).contains(MATCHES);
+        CacheStatsResponse stats = searchCache.stats();
+        assertThat(stats.getHits()).isEqualTo(1);
+        assertThat(stats.getHitRatio()).isEqualTo(1.0);
+        assertThat(stats.getEstimatedBytes()).isPositive();
+    }
+
+    @Test
+    void get_expiredNegativeEntry_returnsNull() {
+        // given
+        SearchResultCache.Key key = SearchResultCache.keyOf("hogwarts", null);
+        searchCache.put(key, List.of(), searchCache.generation());
+        assertThat(searchCache.get(key)).contains(List.of());
+
+        // when
+        nanoTime.addAndGet(Duration.ofSeconds(6).toNanos());
+
+        // then
+        assertThat(searchCache.get(key)).isEmpty();
+        assertThat(searchCache.stats().getNegativeHits()).isEqualTo(1);
+        assertThat(searchCache.stats().getEntries()).isZero();
+    }
+
+    @Test
+    void invalidate_titleSharingTerm_dropsCachedSearch() {
+        // given
+        SearchResultCache.Key horizon = SearchResultCache.keyOf("horizon", null);
+        SearchResultCache.Key zelda = SearchResultCache.keyOf("zelda", null);
+        searchCache.put(horizon, List.of(), searchCache.generation());
+        searchCache.put(zelda, MATCHES, searchCache.generation());
+
+        // when
+        searchCache.invalidate("Horizon Forbidden West");
+
+        // then
+        assertThat(searchCache.get(horizon)).isEmpty();
+        assertThat(searchCache.get(zelda)).contains(MATCHES);
+        assertThat(searchCache.stats().getEstimatedBytes()).isPositive();
+    }
+
+    @Test
+    void put_invalidatedDuringSearch_doesNotCacheResult() {
+        // given
+        SearchResultCache.Key key = SearchResultCache.keyOf("horizon", null);
+        long generation = searchCache.generation();
+        searchCache.invalidate("Horizon Forbidden West");
+
+        // when
+        searchCache.put(key, List.of(), generation);
+
+        // then
+        assertThat(searchCache.get(key)).isEmpty();
+    }
+
+    @Test
+    void invalidate_titleWithStemmedWord_dropsCachedSearch() {
+        // given
+        SearchResultCache.Key games = SearchResultCache.keyOf("games", null);
+        SearchResultCache.Key pokemon = SearchResultCache.keyOf("pokemon", null);
+        searchCache.put(games, MATCHES, searchCache.generation());
+        searchCache.put(pokemon, MATCHES, searchCache.generation());
+
+        // when
+        searchCache.invalidate("Game X");
+        searchCache.invalidate("Pok\u00e9mon: Legends");
+
+        // then
+        assertThat(searchCache.get(games)).isEmpty();
+        assertThat(searchCache.get(pokemon)).isEmpty();
+    }
+
+    @Test
+    void put_invalidatedWhileInserting_doesNotKeepResult() {
+        // given
+        SearchResultCache.Key key = SearchResultCache.keyOf("horizon", null);
+        AtomicBoolean invalidated = new AtomicBoolean();
+        SearchResultCache[] cache = new SearchResultCache[1];
+        // the clock is read after the generation check, so the invalidation lands in the middle of the put
+        cache[0] = new SearchResultCache(Duration.ofSeconds(60), Duration.ofSeconds(5), 100, () -> {
+            if (invalidated.compareAndSet(false, true)) {
+                cache[0].invalidate("Horizon Forbidden West");
+            }
+            return nanoTime.get();
+        });
+
+        // when
+        cache[0].put(key, MATCHES, cache[0].generation());
+
+        // then
+        assertThat(cache[0].get(key)).isEmpty();
+        assertThat(cache[0].stats().getEntries()).isZero();
+    }
+}
@@ -0,0 +1,232 @@
+package com.berrie.gamerental.cache;
+
+import com.berrie.gamerental.config.RequestDeadlines;
+import com.berrie.gamerental.config.SessionBindingMongoDatabaseFactory;
+import com.berrie.gamerental.dto.CoalescingStatsResponse;
+import com.berrie.gamerental.exception.DeadlineExceededException;
+import com.mongodb.client.ClientSession;
+import org.bson.BsonTimestamp;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SingleFlightTest {
+
+    private final RequestDeadlines requestDeadlines = new RequestDeadlines();
+    private final SessionBindingMongoDatabaseFactory mongoDatabaseFactory =
+            new SessionBindingMongoDatabaseFactory(mock(MongoDatabaseFactory.class));
+    private final CatalogVersion catalogVersion = new CatalogVersion(Duration.ofSeconds(90));
+    private final SingleFlight singleFlight = new SingleFlight(requestDeadlines, mongoDatabaseFactory,
+            catalogVersion, Duration.ofSeconds(2));
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        requestDeadlines.unbind();
+        mongoDatabaseFactory.unbind();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_identicalConcurrentCalls_shareOneLoad() throws Exception {
+        // given
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Future<List<String>> leader = executor.submit(() -> singleFlight.execute("games", () -> {
+            loads.incrementAndGet();
+            leaderStarted.countDown();
+            await(release);
+            return List.of("Halo");
+        }));
+        leaderStarted.await(5, TimeUnit.SECONDS);
+
+        // when
+        Future<List<String>> follower = executor.submit(() -> singleFlight.execute("games", () -> {
+            loads.incrementAndGet();
+            return List.of("Zelda");
+        }));
+        awaitInFlightWaiter();
+        release.countDown();
+
+        // then
+        assertThat(leader.get(5, TimeUnit.SECONDS)).containsExactly("Halo");
+        assertThat(follower.get(5, TimeUnit.SECONDS)).containsExactly("Halo");
+        assertThat(loads).hasValue(1);
+        CoalescingStatsResponse stats = singleFlight.stats();
+        assertThat(stats.getCalls()).isEqualTo(2);
+        assertThat(stats.getCoalesced()).isEqualTo(1);
+        assertThat(stats.getInFlight()).isZero();
+    }
+
+    @Test
+    void execute_leaderFails_followerReceivesFailure() throws Exception {
+        // given
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> singleFlight.execute("games", () -> {
+            leaderStarted.countDown();
+            await(release);
+            throw new IllegalStateException("database down");
+        }));
+        leaderStarted.await(5, TimeUnit.SECONDS);
+
+        // when
+        Future<Object> follower = executor.submit(() -> singleFlight.execute("games", () -> "unused"));
+        awaitInFlightWaiter();
+        release.countDown();
+
+        // then
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("database down");
+    }
+
+    @Test
+    void execute_differentKeys_loadSeparately() {
+        // when
+        String halo = singleFlight.execute("halo", () -> "Halo");
+        String zelda = singleFlight.execute("zelda", () -> "Zelda");
+
+        // then
+        assertThat(halo).isEqualTo("Halo");
+        assertThat(zelda).isEqualTo("Zelda");
+        assertThat(singleFlight.stats().getCoalesced()).isZero();
+    }
+
+    @Test
+    void execute_followerDeadlinePasses_throwsDeadlineExceeded() throws Exception {
+        // given
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> singleFlight.execute("games", () -> {
+            leaderStarted.countDown();
+            await(release);
+            return "Halo";
+        }));
+        leaderStarted.await(5, TimeUnit.SECONDS);
+        requestDeadlines.bind(Duration.ofMillis(50));
+
+        // when & then
+        assertThatThrownBy(() -> singleFlight.execute("games", () -> "unused"))
+                .isInstanceOf(DeadlineExceededException.class);
+        release.countDown();
+    }
+
+    @Test
+    void execute_leader_loadsUnderSharedDeadlineWithoutSession() {
+        // given
+        ClientSession session = mock(ClientSession.class);
+        mongoDatabaseFactory.bind(session);
+        requestDeadlines.bind(Duration.ofMillis(100));
+        AtomicLong loadBudget = new AtomicLong();
+        AtomicReference<ClientSession> loadSession = new AtomicReference<>(session);
+
+        // when
+        singleFlight.execute("games", () -> {
+            loadBudget.set(requestDeadlines.remainingMillis().getAsLong());
+            loadSession.set(mongoDatabaseFactory.boundSession());
+            return "Halo";
+        });
+
+        // then
+        assertThat(loadBudget.get()).isGreaterThan(100);
+        assertThat(loadSession.get()).isNull();
+        assertThat(mongoDatabaseFactory.boundSession()).isSameAs(session);
+        assertThat(requestDeadlines.remainingMillis().getAsLong()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void execute_sessionHasCausalPosition_loadsWithoutCoalescing() throws Exception {
+        // given
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> singleFlight.execute("games", () -> {
+            leaderStarted.countDown();
+            await(release);
+            return "Halo";
+        }));
+        leaderStarted.await(5, TimeUnit.SECONDS);
+        ClientSession session = mock(ClientSession.class);
+        when(session.getOperationTime()).thenReturn(new BsonTimestamp(1, 1));
+        mongoDatabaseFactory.bind(session);
+
+        // when
+        String games = singleFlight.execute("games", () -> "Zelda");
+        release.countDown();
+
+        // then
+        assertThat(games).isEqualTo("Zelda");
+        assertThat(singleFlight.stats().getCoalesced()).isZero();
+    }
+
+    @Test
+    void execute_leaderDeadlinePassesDuringSharedLoad_throwsDeadlineExceeded() {
+        // given
+        requestDeadlines.bind(Duration.ofMillis(20));
+
+        // when & then
+        assertThatThrownBy(() -> singleFlight.execute("games", () -> {
+            await(new CountDownLatch(1), 100);
+            return "Halo";
+        })).isInstanceOf(DeadlineExceededException.class);
+    }
+
+    @Test
+    void execute_catalogChangedSinceLeaderStarted_loadsAgain() throws Exception {
+        // given
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.execute("games", () -> {
+            leaderStarted.countDown();
+            await(release);
+            return "Halo";
+        }));
+        leaderStarted.await(5, TimeUnit.SECONDS);
+        catalogVersion.advance();
+
+        // when
+        String games = singleFlight.execute("games", () -> "Halo 2");
+        release.countDown();
+
+        // then
+        assertThat(games).isEqualTo("Halo 2");
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("Halo");
+        assertThat(singleFlight.stats().getCoalesced()).isZero();
+    }
+
+    private void awaitInFlightWaiter() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.stats().getCoalesced() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        await(latch, TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private static void await(CountDownLatch latch, long timeoutMillis) {
+        try {
+            latch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.berrie.gamerental.cache;
+
+import com.berrie.gamerental.config.RequestDeadlines;
+import com.berrie.gamerental.exception.CatalogUnavailableException;
+import com.berrie.gamerental.exception.NoGamesFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class StaleWhileRevalidateCacheTest {
+
+    private static final String KEY = "games";
+    private static final Supplier<List<String>> TIMES_OUT = () -> {
+        throw new QueryTimeoutException("operation exceeded time limit");
+    };
+    private static final Supplier<List<String>> UNREACHABLE = () -> {
+        throw new DataAccessResourceFailureException("no server available");
+    };
+
+    private final AtomicLong clock = new AtomicLong();
+    private final StaleWhileRevalidateCache cache = new StaleWhileRevalidateCache(new RequestDeadlines(),
+            Duration.ofMinutes(10), 10, 2, Duration.ofSeconds(30), Duration.ofSeconds(2), clock::get);
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void get_databaseHealthy_returnsFreshValue() {
+        // when
+        StaleWhileRevalidateCache.Served<List<String>> served = cache.get(KEY, () -> List.of("Halo"));
+
+        // then
+        assertThat(served.value()).containsExactly("Halo");
+        assertThat(served.stale()).isFalse();
+    }
+
+    @Test
+    void get_databaseTimesOut_returnsLastGoodValueWithAge() {
+        // given
+        cache.get(KEY, () -> List.of("Halo"));
+        clock.addAndGet(Duration.ofSeconds(42).toNanos());
+
+        // when
+        StaleWhileRevalidateCache.Served<List<String>> served = cache.get(KEY, TIMES_OUT);
+
+        // then
+        assertThat(served.value()).containsExactly("Halo");
+        assertThat(served.stale()).isTrue();
+        assertThat(served.ageSeconds()).isEqualTo(42);
+    }
+
+    @Test
+    void get_databaseTimesOutWithoutLastGoodValue_rethrows() {
+        // when & then
+        assertThatThrownBy(() -> cache.get(KEY, TIMES_OUT)).isInstanceOf(QueryTimeoutException.class);
+    }
+
+    @Test
+    void get_lastGoodValueTooOld_rethrows() {
+        // given
+        cache.get(KEY, () -> List.of("Halo"));
+        clock.addAndGet(Duration.ofMinutes(11).toNanos());
+
+        // when & then
+        assertThatThrownBy(() -> cache.get(KEY, TIMES_OUT)).isInstanceOf(QueryTimeoutException.class);
+    }
+
+    @Test
+    void get_breakerOpen_servesLastGoodValueWithoutCallingDatabase() {
+        // given
+        cache.get(KEY, () -> List.of("Halo"));
+        cache.get(KEY, UNREACHABLE);
+        cache.get(KEY, UNREACHABLE);
+        assertThat(cache.breakerState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        // when
+        StaleWhileRevalidateCache.Served<List<String>> served = cache.get(KEY, () -> {
+            throw new AssertionError("the database must not be called while the breaker is open");
+        });
+
+        // then
+        assertThat(served.value()).containsExactly("Halo");
+        assertThat(served.stale()).isTrue();
+    }
+
+    @Test
+    void get_breakerOpenWithoutLastGoodValue_throwsCatalogUnavailableException() {
+        // given
+        assertThatThrownBy(() -> cache.get(KEY, UNREACHABLE)).isInstanceOf(DataAccessResourceFailureException.class);
+        assertThatThrownBy(() -> cache.get(KEY, UNREACHABLE)).isInstanceOf(DataAccessResourceFailureException.class);
+
+        // when & then
+        assertThatThrownBy(() -> cache.get(KEY, UNREACHABLE)).isInstanceOf(CatalogUnavailableException.class);
+    }
+
+    @Test
+    void get_requestRunsOutOfItsDeadline_doesNotCountAsFailure() {
+        // given
+        cache.get(KEY, () -> List.of("Halo"));
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            assertThat(cache.get(KEY, TIMES_OUT).stale()).isTrue();
+        }
+
+        // then
+        assertThat(cache.breakerState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void get_loaderRejectsAnswer_doesNotCountAsFailure() {
+        // given
+        Supplier<List<String>> empty = () -> {
+            throw new NoGamesFoundException("out of stock");
+        };
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> cache.get(KEY, empty)).isInstanceOf(NoGamesFoundException.class);
+        }
+
+        // then
+        assertThat(cache.breakerState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void get_cacheFull_evictsResponseLoadedLongestAgo() {
+        // given
+        for (int i = 0; i < 10; i++) {
+            cache.get("games-" + i, () -> List.of("Halo"));
+            clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        }
+
+        // when
+        cache.get(KEY, () -> List.of("Returnal"));
+
+        // then
+        assertThatThrownBy(() -> cache.get("games-0", TIMES_OUT)).isInstanceOf(QueryTimeoutException.class);
+        assertThat(cache.get("games-1", TIMES_OUT).stale()).isTrue();
+        assertThat(cache.get(KEY, TIMES_OUT).value()).containsExactly("Returnal");
+    }
+}
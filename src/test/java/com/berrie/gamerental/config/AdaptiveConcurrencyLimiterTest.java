@@ -0,0 +1,141 @@
+package com.berrie.gamerental.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final Duration MAX_LATENCY = Duration.ofMillis(100);
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofMillis(500).toNanos();
+
+    @Test
+    void tryAcquire_limitReached_rejectsRequest() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("catalog", 2, 1, 10, MAX_LATENCY);
+
+        // when
+        boolean first = limiter.tryAcquire();
+        boolean second = limiter.tryAcquire();
+        boolean third = limiter.tryAcquire();
+
+        // then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(limiter.inFlight()).isEqualTo(2);
+        assertThat(limiter.rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void release_slowRequest_decreasesLimit() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("catalog", 20, 1, 100, MAX_LATENCY);
+        limiter.tryAcquire();
+
+        // when
+        limiter.release(0, SLOW, false);
+
+        // then
+        assertThat(limiter.limit()).isEqualTo(18);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void release_failedRequest_decreasesLimitNoLowerThanMinimum() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("catalog", 4, 4, 100, MAX_LATENCY);
+        limiter.tryAcquire();
+
+        // when
+        limiter.release(0, FAST, true);
+
+        // then
+        assertThat(limiter.limit()).isEqualTo(4);
+    }
+
+    @Test
+    void release_fastRequestsAtTheLimit_increasesLimitByAboutOnePerRound() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("catalog", 4, 1, 100, MAX_LATENCY);
+
+        // when
+        for (int round = 0; round < 2; round++) {
+            int limit = limiter.limit();
+            for (int i = 0; i < limit; i++) {
+                limiter.tryAcquire();
+            }
+            for (int i = 0; i < limit; i++) {
+                limiter.release(0, FAST, false);
+            }
+        }
+
+        // then
+        assertThat(limiter.limit()).isEqualTo(5);
+    }
+
+    @Test
+    void release_fastRequestWellUnderTheLimit_keepsLimit() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("catalog", 10, 1, 100, MAX_LATENCY);
+
+        // when
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(0, FAST, false);
+        }
+
+        // then
+        assertThat(limiter.limit()).isEqualTo(10);
+    }
+
+    @Test
+    void release_slowRequestsInFlightTogether_decreaseLimitOnce() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("catalog", 20, 1, 100, MAX_LATENCY);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire();
+        }
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            limiter.release(0, SLOW + i, false);
+        }
+
+        // then
+        assertThat(limiter.limit()).isEqualTo(18);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void release_slowRequestAdmittedAfterLastDecrease_decreasesLimitAgain() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("catalog", 20, 1, 100, MAX_LATENCY);
+        limiter.tryAcquire();
+        limiter.release(0, SLOW, false);
+        limiter.tryAcquire();
+
+        // when
+        limiter.release(SLOW + 1, 2 * SLOW + 1, false);
+
+        // then
+        assertThat(limiter.limit()).isEqualTo(16);
+    }
+
+    @Test
+    void releaseWithoutSample_keepsLimit() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("catalog", 20, 1, 100, MAX_LATENCY);
+        limiter.tryAcquire();
+
+        // when
+        limiter.releaseWithoutSample();
+
+        // then
+        assertThat(limiter.limit()).isEqualTo(20);
+        assertThat(limiter.inFlight()).isZero();
+    }
+}
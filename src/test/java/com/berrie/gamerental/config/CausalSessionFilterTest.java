@@ -0,0 +1,159 @@
+package com.berrie.gamerental.config;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.client.ClientSession;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.bson.BsonDocument;
+import org.bson.BsonInt64;
+import org.bson.BsonTimestamp;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+
+import static com.berrie.gamerental.config.CausalSessionFilter.CAUSAL_TOKEN_HEADER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CausalSessionFilterTest {
+
+    private static final String USERNAME = "berrie.user";
+    private static final BsonDocument CLUSTER_TIME = new BsonDocument("clusterTime", new BsonTimestamp(42, 1))
+            .append("signature", new BsonDocument("keyId", new BsonInt64(7)));
+    private static final BsonTimestamp OPERATION_TIME = new BsonTimestamp(42, 1);
+
+    @Mock
+    private SessionBindingMongoDatabaseFactory mongoDatabaseFactory;
+    @Mock
+    private ClientSession session;
+    @Mock
+    private FilterChain filterChain;
+    private CausalSessionFilter causalSessionFilter;
+
+    @BeforeEach
+    void setup() {
+        causalSessionFilter = new CausalSessionFilter(mongoDatabaseFactory);
+        SecurityContextHolder.clearContext();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilterInternal_unauthenticated_runsWithoutSession() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/games");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        causalSessionFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verify(filterChain).doFilter(request, response);
+        verifyNoInteractions(mongoDatabaseFactory);
+    }
+
+    @Test
+    void doFilterInternal_authenticatedWrite_bindsSessionAndReturnsToken() throws Exception {
+        // given
+        authenticate();
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/games/rent");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(mongoDatabaseFactory.getSession(any(ClientSessionOptions.class))).thenReturn(session);
+        when(session.getClusterTime()).thenReturn(CLUSTER_TIME);
+        when(session.getOperationTime()).thenReturn(OPERATION_TIME);
+
+        // when
+        causalSessionFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        InOrder inOrder = inOrder(mongoDatabaseFactory, filterChain, session);
+        inOrder.verify(mongoDatabaseFactory).bind(session);
+        inOrder.verify(filterChain).doFilter(eq(request), any());
+        inOrder.verify(mongoDatabaseFactory).unbind();
+        inOrder.verify(session).close();
+        assertThat(response.getHeader(CAUSAL_TOKEN_HEADER)).isEqualTo(CausalSessionFilter.tokenOf(session));
+    }
+
+    @Test
+    void doFilterInternal_responseCommittedByWrite_returnsTokenBeforeBody() throws Exception {
+        // given
+        authenticate();
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/games/rent");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(mongoDatabaseFactory.getSession(any(ClientSessionOptions.class))).thenReturn(session);
+        when(session.getClusterTime()).thenReturn(CLUSTER_TIME);
+        when(session.getOperationTime()).thenReturn(OPERATION_TIME);
+        doAnswer(invocation -> {
+            HttpServletResponse chainResponse = invocation.getArgument(1);
+            chainResponse.getWriter().write("{}");
+            chainResponse.flushBuffer();
+            return null;
+        }).when(filterChain).doFilter(any(), any());
+
+        // when
+        causalSessionFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        assertThat(response.isCommitted()).isTrue();
+        assertThat(response.getHeader(CAUSAL_TOKEN_HEADER)).isNotBlank();
+    }
+
+    @Test
+    void doFilterInternal_readWithToken_advancesSessionPastWrite() throws Exception {
+        // given
+        authenticate();
+        ClientSession readSession = mock(ClientSession.class);
+        when(session.getClusterTime()).thenReturn(CLUSTER_TIME);
+        when(session.getOperationTime()).thenReturn(OPERATION_TIME);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/rentals");
+        request.addHeader(CAUSAL_TOKEN_HEADER, CausalSessionFilter.tokenOf(session));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(mongoDatabaseFactory.getSession(any(ClientSessionOptions.class))).thenReturn(readSession);
+
+        // when
+        causalSessionFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verify(readSession).advanceClusterTime(CLUSTER_TIME);
+        verify(readSession).advanceOperationTime(OPERATION_TIME);
+        assertThat(response.getHeader(CAUSAL_TOKEN_HEADER)).isNull();
+    }
+
+    @Test
+    void doFilterInternal_malformedToken_ignoresIt() throws Exception {
+        // given
+        authenticate();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/rentals");
+        request.addHeader(CAUSAL_TOKEN_HEADER, "not a token!");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(mongoDatabaseFactory.getSession(any(ClientSessionOptions.class))).thenReturn(session);
+
+        // when
+        causalSessionFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verify(session, never()).advanceClusterTime(any());
+        verify(filterChain).doFilter(request, response);
+    }
+
+    private void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(USERNAME, null, Collections.emptyList()));
+    }
+}
@@ -0,0 +1,27 @@
+package com.berrie.gamerental.config;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+
+import java.time.Duration;
+
+class CommandEvents {
+
+    private static final String DATABASE = "game-rental";
+    private static final ConnectionDescription CONNECTION =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    public static CommandStartedEvent started(int requestId, BsonDocument command) {
+        return new CommandStartedEvent(null, requestId, CONNECTION, DATABASE, command.getFirstKey(), command);
+    }
+
+    public static CommandSucceededEvent succeeded(int requestId, String commandName, Duration elapsed) {
+        return new CommandSucceededEvent(null, requestId, CONNECTION, commandName,
+                BsonDocument.parse("{ok: 1}"), elapsed.toNanos());
+    }
+}
@@ -0,0 +1,162 @@
+package com.berrie.gamerental.config;
+
+import com.berrie.gamerental.dto.ConcurrencyLimitStats;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+public class ConcurrencyLimitFilterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final RequestDeadlines requestDeadlines = new RequestDeadlines(clock::get);
+    private AdaptiveConcurrencyLimiter catalogLimiter;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setup() {
+        Duration maxLatency = Duration.ofMillis(100);
+        catalogLimiter = new AdaptiveConcurrencyLimiter("catalog", 10, 1, 100, maxLatency);
+        filter = new ConcurrencyLimitFilter(
+                new AdaptiveConcurrencyLimiter("auth", 10, 1, 100, maxLatency),
+                catalogLimiter,
+                new AdaptiveConcurrencyLimiter("rental", 10, 1, 100, maxLatency),
+                requestDeadlines, clock::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        requestDeadlines.unbind();
+    }
+
+    @Test
+    void doFilter_underTheLimit_passesRequestOn() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/games");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain filterChain = mock(FilterChain.class);
+
+        // when
+        filter.doFilter(request, response, filterChain);
+
+        // then
+        verify(filterChain).doFilter(request, response);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(catalogLimiter.inFlight()).isZero();
+    }
+
+    @Test
+    void doFilter_limitReached_rejectsWithServiceUnavailable() throws Exception {
+        // given
+        for (int i = 0; i < 10; i++) {
+            catalogLimiter.tryAcquire();
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/games/search");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain filterChain = mock(FilterChain.class);
+
+        // when
+        filter.doFilter(request, response, filterChain);
+
+        // then
+        verifyNoInteractions(filterChain);
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(filter.stats())
+                .filteredOn(stats -> stats.getName().equals("catalog"))
+                .extracting(ConcurrencyLimitStats::getRejected)
+                .containsExactly(1L);
+    }
+
+    @Test
+    void doFilter_slowRequest_lowersLimit() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/games");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain filterChain = (req, res) -> clock.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        // when
+        filter.doFilter(request, response, filterChain);
+
+        // then
+        assertThat(catalogLimiter.limit()).isEqualTo(9);
+    }
+
+    @Test
+    void doFilter_requestThrows_releasesAndLowersLimit() {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/games");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain filterChain = (req, res) -> {
+            throw new ServletException("database unavailable");
+        };
+
+        // when & then
+        assertThatThrownBy(() -> filter.doFilter(request, response, filterChain))
+                .isInstanceOf(ServletException.class);
+        assertThat(catalogLimiter.inFlight()).isZero();
+        assertThat(catalogLimiter.limit()).isEqualTo(9);
+    }
+
+    @Test
+    void doFilter_deadlineExceeded_keepsLimit() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/games");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain filterChain = (req, res) -> {
+            clock.addAndGet(Duration.ofSeconds(1).toNanos());
+            response.setStatus(504);
+        };
+
+        // when
+        filter.doFilter(request, response, filterChain);
+
+        // then
+        assertThat(catalogLimiter.inFlight()).isZero();
+        assertThat(catalogLimiter.limit()).isEqualTo(10);
+    }
+
+    @Test
+    void doFilter_staleResponseAfterDeadline_keepsLimit() throws Exception {
+        // given
+        requestDeadlines.bind(Duration.ofMillis(500));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/games");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain filterChain = (req, res) -> clock.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        // when
+        filter.doFilter(request, response, filterChain);
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(catalogLimiter.inFlight()).isZero();
+        assertThat(catalogLimiter.limit()).isEqualTo(10);
+    }
+
+    @Test
+    void doFilter_availabilityStream_isNotLimited() throws Exception {
+        // given
+        for (int i = 0; i < 10; i++) {
+            catalogLimiter.tryAcquire();
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/games/availability/stream");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain filterChain = mock(FilterChain.class);
+
+        // when
+        filter.doFilter(request, response, filterChain);
+
+        // then
+        verify(filterChain).doFilter(request, response);
+    }
+}
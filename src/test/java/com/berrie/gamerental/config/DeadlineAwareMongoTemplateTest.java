@@ -0,0 +1,168 @@
+package com.berrie.gamerental.config;
+
+import com.berrie.gamerental.exception.DeadlineExceededException;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.CountOptions;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DeadlineAwareMongoTemplateTest {
+
+    private static final Bson FILTER = new Document("title", "Halo");
+
+    @Mock
+    private MongoDatabaseFactory mongoDatabaseFactory;
+    @Mock
+    private MongoCollection<Document> collection;
+    @Mock
+    private FindIterable<Document> findIterable;
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private RequestDeadlines requestDeadlines;
+    private DeadlineAwareMongoTemplate template;
+    private MongoCollection<Document> deadlineCollection;
+
+    @BeforeEach
+    void setup() {
+        requestDeadlines = new RequestDeadlines(now::get);
+        template = new DeadlineAwareMongoTemplate(mongoDatabaseFactory,
+                new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()), requestDeadlines);
+        deadlineCollection = template.withDeadline(collection);
+    }
+
+    @AfterEach
+    void tearDown() {
+        requestDeadlines.unbind();
+    }
+
+    @Test
+    void find_deadlineBound_appliesRemainingBudgetAsMaxTime() {
+        // given
+        requestDeadlines.bind(Duration.ofSeconds(2));
+        now.addAndGet(Duration.ofMillis(500).toNanos());
+        when(collection.find(FILTER)).thenReturn(findIterable);
+
+        // when
+        FindIterable<Document> result = deadlineCollection.find(FILTER);
+
+        // then
+        assertThat(result).isSameAs(findIterable);
+        verify(findIterable).maxTime(1500, MILLISECONDS);
+    }
+
+    @Test
+    void countDocuments_deadlineBound_appliesRemainingBudgetToOptions() {
+        // given
+        requestDeadlines.bind(Duration.ofMillis(750));
+        CountOptions options = new CountOptions();
+        when(collection.countDocuments(FILTER, options)).thenReturn(3L);
+
+        // when
+        long count = deadlineCollection.countDocuments(FILTER, options);
+
+        // then
+        assertThat(count).isEqualTo(3L);
+        assertThat(options.getMaxTime(MILLISECONDS)).isEqualTo(750L);
+    }
+
+    @Test
+    void find_noDeadlineBound_leavesMaxTimeUnset() {
+        // given
+        when(collection.find(FILTER)).thenReturn(findIterable);
+
+        // when
+        deadlineCollection.find(FILTER);
+
+        // then
+        verify(findIterable, never()).maxTime(anyLong(), any());
+    }
+
+    @Test
+    void insertOne_deadlinePassed_throwsWithoutReachingDatabase() {
+        // given
+        requestDeadlines.bind(Duration.ofMillis(100));
+        now.addAndGet(Duration.ofMillis(100).toNanos());
+
+        // when & then
+        assertThatThrownBy(() -> deadlineCollection.insertOne(new Document()))
+                .isInstanceOf(DeadlineExceededException.class);
+        verifyNoInteractions(collection);
+    }
+
+    @Test
+    void withWriteConcern_derivedCollection_keepsDeadline() {
+        // given
+        @SuppressWarnings("unchecked")
+        MongoCollection<Document> derived = mock(MongoCollection.class);
+        when(collection.withWriteConcern(any())).thenReturn(derived);
+        when(derived.find(FILTER)).thenReturn(findIterable);
+        requestDeadlines.bind(Duration.ofSeconds(1));
+
+        // when
+        deadlineCollection.withWriteConcern(WriteConcern.MAJORITY).find(FILTER);
+
+        // then
+        verify(findIterable).maxTime(1000, MILLISECONDS);
+    }
+
+    @Test
+    void prepareCollection_primaryReadConditionHolds_readsFromPrimary() {
+        // given
+        template.setPrimaryReadCondition(() -> true);
+        @SuppressWarnings("unchecked")
+        MongoCollection<Document> primary = mock(MongoCollection.class);
+        when(collection.withReadPreference(ReadPreference.primary())).thenReturn(primary);
+        when(primary.find(FILTER)).thenReturn(findIterable);
+
+        // when
+        FindIterable<Document> result = template.prepareCollection(collection).find(FILTER);
+
+        // then
+        assertThat(result).isSameAs(findIterable);
+    }
+
+    @Test
+    void prepareCollection_noDeadlineBound_returnsCollectionUnwrapped() {
+        // when
+        MongoCollection<Document> prepared = template.prepareCollection(collection);
+
+        // then
+        assertThat(prepared).isSameAs(collection);
+    }
+
+    @Test
+    void prepareCollection_deadlineBound_appliesRemainingBudget() {
+        // given
+        requestDeadlines.bind(Duration.ofMillis(400));
+        when(collection.find(FILTER)).thenReturn(findIterable);
+
+        // when
+        template.prepareCollection(collection).find(FILTER);
+
+        // then
+        verify(findIterable).maxTime(400, MILLISECONDS);
+    }
+}
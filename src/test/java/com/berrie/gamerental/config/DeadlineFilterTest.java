@@ -0,0 +1,134 @@
+package com.berrie.gamerental.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DeadlineFilterTest {
+
+    @Mock
+    private RequestDeadlines requestDeadlines;
+    @Mock
+    private HttpServletRequest request;
+    @Mock
+    private HttpServletResponse response;
+    @Mock
+    private FilterChain filterChain;
+    private DeadlineFilter deadlineFilter;
+
+    @BeforeEach
+    void setup() {
+        deadlineFilter = new DeadlineFilter(requestDeadlines, Duration.ofSeconds(3), Duration.ofSeconds(2),
+                Duration.ofSeconds(8), Duration.ofMillis(100));
+    }
+
+    @Test
+    void doFilterInternal_catalogRequest_bindsCatalogDeadlineAroundChain() throws Exception {
+        // given
+        when(request.getRequestURI()).thenReturn("/api/games");
+
+        // when
+        deadlineFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        InOrder inOrder = inOrder(requestDeadlines, filterChain);
+        inOrder.verify(requestDeadlines).bind(Duration.ofSeconds(2));
+        inOrder.verify(filterChain).doFilter(request, response);
+        inOrder.verify(requestDeadlines).unbind();
+    }
+
+    @Test
+    void doFilterInternal_lowerClientTimeout_bindsClientTimeout() throws Exception {
+        // given
+        when(request.getRequestURI()).thenReturn("/api/rentals/rent");
+        when(request.getHeader(DeadlineFilter.TIMEOUT_HEADER)).thenReturn("500");
+
+        // when
+        deadlineFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verify(requestDeadlines).bind(Duration.ofMillis(500));
+    }
+
+    @Test
+    void doFilterInternal_higherClientTimeout_keepsEndpointDeadline() throws Exception {
+        // given
+        when(request.getRequestURI()).thenReturn("/api/auth/authenticate");
+        when(request.getHeader(DeadlineFilter.TIMEOUT_HEADER)).thenReturn("60000");
+
+        // when
+        deadlineFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verify(requestDeadlines).bind(Duration.ofSeconds(3));
+    }
+
+    @Test
+    void doFilterInternal_clientTimeoutBelowFloor_bindsFloor() throws Exception {
+        // given
+        when(request.getRequestURI()).thenReturn("/api/games");
+        when(request.getHeader(DeadlineFilter.TIMEOUT_HEADER)).thenReturn("1");
+
+        // when
+        deadlineFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verify(requestDeadlines).bind(Duration.ofMillis(100));
+    }
+
+    @Test
+    void doFilterInternal_malformedClientTimeout_keepsEndpointDeadline() throws Exception {
+        // given
+        when(request.getRequestURI()).thenReturn("/api/games");
+        when(request.getHeader(DeadlineFilter.TIMEOUT_HEADER)).thenReturn("soon");
+
+        // when
+        deadlineFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verify(requestDeadlines).bind(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void doFilterInternal_chainThrows_unbindsDeadline() throws Exception {
+        // given
+        when(request.getRequestURI()).thenReturn("/api/games");
+        doThrow(new IllegalStateException("boom")).when(filterChain).doFilter(request, response);
+
+        // when
+        assertThatThrownBy(() -> deadlineFilter.doFilterInternal(request, response, filterChain))
+                .isInstanceOf(IllegalStateException.class);
+
+        // then
+        verify(requestDeadlines).unbind();
+    }
+
+    @Test
+    void shouldNotFilter_availabilityStreamAndUnknownPaths_areSkipped() {
+        // given
+        when(request.getRequestURI()).thenReturn("/api/games/availability/stream", "/actuator/health", "/api/games");
+
+        // when
+        boolean stream = deadlineFilter.shouldNotFilter(request);
+        boolean unknown = deadlineFilter.shouldNotFilter(request);
+        boolean catalog = deadlineFilter.shouldNotFilter(request);
+
+        // then
+        assertThat(stream).isTrue();
+        assertThat(unknown).isTrue();
+        assertThat(catalog).isFalse();
+    }
+}
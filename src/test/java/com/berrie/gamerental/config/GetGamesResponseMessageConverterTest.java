@@ -0,0 +1,101 @@
+package com.berrie.gamerental.config;
+
+import com.berrie.gamerental.cache.GameFragmentCache;
+import com.berrie.gamerental.dto.FacetCounts;
+import com.berrie.gamerental.dto.GameModel;
+import com.berrie.gamerental.dto.GetGamesResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.berrie.gamerental.model.enums.GameStatus.AVAILABLE;
+import static com.berrie.gamerental.model.enums.Genre.ADVENTURE;
+import static com.berrie.gamerental.model.enums.Platform.PS5;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+public class GetGamesResponseMessageConverterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private GetGamesResponseMessageConverter converter;
+
+    @BeforeEach
+    void setup() {
+        converter = new GetGamesResponseMessageConverter(new GameFragmentCache(objectMapper), objectMapper);
+    }
+
+    @Test
+    void write_gamesAndFacets_matchesJackson() throws Exception {
+        // given
+        GetGamesResponse response = GetGamesResponse.builder()
+                .games(List.of(gameModel("1", "Uncharted", 15), gameModel("2", "Horizon \"Zero\" Dawn", 8)))
+                .facets(FacetCounts.builder()
+                        .genres(Map.of(ADVENTURE, 2))
+                        .platforms(Map.of(PS5, 2))
+                        .statuses(Map.of(AVAILABLE, 2))
+                        .build())
+                .build();
+
+        // when & then
+        assertThat(write(response)).isEqualTo(objectMapper.writeValueAsString(response));
+        assertThat(write(response)).isEqualTo(objectMapper.writeValueAsString(response));
+    }
+
+    @Test
+    void write_withoutFacets_omitsFacets() throws Exception {
+        // given
+        GetGamesResponse response = GetGamesResponse.builder()
+                .games(List.of(gameModel("1", "Uncharted", 15)))
+                .build();
+
+        // when
+        String json = write(response);
+
+        // then
+        assertThat(json).isEqualTo(objectMapper.writeValueAsString(response));
+        assertThat(json).doesNotContain("facets");
+    }
+
+    @Test
+    void write_emptyAndNullGames_matchesJackson() throws Exception {
+        // given
+        GetGamesResponse empty = GetGamesResponse.builder().games(List.of()).build();
+        GetGamesResponse missing = new GetGamesResponse();
+
+        // when & then
+        assertThat(write(empty)).isEqualTo(objectMapper.writeValueAsString(empty));
+        assertThat(write(missing)).isEqualTo(objectMapper.writeValueAsString(missing));
+    }
+
+    @Test
+    void canRead_getGamesResponse_isWriteOnly() {
+        // given & when & then
+        assertThat(converter.canRead(GetGamesResponse.class, APPLICATION_JSON)).isFalse();
+        assertThat(converter.canWrite(GetGamesResponse.class, APPLICATION_JSON)).isTrue();
+        assertThat(converter.canWrite(GameModel.class, APPLICATION_JSON)).isFalse();
+    }
+
+    private String write(GetGamesResponse response) throws Exception {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(response, APPLICATION_JSON, outputMessage);
+        return outputMessage.getBodyAsString();
+    }
+
+    private static GameModel gameModel(String id, String title, int numberOfRentals) {
+        return GameModel.builder()
+                .id(id)
+                .version(1L)
+                .title(title)
+                .genre(ADVENTURE)
+                .platform(PS5)
+                .status(AVAILABLE)
+                .numberOfRentals(numberOfRentals)
+                .submittedBy("berrie.user")
+                .build();
+    }
+}
@@ -0,0 +1,116 @@
+package com.berrie.gamerental.config;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class RateLimitFilterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1));
+    private TokenBucketRateLimiter authLimiter;
+    private TokenBucketRateLimiter searchLimiter;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setup() {
+        authLimiter = new TokenBucketRateLimiter("auth", 0.5, 1, 100, clock::get);
+        searchLimiter = new TokenBucketRateLimiter("search", 1, 1, 100, clock::get);
+        filter = new RateLimitFilter(authLimiter, searchLimiter,
+                new TokenBucketRateLimiter("api", 10, 10, 100, clock::get));
+        SecurityContextHolder.clearContext();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_underTheLimit_passesRequestOn() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/games");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain filterChain = mock(FilterChain.class);
+
+        // when
+        filter.doFilter(request, response, filterChain);
+
+        // then
+        verify(filterChain).doFilter(request, response);
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void doFilter_anonymousAuthOverLimit_rejectsWithTooManyRequests() throws Exception {
+        // given
+        FilterChain filterChain = mock(FilterChain.class);
+        filter.doFilter(authRequest("10.0.0.1"), new MockHttpServletResponse(), filterChain);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(authRequest("10.0.0.1"), response, filterChain);
+
+        // then
+        verify(filterChain, times(1)).doFilter(any(), any());
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(authLimiter.rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void doFilter_anonymousAuthFromAnotherAddress_isCountedSeparately() throws Exception {
+        // given
+        FilterChain filterChain = mock(FilterChain.class);
+        filter.doFilter(authRequest("10.0.0.1"), new MockHttpServletResponse(), filterChain);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(authRequest("10.0.0.2"), response, filterChain);
+
+        // then
+        verify(filterChain, times(2)).doFilter(any(), any());
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void doFilter_authenticatedSearchOverLimit_isCountedAgainstUser() throws Exception {
+        // given
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("berrie.user", null, Collections.emptyList()));
+        FilterChain filterChain = mock(FilterChain.class);
+        filter.doFilter(searchRequest("10.0.0.1"), new MockHttpServletResponse(), filterChain);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(searchRequest("10.0.0.2"), response, filterChain);
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(searchLimiter.rejected()).isEqualTo(1);
+    }
+
+    private static MockHttpServletRequest authRequest(String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/authenticate");
+        request.setRemoteAddr(address);
+        return request;
+    }
+
+    private static MockHttpServletRequest searchRequest(String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/games/search");
+        request.setRemoteAddr(address);
+        return request;
+    }
+}
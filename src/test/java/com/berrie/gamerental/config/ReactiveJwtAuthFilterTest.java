@@ -0,0 +1,104 @@
+package com.berrie.gamerental.config;
+
+import com.berrie.gamerental.service.JwtAuthService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveJwtAuthFilterTest {
+
+    private static final String AUTH_HEADER_NAME = "Authorization";
+    private static final String USERNAME = "berrie.user";
+    private static final String PASSWORD = "password";
+
+    @Mock
+    private JwtAuthService jwtAuthService;
+    @Mock
+    private ReactiveUserDetailsService userDetailsService;
+    @InjectMocks
+    private ReactiveJwtAuthFilter jwtAuthFilter;
+
+    private final AtomicReference<Authentication> authentication = new AtomicReference<>();
+    // records the authentication seen by the rest of the chain
+    private final WebFilterChain filterChain = exchange -> ReactiveSecurityContextHolder.getContext()
+            .map(SecurityContext::getAuthentication)
+            .doOnNext(authentication::set)
+            .then();
+
+    @Test
+    void filter_tokenPresentAndValid_authenticatesUser() {
+        // given
+        String token = "valid.token";
+        UserDetails userDetails = new User(USERNAME, PASSWORD, Collections.emptyList());
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/games")
+                .header(AUTH_HEADER_NAME, "Bearer " + token));
+
+        when(jwtAuthService.extractUsername(token)).thenReturn(USERNAME);
+        when(userDetailsService.findByUsername(USERNAME)).thenReturn(Mono.just(userDetails));
+        when(jwtAuthService.isTokenValid(token, userDetails)).thenReturn(true);
+
+        // when
+        StepVerifier.create(jwtAuthFilter.filter(exchange, filterChain)).verifyComplete();
+
+        // then
+        verify(jwtAuthService).extractUsername(token);
+        verify(userDetailsService).findByUsername(USERNAME);
+        verify(jwtAuthService).isTokenValid(token, userDetails);
+        assertThat(authentication.get()).isNotNull();
+        assertThat(authentication.get().getPrincipal()).isEqualTo(userDetails);
+    }
+
+    @Test
+    void filter_tokenNotPresent_doesNotAuthenticateUser() {
+        // given
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/games"));
+
+        // when
+        StepVerifier.create(jwtAuthFilter.filter(exchange, filterChain)).verifyComplete();
+
+        // then
+        verify(jwtAuthService, never()).extractUsername(anyString());
+        verify(userDetailsService, never()).findByUsername(anyString());
+        assertThat(authentication.get()).isNull();
+    }
+
+    @Test
+    void filter_tokenPresentAndInvalid_doesNotAuthenticateUser() {
+        // given
+        String token = "invalid.token";
+        UserDetails userDetails = new User(USERNAME, PASSWORD, Collections.emptyList());
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/games")
+                .header(AUTH_HEADER_NAME, "Bearer " + token));
+
+        when(jwtAuthService.extractUsername(token)).thenReturn(USERNAME);
+        when(userDetailsService.findByUsername(USERNAME)).thenReturn(Mono.just(userDetails));
+        when(jwtAuthService.isTokenValid(token, userDetails)).thenReturn(false);
+
+        // when
+        StepVerifier.create(jwtAuthFilter.filter(exchange, filterChain)).verifyComplete();
+
+        // then
+        verify(jwtAuthService).isTokenValid(token, userDetails);
+        assertThat(authentication.get()).isNull();
+    }
+}
@@ -0,0 +1,69 @@
+package com.berrie.gamerental.config;
+
+import com.berrie.gamerental.dto.SpanRecord;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RecentSpanExporterTest {
+
+    private static final String TRACE_ID = "0af7651916cd43dd8448eb211c80319c";
+    private static final String OTHER_TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    @Test
+    void export_finishedSpans_recordedMostRecentFirst() {
+        // given
+        RecentSpanExporter exporter = new RecentSpanExporter(10);
+        SpanData command = span(TRACE_ID, "b7ad6b7169203331", "find", 2_000_000L);
+        SpanData rentGame = span(TRACE_ID, "00f067aa0ba902b7", "rental-service#rent-game", 5_500_000L);
+
+        // when
+        exporter.export(List.of(command, rentGame));
+
+        // then
+        List<SpanRecord> spans = exporter.spans(null);
+        assertThat(spans).extracting(SpanRecord::getName).containsExactly("rental-service#rent-game", "find");
+        assertThat(spans.get(0).getDurationMillis()).isEqualTo(5.5);
+        assertThat(spans.get(0).getParentSpanId()).isNull();
+        assertThat(spans.get(1).getAttributes()).containsEntry("db.system", "mongodb");
+    }
+
+    @Test
+    void export_overCapacity_dropsOldestSpan() {
+        // given
+        RecentSpanExporter exporter = new RecentSpanExporter(2);
+
+        // when
+        exporter.export(List.of(span(TRACE_ID, "b7ad6b7169203331", "first", 1),
+                span(TRACE_ID, "00f067aa0ba902b7", "second", 1),
+                span(OTHER_TRACE_ID, "53995c3f42cd8ad8", "third", 1)));
+
+        // then
+        assertThat(exporter.spans(null)).extracting(SpanRecord::getName).containsExactly("third", "second");
+        assertThat(exporter.spans(OTHER_TRACE_ID)).extracting(SpanRecord::getName).containsExactly("third");
+    }
+
+    private static SpanData span(String traceId, String spanId, String name, long durationNanos) {
+        SpanData span = mock(SpanData.class);
+        when(span.getTraceId()).thenReturn(traceId);
+        when(span.getSpanId()).thenReturn(spanId);
+        when(span.getParentSpanContext()).thenReturn(SpanContext.getInvalid());
+        when(span.getName()).thenReturn(name);
+        when(span.getKind()).thenReturn(SpanKind.INTERNAL);
+        when(span.getStartEpochNanos()).thenReturn(1_000L);
+        when(span.getEndEpochNanos()).thenReturn(1_000L + durationNanos);
+        when(span.getStatus()).thenReturn(StatusData.unset());
+        when(span.getAttributes()).thenReturn(Attributes.of(AttributeKey.stringKey("db.system"), "mongodb"));
+        return span;
+    }
+}
@@ -0,0 +1,116 @@
+package com.berrie.gamerental.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RequestCostFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong allocatedBytes = new AtomicLong(1_000);
+    private final AtomicLong cpuTimeNanos = new AtomicLong(5_000);
+
+    @Test
+    void doFilter_apiRequest_recordsAllocationAndCpuPerRoute() throws Exception {
+        // given
+        RequestCostFilter filter = new RequestCostFilter(meterRegistry, false, allocatedBytes::get, cpuTimeNanos::get);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(gamesRequest(), response, chargingChain(4_096, 250_000));
+
+        // then
+        DistributionSummary allocated = meterRegistry.get(RequestCostFilter.ALLOCATED_METRIC)
+                .tag("method", "GET").tag("uri", "/api/games").summary();
+        Timer cpu = meterRegistry.get(RequestCostFilter.CPU_METRIC)
+                .tag("method", "GET").tag("uri", "/api/games").timer();
+        assertThat(allocated.totalAmount()).isEqualTo(4_096);
+        assertThat(cpu.totalTime(TimeUnit.NANOSECONDS)).isEqualTo(250_000);
+        assertThat(response.getHeader(RequestCostFilter.ALLOCATED_HEADER)).isNull();
+    }
+
+    @Test
+    void doFilter_headersEnabled_reportsCostOfRequestInHeaders() throws Exception {
+        // given
+        RequestCostFilter filter = new RequestCostFilter(meterRegistry, true, allocatedBytes::get, cpuTimeNanos::get);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(gamesRequest(), response, chargingChain(4_096, 250_000));
+
+        // then
+        assertThat(response.getHeader(RequestCostFilter.ALLOCATED_HEADER)).isEqualTo("4096");
+        assertThat(response.getHeader(RequestCostFilter.CPU_HEADER)).isEqualTo("250");
+        assertThat(response.getContentAsString()).isEqualTo("[]");
+    }
+
+    @Test
+    void doFilter_measurementUnsupported_recordsNothing() throws Exception {
+        // given
+        RequestCostFilter filter = new RequestCostFilter(meterRegistry, true, () -> -1, () -> -1);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(gamesRequest(), response, chargingChain(0, 0));
+
+        // then
+        assertThat(meterRegistry.find(RequestCostFilter.ALLOCATED_METRIC).summary()).isNull();
+        assertThat(meterRegistry.find(RequestCostFilter.CPU_METRIC).timer()).isNull();
+        assertThat(response.getHeader(RequestCostFilter.ALLOCATED_HEADER)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo("[]");
+    }
+
+    @Test
+    void doFilter_headersEnabledAndAsyncBody_copiesBodyAfterAsyncDispatch() throws Exception {
+        // given
+        RequestCostFilter filter = new RequestCostFilter(meterRegistry, true, allocatedBytes::get, cpuTimeNanos::get);
+        MockHttpServletRequest request = gamesRequest();
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<ServletResponse> handlerResponse = new AtomicReference<>();
+        filter.doFilter(request, response, (req, res) -> {
+            handlerResponse.set(res);
+            req.startAsync(req, res);
+        });
+        assertThat(response.getContentAsString()).isEmpty();
+
+        // when
+        handlerResponse.get().getOutputStream().write("[]".getBytes(StandardCharsets.UTF_8));
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, handlerResponse.get(), (req, res) -> { });
+
+        // then
+        assertThat(response.getHeader(RequestCostFilter.ALLOCATED_HEADER)).isEqualTo("0");
+        assertThat(response.getContentAsString()).isEqualTo("[]");
+    }
+
+    private static MockHttpServletRequest gamesRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/games");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/games");
+        return request;
+    }
+
+    // stands in for the rest of the chain, charging the request thread with the given cost
+    private FilterChain chargingChain(long bytes, long nanos) {
+        return (request, response) -> {
+            allocatedBytes.addAndGet(bytes);
+            cpuTimeNanos.addAndGet(nanos);
+            response.getOutputStream().write("[]".getBytes(StandardCharsets.UTF_8));
+        };
+    }
+}
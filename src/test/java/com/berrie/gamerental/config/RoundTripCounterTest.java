@@ -0,0 +1,93 @@
+package com.berrie.gamerental.config;
+
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RoundTripCounterTest {
+
+    private final RoundTripCounter roundTripCounter = new RoundTripCounter();
+
+    @Test
+    void commandStarted_noOpenScope_isNotCounted() {
+        // when
+        roundTripCounter.commandStarted(findGameById("1"));
+
+        // then
+        assertThat(roundTripCounter.currentCount()).isEmpty();
+    }
+
+    @Test
+    void commandStarted_openScope_countsCommands() {
+        // given
+        try (RoundTripCounter.Scope scope = roundTripCounter.open()) {
+            // when
+            roundTripCounter.commandStarted(findGameById("1"));
+            roundTripCounter.commandStarted(findGameById("2"));
+
+            // then
+            assertThat(scope.count()).isEqualTo(2);
+            assertThat(roundTripCounter.currentCount()).hasValue(2);
+        }
+        assertThat(roundTripCounter.currentCount()).isEmpty();
+    }
+
+    @Test
+    void commandStarted_nestedScopes_countedByEveryOpenScope() {
+        // given
+        try (RoundTripCounter.Scope outer = roundTripCounter.open()) {
+            roundTripCounter.commandStarted(findGameById("1"));
+            try (RoundTripCounter.Scope inner = roundTripCounter.open()) {
+                // when
+                roundTripCounter.commandStarted(findGameById("2"));
+
+                // then
+                assertThat(inner.count()).isEqualTo(1);
+            }
+            assertThat(outer.count()).isEqualTo(2);
+            assertThat(roundTripCounter.currentCount()).hasValue(2);
+        }
+    }
+
+    @Test
+    void repeatedCommands_sameShapeWithDifferentValues_areGrouped() {
+        // given
+        try (RoundTripCounter.Scope scope = roundTripCounter.open()) {
+            roundTripCounter.commandStarted(findGameById("1"));
+            roundTripCounter.commandStarted(findGameById("2"));
+            roundTripCounter.commandStarted(findGameById("3"));
+
+            // when
+            Map<String, Integer> repeated = scope.repeatedCommands(3);
+
+            // then
+            assertThat(repeated).containsExactly(Map.entry("find games {\"_id\": \"?\"}", 3));
+            assertThat(scope.repeatedCommands(4)).isEmpty();
+        }
+    }
+
+    @Test
+    void commandStarted_shapeWorkedOutByAnotherListener_isReused() {
+        // given
+        CommandStartedEvent event = findGameById("1");
+        SlowQueryListener.CommandShape shape = SlowQueryListener.shapeOf(event);
+
+        // when
+        try (RoundTripCounter.Scope scope = roundTripCounter.open()) {
+            roundTripCounter.commandStarted(event);
+
+            // then
+            assertThat(SlowQueryListener.shapeOf(event)).isSameAs(shape);
+            assertThat(scope.repeatedCommands(1)).containsOnlyKeys("find games {\"_id\": \"?\"}");
+        }
+    }
+
+    private static CommandStartedEvent findGameById(String id) {
+        return CommandEvents.started(Integer.parseInt(id),
+                BsonDocument.parse("{find: 'games', filter: {_id: '" + id + "'}, $db: 'game-rental'}"));
+    }
+}
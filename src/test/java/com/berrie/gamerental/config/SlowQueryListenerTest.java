@@ -0,0 +1,119 @@
+package com.berrie.gamerental.config;
+
+import com.berrie.gamerental.dto.SlowQueryRecord;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoDatabase;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.berrie.gamerental.config.CommandEvents.started;
+import static com.berrie.gamerental.config.CommandEvents.succeeded;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SlowQueryListenerTest {
+
+    private static final BsonDocument FIND_RENTALS = BsonDocument.parse("""
+            {find: "rentals", filter: {rentedBy: "berrie.user", rentalStatus: {$in: ["RENTED", "RETURNED"]}},
+             sort: {rentalDate: -1}, $db: "game-rental", lsid: {id: "session"}}""");
+
+    @Mock
+    private MongoClient mongoClient;
+    @Mock
+    private MongoDatabase database;
+    private final SlowQueryLog slowQueryLog = new SlowQueryLog(10);
+    private SlowQueryListener listener;
+
+    @AfterEach
+    void tearDown() {
+        if (listener != null) {
+            listener.shutdown();
+        }
+    }
+
+    @Test
+    void commandSucceeded_overThreshold_recordsRedactedFilterShape() {
+        // given
+        listener = new SlowQueryListener(slowQueryLog, () -> mongoClient, Duration.ofMillis(100), 0);
+
+        // when
+        listener.commandStarted(started(1, FIND_RENTALS));
+        listener.commandSucceeded(succeeded(1, "find", Duration.ofMillis(250)));
+
+        // then
+        List<SlowQueryRecord> records = slowQueryLog.records();
+        assertThat(records).hasSize(1);
+        SlowQueryRecord record = records.get(0);
+        assertThat(record.getCommand()).isEqualTo("find");
+        assertThat(record.getCollection()).isEqualTo("rentals");
+        assertThat(record.getDurationMillis()).isEqualTo(250);
+        assertThat(BsonDocument.parse(record.getFilterShape()))
+                .isEqualTo(BsonDocument.parse("{rentedBy: '?', rentalStatus: {$in: ['?']}}"));
+        assertThat(record.getWinningPlan()).isNull();
+        verifyNoInteractions(mongoClient);
+    }
+
+    @Test
+    void commandSucceeded_underThreshold_isNotRecorded() {
+        // given
+        listener = new SlowQueryListener(slowQueryLog, () -> mongoClient, Duration.ofMillis(100), 0);
+
+        // when
+        listener.commandStarted(started(1, FIND_RENTALS));
+        listener.commandSucceeded(succeeded(1, "find", Duration.ofMillis(20)));
+
+        // then
+        assertThat(slowQueryLog.records()).isEmpty();
+    }
+
+    @Test
+    void commandSucceeded_sampledSlowCommand_attachesWinningPlan() throws Exception {
+        // given
+        listener = new SlowQueryListener(slowQueryLog, () -> mongoClient, Duration.ofMillis(100), 1);
+        when(mongoClient.getDatabase("game-rental")).thenReturn(database);
+        when(database.runCommand(any(BsonDocument.class), eq(BsonDocument.class))).thenReturn(BsonDocument.parse(
+                "{queryPlanner: {winningPlan: {stage: 'COLLSCAN', direction: 'forward'}}, ok: 1}"));
+
+        // when
+        listener.commandStarted(started(7, FIND_RENTALS));
+        listener.commandSucceeded(succeeded(7, "find", Duration.ofMillis(500)));
+
+        // then
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (slowQueryLog.records().get(0).getWinningPlan() == null && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(BsonDocument.parse(slowQueryLog.records().get(0).getWinningPlan()))
+                .isEqualTo(BsonDocument.parse("{stage: 'COLLSCAN', direction: 'forward'}"));
+        verify(database).runCommand(eq(BsonDocument.parse("""
+                {explain: {find: "rentals",
+                           filter: {rentedBy: "berrie.user", rentalStatus: {$in: ["RENTED", "RETURNED"]}},
+                           sort: {rentalDate: -1}},
+                 verbosity: "queryPlanner"}""")), eq(BsonDocument.class));
+    }
+
+    @Test
+    void redact_orBranchesAndScalarLists_keepsStructureOnly() {
+        // given
+        BsonDocument filter = BsonDocument.parse(
+                "{$or: [{title: 'Halo'}, {genre: {$in: ['SHOOTER', 'ADVENTURE']}}], $text: {$search: 'halo'}}");
+
+        // when
+        BsonDocument shape = SlowQueryListener.redact(filter).asDocument();
+
+        // then
+        assertThat(shape).isEqualTo(BsonDocument.parse(
+                "{$or: [{title: '?'}, {genre: {$in: ['?']}}], $text: {$search: '?'}}"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.berrie.gamerental.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(SECOND);
+    private final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("api", 2, 3, 2, clock::get);
+
+    @Test
+    void tryAcquire_withinBurst_admitsRequests() {
+        // when
+        long first = limiter.tryAcquire("user:berrie");
+        long second = limiter.tryAcquire("user:berrie");
+        long third = limiter.tryAcquire("user:berrie");
+
+        // then
+        assertThat(first).isZero();
+        assertThat(second).isZero();
+        assertThat(third).isZero();
+    }
+
+    @Test
+    void tryAcquire_burstSpent_rejectsUntilRefilled() {
+        // given
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("user:berrie");
+        }
+
+        // when
+        long retryAfter = limiter.tryAcquire("user:berrie");
+        clock.addAndGet(SECOND / 2);
+        long afterRefill = limiter.tryAcquire("user:berrie");
+
+        // then
+        assertThat(retryAfter).isEqualTo(SECOND / 2);
+        assertThat(afterRefill).isZero();
+        assertThat(limiter.rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void tryAcquire_differentKeys_haveSeparateBuckets() {
+        // given
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("user:berrie");
+        }
+
+        // when
+        long other = limiter.tryAcquire("user:other");
+
+        // then
+        assertThat(other).isZero();
+        assertThat(limiter.buckets()).isEqualTo(2);
+    }
+
+    @Test
+    void tryAcquire_bucketCapReached_evictsRefilledBuckets() {
+        // given
+        limiter.tryAcquire("ip:10.0.0.1");
+        limiter.tryAcquire("ip:10.0.0.2");
+        clock.addAndGet(SECOND);
+
+        // when
+        long admitted = limiter.tryAcquire("ip:10.0.0.3");
+
+        // then
+        assertThat(admitted).isZero();
+        assertThat(limiter.buckets()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,39 @@
+package com.berrie.gamerental.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class VirtualThreadConfigTest {
+
+    @Test
+    void newVirtualThreadPerTaskExecutor_java21_runsTasksOnVirtualThreads() throws Exception {
+        // given
+        assumeTrue(Runtime.version().feature() >= 21);
+        ExecutorService executor = VirtualThreadConfig.newVirtualThreadPerTaskExecutor();
+
+        // when
+        Future<Boolean> isVirtual = executor.submit(() ->
+                (Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()));
+
+        // then
+        assertThat(isVirtual.get()).isTrue();
+        executor.shutdown();
+    }
+
+    @Test
+    void newVirtualThreadPerTaskExecutor_beforeJava21_throwsIllegalStateException() {
+        // given
+        assumeTrue(Runtime.version().feature() < 21);
+
+        // when & then
+        assertThatThrownBy(VirtualThreadConfig::newVirtualThreadPerTaskExecutor)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("-PjavaVersion=21");
+    }
+}
@@ -6,6 +6,7 @@ import com.berrie.gamerental.exception.UserExistsException;
 import com.berrie.gamerental.exception.UserUnauthorizedException;
 import com.berrie.gamerental.service.AuthenticationService;
 import com.berrie.gamerental.util.ModelMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -43,7 +44,7 @@ public class AuthenticationControllerTest {
     @BeforeEach
     void setup() {
         mockMvc = MockMvcBuilders.standaloneSetup(authenticationController)
-                .setControllerAdvice(new ExceptionHandlerController())
+                .setControllerAdvice(new ExceptionHandlerController(new SimpleMeterRegistry()))
                 .build();
 
         request = AuthenticationRequest.builder()
@@ -1,5 +1,11 @@
 package com.berrie.gamerental.controller;
 
+import com.berrie.gamerental.cache.CatalogVersion;
+import com.berrie.gamerental.cache.StaleWhileRevalidateCache;
+import com.berrie.gamerental.config.RequestDeadlines;
+import com.berrie.gamerental.dto.FacetCounts;
+import com.berrie.gamerental.dto.GameChange;
+import com.berrie.gamerental.dto.GameChangesResponse;
 import com.berrie.gamerental.dto.GameModel;
 import com.berrie.gamerental.dto.GetGamesRequest;
 import com.berrie.gamerental.dto.SubmitGameRequest;
@@ -7,19 +13,27 @@ import com.berrie.gamerental.dto.SubmitGameResponse;
 import com.berrie.gamerental.exception.NoGamesFoundException;
 import com.berrie.gamerental.model.Game;
 import com.berrie.gamerental.model.enums.SortBy;
+import com.berrie.gamerental.service.AvailabilityBroadcaster;
+import com.berrie.gamerental.service.CatalogSyncService;
 import com.berrie.gamerental.service.GameService;
 import com.berrie.gamerental.service.JwtAuthService;
 import jakarta.validation.ConstraintViolationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static com.berrie.gamerental.model.enums.GameStatus.AVAILABLE;
@@ -30,10 +44,17 @@ import static com.berrie.gamerental.model.enums.SortBy.TITLE;
 import static com.berrie.gamerental.util.ModelMapper.toGetGamesResponse;
 import static com.berrie.gamerental.util.ModelMapper.toJson;
 import static org.mockito.Mockito.*;
+import static org.springframework.http.HttpHeaders.AGE;
+import static org.springframework.http.HttpHeaders.CACHE_CONTROL;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.HttpHeaders.WARNING;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,6 +63,8 @@ public class GameControllerTest {
     private static final String SUBMIT_URI = "/api/games/submit";
     private static final String SEARCH_GAME_URI = "/api/games/search";
     private static final String GET_GAMES_URI = "/api/games";
+    private static final String GET_CHANGES_URI = "/api/games/changes";
+    private static final String AVAILABILITY_STREAM_URI = "/api/games/availability/stream";
     private static final String AUTH_HEADER_NAME = "Authorization";
     private static final String TOKEN = "Bearer test.token";
     private static final String TRIMMED_TOKEN = "test.token";
@@ -51,6 +74,15 @@ public class GameControllerTest {
     private GameService gameService;
     @Mock
     private JwtAuthService jwtAuthService;
+    @Spy
+    private CatalogVersion catalogVersion = new CatalogVersion(Duration.ofSeconds(90));
+    @Mock
+    private CatalogSyncService catalogSyncService;
+    @Mock
+    private AvailabilityBroadcaster availabilityBroadcaster;
+    @Spy
+    private StaleWhileRevalidateCache staleCache = new StaleWhileRevalidateCache(new RequestDeadlines(),
+            Duration.ofHours(1), 100, 5, Duration.ofSeconds(10), Duration.ofSeconds(2));
     @InjectMocks
     private GameController gameController;
     private MockMvc mockMvc;
@@ -58,7 +90,7 @@ public class GameControllerTest {
     @BeforeEach
     void setup() {
         mockMvc = MockMvcBuilders.standaloneSetup(gameController)
-                .setControllerAdvice(new ExceptionHandlerController())
+                .setControllerAdvice(new ExceptionHandlerController(new SimpleMeterRegistry()))
                 .build();
     }
 
@@ -161,7 +193,7 @@ public class GameControllerTest {
     @Test
     void getGames_sortedByPopularity_returnsGames() throws Exception {
         // given
-        GetGamesRequest request = new GetGamesRequest(POPULARITY);
+        GetGamesRequest request = GetGamesRequest.builder().sortBy(POPULARITY).build();
         List<GameModel> gameModels = buildGameModels(POPULARITY);
         String jsonResponse = toJson(toGetGamesResponse(gameModels));
 
@@ -169,8 +201,7 @@ public class GameControllerTest {
 
         // when & then
         mockMvc.perform(get(GET_GAMES_URI)
-                        .contentType(APPLICATION_JSON)
-                        .content(toJson(request)))
+                        .param("sortBy", POPULARITY.name()))
                 .andExpect(status().isOk())
                 .andExpect(content().json(jsonResponse));
 
@@ -180,7 +211,7 @@ public class GameControllerTest {
     @Test
     void getGames_sortedByTitle_returnsGames() throws Exception {
         // given
-        GetGamesRequest request = new GetGamesRequest(TITLE);
+        GetGamesRequest request = GetGamesRequest.builder().sortBy(TITLE).build();
         List<GameModel> gameModels = buildGameModels(TITLE);
         String jsonResponse = toJson(toGetGamesResponse(gameModels));
 
@@ -188,8 +219,7 @@ public class GameControllerTest {
 
         // when & then
         mockMvc.perform(get(GET_GAMES_URI)
-                        .contentType(APPLICATION_JSON)
-                        .content(toJson(request)))
+                        .param("sortBy", TITLE.name()))
                 .andExpect(status().isOk())
                 .andExpect(content().json(jsonResponse));
 
@@ -197,14 +227,73 @@ public class GameControllerTest {
     }
 
     @Test
-    void getGames_nullSortBy_badRequest() throws Exception {
+    void getGames_withFilters_returnsGamesAndFacetCounts() throws Exception {
         // given
-        GetGamesRequest request = new GetGamesRequest(null);
+        GetGamesRequest request = GetGamesRequest.builder()
+                .sortBy(POPULARITY)
+                .genre(ADVENTURE)
+                .platform(PS5)
+                .build();
+        List<GameModel> gameModels = buildGameModels(POPULARITY);
+        FacetCounts facetCounts = FacetCounts.builder()
+                .genres(Map.of(ADVENTURE, 3, RPG, 1))
+                .platforms(Map.of(PS5, 3))
+                .statuses(Map.of(AVAILABLE, 3))
+                .build();
+        String jsonResponse = toJson(toGetGamesResponse(gameModels, facetCounts));
+
+        when(gameService.getGames(request)).thenReturn(gameModels);
+        when(gameService.getFacetCounts(request)).thenReturn(facetCounts);
 
         // when & then
         mockMvc.perform(get(GET_GAMES_URI)
-                        .contentType(APPLICATION_JSON)
-                        .content(toJson(request)))
+                        .param("sortBy", POPULARITY.name())
+                        .param("genre", ADVENTURE.name())
+                        .param("platform", PS5.name()))
+                .andExpect(status().isOk())
+                .andExpect(content().json(jsonResponse));
+
+        verify(gameService, times(1)).getGames(request);
+    }
+
+    @Test
+    void getGames_matchingIfNoneMatch_notModifiedWithoutFetchingGames() throws Exception {
+        // given
+        String eTag = catalogVersion.eTag();
+
+        // when & then
+        mockMvc.perform(get(GET_GAMES_URI)
+                        .param("sortBy", POPULARITY.name())
+                        .header(IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(ETAG, eTag));
+
+        verifyNoInteractions(gameService);
+    }
+
+    @Test
+    void getGames_staleIfNoneMatch_returnsGamesWithNewETag() throws Exception {
+        // given
+        GetGamesRequest request = GetGamesRequest.builder().sortBy(POPULARITY).build();
+        String staleETag = catalogVersion.eTag();
+        catalogVersion.onAfterSave(null);
+        List<GameModel> gameModels = buildGameModels(POPULARITY);
+
+        when(gameService.getGames(request)).thenReturn(gameModels);
+
+        // when & then
+        mockMvc.perform(get(GET_GAMES_URI)
+                        .param("sortBy", POPULARITY.name())
+                        .header(IF_NONE_MATCH, staleETag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ETAG, catalogVersion.eTag()))
+                .andExpect(content().json(toJson(toGetGamesResponse(gameModels))));
+    }
+
+    @Test
+    void getGames_nullSortBy_badRequest() throws Exception {
+        // given & when & then
+        mockMvc.perform(get(GET_GAMES_URI))
                 .andExpect(status().isBadRequest());
 
         verifyNoInteractions(gameService);
@@ -213,16 +302,86 @@ public class GameControllerTest {
     @Test
     void getGames_noGames_notFound() throws Exception {
         // given
-        GetGamesRequest request = new GetGamesRequest(POPULARITY);
+        GetGamesRequest request = GetGamesRequest.builder().sortBy(POPULARITY).build();
         when(gameService.getGames(request)).thenThrow(new NoGamesFoundException("out of stock"));
 
         // when & then
         mockMvc.perform(get(GET_GAMES_URI)
-                        .contentType(APPLICATION_JSON)
-                        .content(toJson(request)))
+                        .param("sortBy", POPULARITY.name()))
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void getGames_databaseTimesOut_returnsLastGoodGamesWithWarning() throws Exception {
+        // given
+        GetGamesRequest request = GetGamesRequest.builder().sortBy(POPULARITY).build();
+        List<GameModel> gameModels = buildGameModels(POPULARITY);
+        when(gameService.getGames(request))
+                .thenReturn(gameModels)
+                .thenThrow(new QueryTimeoutException("operation exceeded time limit"));
+        mockMvc.perform(get(GET_GAMES_URI)
+                        .param("sortBy", POPULARITY.name()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(WARNING));
+
+        // when & then
+        mockMvc.perform(get(GET_GAMES_URI)
+                        .param("sortBy", POPULARITY.name()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(WARNING, "110 - \"Response is Stale\""))
+                .andExpect(header().string(AGE, "0"))
+                .andExpect(header().doesNotExist(ETAG))
+                .andExpect(header().string(CACHE_CONTROL, "no-store"))
+                .andExpect(content().json(toJson(toGetGamesResponse(gameModels))));
+    }
+
+    @Test
+    void getChanges_validVersion_returnsChanges() throws Exception {
+        // given
+        GameChangesResponse response = GameChangesResponse.builder()
+                .version(12L)
+                .changed(List.of(GameChange.builder()
+                        .id("game-1")
+                        .version(12L)
+                        .game(buildGameModel("Returnal", 4))
+                        .build()))
+                .deleted(List.of("game-2"))
+                .build();
+        when(catalogSyncService.getChangesSince(10L)).thenReturn(response);
+
+        // when & then
+        mockMvc.perform(get(GET_CHANGES_URI)
+                        .param("since", "10"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(toJson(response)));
+    }
+
+    @Test
+    void getChanges_negativeVersion_badRequest() throws Exception {
+        // given
+        // in live mode, error is thrown before touching catalogSyncService
+        when(catalogSyncService.getChangesSince(-1L))
+                .thenThrow(new ConstraintViolationException("since violation", Set.of()));
+
+        // when & then
+        mockMvc.perform(get(GET_CHANGES_URI)
+                        .param("since", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamAvailability_newSubscriber_startsEventStream() throws Exception {
+        // given
+        when(availabilityBroadcaster.subscribe()).thenReturn(new SseEmitter());
+
+        // when & then
+        mockMvc.perform(get(AVAILABILITY_STREAM_URI))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+
+        verify(availabilityBroadcaster, times(1)).subscribe();
+    }
+
     @Test
     void searchGame_validTitleWithMatches_returnsGames() throws Exception {
         // given
@@ -230,7 +389,7 @@ public class GameControllerTest {
         List<GameModel> gameMatches = List.of(buildGameModel("Horizon Zero Dawn", 2));
         String jsonResponse = toJson(toGetGamesResponse(gameMatches));
 
-        when(gameService.searchGame(title)).thenReturn(gameMatches);
+        when(gameService.searchGame(title, null)).thenReturn(gameMatches);
 
         // when & then
         mockMvc.perform(get(SEARCH_GAME_URI)
@@ -238,14 +397,33 @@ public class GameControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().json(jsonResponse));
 
-        verify(gameService, times(1)).searchGame(title);
+        verify(gameService, times(1)).searchGame(title, null);
+    }
+
+    @Test
+    void searchGame_validTitleWithLimit_returnsFirstPage() throws Exception {
+        // given
+        String title = "horizon";
+        List<GameModel> gameMatches = List.of(buildGameModel("Horizon Zero Dawn", 2));
+        String jsonResponse = toJson(toGetGamesResponse(gameMatches));
+
+        when(gameService.searchGame(title, 1)).thenReturn(gameMatches);
+
+        // when & then
+        mockMvc.perform(get(SEARCH_GAME_URI)
+                        .param("title", title)
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(jsonResponse));
+
+        verify(gameService, times(1)).searchGame(title, 1);
     }
 
     @Test
     void searchGame_validTitleNoMatches_notFound() throws Exception {
         // given
         String title = "hogwarts legacy";
-        when(gameService.searchGame(title)).thenThrow(new NoGamesFoundException("no matches"));
+        when(gameService.searchGame(title, null)).thenThrow(new NoGamesFoundException("no matches"));
 
         // when & then
         mockMvc.perform(get(SEARCH_GAME_URI)
@@ -258,7 +436,7 @@ public class GameControllerTest {
         // given
         String title = "  gta v";
         // in live mode, error is thrown before touching gameService
-        when(gameService.searchGame(title)).thenThrow(new ConstraintViolationException("title violation", Set.of()));
+        when(gameService.searchGame(title, null)).thenThrow(new ConstraintViolationException("title violation", Set.of()));
 
         // when & then
         mockMvc.perform(get(SEARCH_GAME_URI)
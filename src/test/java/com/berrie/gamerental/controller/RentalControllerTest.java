@@ -10,6 +10,7 @@ import com.berrie.gamerental.model.Rental;
 import com.berrie.gamerental.model.enums.RentalStatus;
 import com.berrie.gamerental.service.JwtAuthService;
 import com.berrie.gamerental.service.RentalService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -51,12 +52,13 @@ public class RentalControllerTest {
     private JwtAuthService jwtAuthService;
     @InjectMocks
     private RentalController rentalController;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
     private MockMvc mockMvc;
 
     @BeforeEach
     void setup() {
         mockMvc = MockMvcBuilders.standaloneSetup(rentalController)
-                .setControllerAdvice(new ExceptionHandlerController())
+                .setControllerAdvice(new ExceptionHandlerController(meterRegistry))
                 .build();
     }
 
@@ -131,6 +133,26 @@ public class RentalControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void rentGame_deadlineExceeded_gatewayTimeout() throws Exception {
+        // given
+        RentGameRequest request = new RentGameRequest(GAME_ID);
+
+        when(jwtAuthService.extractUsername(TRIMMED_TOKEN)).thenReturn(USERNAME);
+        when(rentalService.rentGame(request, USERNAME))
+                .thenThrow(new DeadlineExceededException("request deadline exceeded"));
+
+        // when & then
+        mockMvc.perform(post(RENT_GAME_URI)
+                        .header(AUTH_HEADER_NAME, TOKEN)
+                        .contentType(APPLICATION_JSON)
+                        .content(toJson(request)))
+                .andExpect(status().isGatewayTimeout());
+
+        assertThat(meterRegistry.counter("game.exceptions",
+                "exception", "DeadlineExceededException", "status", "504").count()).isEqualTo(1);
+    }
+
     @Test
     void rentGame_gameRented_conflict() throws Exception {
         // given
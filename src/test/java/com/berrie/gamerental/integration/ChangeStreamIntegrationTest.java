@@ -0,0 +1,54 @@
+package com.berrie.gamerental.integration;
+
+import com.berrie.gamerental.cache.CatalogVersion;
+import com.berrie.gamerental.model.Game;
+import com.berrie.gamerental.repository.GameRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static com.berrie.gamerental.integration.TestUtil.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Needs MongoDB running as a replica set, see docker-compose.replica-set.yaml.
+ */
+@SpringBootTest(properties = "game.cache.change-streams.enabled=true")
+@ExtendWith(SpringExtension.class)
+@EnabledIfEnvironmentVariable(named = "MONGODB_REPLICA_SET", matches = "true")
+public class ChangeStreamIntegrationTest {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private GameRepository gameRepository;
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Test
+    void changeStream_gameWrittenBypassingSpringData_advancesCatalogVersion() throws Exception {
+        // given
+        long before = catalogVersion.current();
+
+        // when, written through the driver as another node's write would be
+        mongoTemplate.getCollection("games").insertOne(new Document("title", "ChangeStreamGame")
+                .append("numberOfRentals", 0)
+                .append("submittedBy", new Document("username", "berrie.user")));
+
+        // then
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (catalogVersion.current() == before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertThat(catalogVersion.current()).isGreaterThan(before);
+
+        // clean up
+        Game game = findGame("ChangeStreamGame", gameRepository);
+        gameRepository.delete(game);
+    }
+}
@@ -0,0 +1,128 @@
+package com.berrie.gamerental.integration;
+
+import com.berrie.gamerental.dto.GameChange;
+import com.berrie.gamerental.dto.GameChangesResponse;
+import com.berrie.gamerental.model.Game;
+import com.berrie.gamerental.repository.GameRepository;
+import com.berrie.gamerental.service.CatalogSyncService;
+import com.berrie.gamerental.util.ModelMapper;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static com.berrie.gamerental.integration.TestUtil.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@AutoConfigureMockMvc(addFilters = false)
+public class GameChangesIntegrationTest {
+
+    private static final String GET_CHANGES_URI = "/api/games/changes";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private GameRepository gameRepository;
+    @Autowired
+    private CatalogSyncService syncService;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void getChanges_gamesSavedAndDeleted_returnsChangesAndTombstones() throws Exception {
+        // given
+        Game deletedGame = buildGame("ChangesDeleted");
+        saveGame(deletedGame, gameRepository);
+        long since = findGame("ChangesDeleted", gameRepository).getUpdateSequence();
+        Game changedGame = buildGame("ChangesSaved");
+        saveGame(changedGame, gameRepository);
+        deleteGame("ChangesDeleted", gameRepository);
+
+        // when
+        MvcResult result = mockMvc.perform(get(GET_CHANGES_URI)
+                        .param("since", String.valueOf(since)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // then
+        GameChangesResponse response = ModelMapper.fromJson(getJson(result), GameChangesResponse.class);
+        assertThat(response.isResyncRequired()).isFalse();
+        assertThat(response.getVersion()).isGreaterThan(since);
+        assertThat(response.getChanged())
+                .extracting(GameChange::getId)
+                .contains(changedGame.getId())
+                .doesNotContain(deletedGame.getId());
+        assertThat(response.getDeleted()).contains(deletedGame.getId());
+
+        // clean up
+        deleteGame("ChangesSaved", gameRepository);
+    }
+
+    @Test
+    void getChanges_writesCommittedOutOfOrder_holdsLaterWriteBack() throws Exception {
+        // given a slow writer allocates a version and a fast writer commits a later one first
+        final long slow = syncService.nextSequence();
+        Game fastGame = buildGame("ChangesFast");
+        saveGame(fastGame, gameRepository);
+
+        // when
+        GameChangesResponse beforeSlowCommit = getChanges(slow - 1);
+
+        // then
+        assertThat(beforeSlowCommit.getVersion()).isEqualTo(slow - 1);
+        assertThat(beforeSlowCommit.getChanged())
+                .extracting(GameChange::getId)
+                .doesNotContain(fastGame.getId());
+
+        // when the slow writer commits
+        Game slowGame = buildGame("ChangesSlow");
+        Document document = new Document();
+        mongoTemplate.getConverter().write(slowGame, document);
+        document.put("updateSequence", slow);
+        mongoTemplate.getCollection("games").insertOne(document);
+        syncService.release(slow);
+        GameChangesResponse afterSlowCommit = getChanges(beforeSlowCommit.getVersion());
+
+        // then
+        assertThat(afterSlowCommit.isResyncRequired()).isFalse();
+        assertThat(afterSlowCommit.getChanged())
+                .extracting(GameChange::getId)
+                .contains(document.getObjectId("_id").toHexString(), fastGame.getId());
+
+        // clean up
+        deleteGame("ChangesFast", gameRepository);
+        deleteGame("ChangesSlow", gameRepository);
+    }
+
+    @Test
+    void getChanges_versionAheadOfCatalog_requiresResync() throws Exception {
+        // when
+        MvcResult result = mockMvc.perform(get(GET_CHANGES_URI)
+                        .param("since", String.valueOf(Long.MAX_VALUE)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // then
+        GameChangesResponse response = ModelMapper.fromJson(getJson(result), GameChangesResponse.class);
+        assertThat(response.isResyncRequired()).isTrue();
+        assertThat(response.getChanged()).isEmpty();
+    }
+
+    private GameChangesResponse getChanges(long since) throws Exception {
+        MvcResult result = mockMvc.perform(get(GET_CHANGES_URI)
+                        .param("since", String.valueOf(since)))
+                .andExpect(status().isOk())
+                .andReturn();
+        return ModelMapper.fromJson(getJson(result), GameChangesResponse.class);
+    }
+}
@@ -16,7 +16,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.http.MediaType;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -44,13 +44,12 @@ public class GetGamesIntegrationTest {
     @Test
     void getGames_sortedByPopularity_returnsGamesInOrder() throws Exception {
         // given
-        GetGamesRequest request = new GetGamesRequest(SortBy.POPULARITY);
+        GetGamesRequest request = GetGamesRequest.builder().sortBy(SortBy.POPULARITY).build();
         List<Game> games = setupGames("A", "C", "B");
 
         // when
         MvcResult result = mockMvc.perform(get(GET_GAMES_URI)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(ModelMapper.toJson(request)))
+                        .param("sortBy", request.getSortBy().name()))
                 .andExpect(status().isOk())
                 .andReturn();
 
@@ -71,13 +70,12 @@ public class GetGamesIntegrationTest {
     @Test
     void getGames_sortedByTitle_returnsGamesInOrder() throws Exception {
         // given
-        GetGamesRequest request = new GetGamesRequest(SortBy.TITLE);
+        GetGamesRequest request = GetGamesRequest.builder().sortBy(SortBy.TITLE).build();
         List<Game> games = setupGames("E", "F", "D");
 
         // when
         MvcResult result = mockMvc.perform(get(GET_GAMES_URI)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(ModelMapper.toJson(request)))
+                        .param("sortBy", request.getSortBy().name()))
                 .andExpect(status().isOk())
                 .andReturn();
 
@@ -90,6 +88,33 @@ public class GetGamesIntegrationTest {
         deleteGames(games, gameRepository);
     }
 
+    @Test
+    void getGames_catalogUnchangedSinceETag_returnsNotModified() throws Exception {
+        // given
+        List<Game> games = setupGames("G", "H", "I");
+        String eTag = mockMvc.perform(get(GET_GAMES_URI)
+                        .param("sortBy", SortBy.POPULARITY.name()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        // when & then
+        mockMvc.perform(get(GET_GAMES_URI)
+                        .param("sortBy", SortBy.POPULARITY.name())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        // clean up
+        deleteGames(games, gameRepository);
+
+        // the deletes changed the catalog
+        mockMvc.perform(get(GET_GAMES_URI)
+                        .param("sortBy", SortBy.POPULARITY.name())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
     private void assertGameModel(GameModel gameModel) {
         assertThat(gameModel.getTitle()).isEqualTo("GetGamesA");
         assertThat(gameModel.getGenre()).isEqualTo(Genre.ACTION);
@@ -1,5 +1,6 @@
 package com.berrie.gamerental.integration;
 
+import com.berrie.gamerental.config.RoundTripCounter;
 import com.berrie.gamerental.dto.GetRentalsRequest;
 import com.berrie.gamerental.dto.GetRentalsResponse;
 import com.berrie.gamerental.dto.RentalModel;
@@ -22,7 +23,9 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.berrie.gamerental.integration.TestUtil.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -37,6 +40,11 @@ public class GetRentalsIntegrationTest {
     private static final String GET_RENTALS_URI = "/api/rentals";
     private static final String AUTH_HEADER_NAME = "Authorization";
     private static final String USERNAME = "berrie.user";
+    // addFilters = false skips the JwtAuthFilter, so only RentalService.getRentals looks up the user
+    private static final Map<String, Integer> BASE_COMMANDS = Map.of("find users", 1, "find rentals", 1);
+    // the user and game DBRefs of every rental are fetched one by one, the user's submittedGames is empty and the
+    // games' embedded submitter holds no DBRefs, so neither resolves any further
+    private static final Map<String, Integer> COMMANDS_PER_RENTAL = Map.of("find users", 1, "find games", 1);
 
     @Autowired
     private MockMvc mockMvc;
@@ -46,6 +54,8 @@ public class GetRentalsIntegrationTest {
     private UserRepository userRepository;
     @Autowired
     private GameRepository gameRepository;
+    @Autowired
+    private RoundTripCounter roundTripCounter;
 
     @Test
     void getRentals_withActiveRentals_returnsActiveRentals() throws Exception {
@@ -55,12 +65,13 @@ public class GetRentalsIntegrationTest {
         setupRentals();
 
         // when
-        MvcResult result = mockMvc.perform(get(GET_RENTALS_URI)
-                        .header(AUTH_HEADER_NAME, token)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(ModelMapper.toJson(request)))
-                .andExpect(status().isOk())
-                .andReturn();
+        MvcResult result = expectCommands(commandsFor(2), roundTripCounter,
+                () -> mockMvc.perform(get(GET_RENTALS_URI)
+                                .header(AUTH_HEADER_NAME, token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(ModelMapper.toJson(request)))
+                        .andExpect(status().isOk())
+                        .andReturn());
 
         // then
         List<RentalModel> rentalModels = ModelMapper.fromJson(getJson(result), GetRentalsResponse.class).getRentals();
@@ -81,12 +92,13 @@ public class GetRentalsIntegrationTest {
         setupRentals();
 
         // when
-        MvcResult result = mockMvc.perform(get(GET_RENTALS_URI)
-                        .header(AUTH_HEADER_NAME, token)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(ModelMapper.toJson(request)))
-                .andExpect(status().isOk())
-                .andReturn();
+        MvcResult result = expectCommands(commandsFor(1), roundTripCounter,
+                () -> mockMvc.perform(get(GET_RENTALS_URI)
+                                .header(AUTH_HEADER_NAME, token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(ModelMapper.toJson(request)))
+                        .andExpect(status().isOk())
+                        .andReturn());
 
         // then
         List<RentalModel> rentalModels = ModelMapper.fromJson(getJson(result), GetRentalsResponse.class).getRentals();
@@ -107,16 +119,24 @@ public class GetRentalsIntegrationTest {
         String token = "Bearer " + createUser(userWithNoRentals, mockMvc);
 
         // when
-        mockMvc.perform(get(GET_RENTALS_URI)
-                        .header(AUTH_HEADER_NAME, token)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(ModelMapper.toJson(request)))
-                .andExpect(status().isNotFound());
+        expectCommands(commandsFor(0), roundTripCounter,
+                () -> mockMvc.perform(get(GET_RENTALS_URI)
+                                .header(AUTH_HEADER_NAME, token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(ModelMapper.toJson(request)))
+                        .andExpect(status().isNotFound()));
 
         // clean up
         deleteUser(userWithNoRentals, userRepository);
     }
 
+    private static Map<String, Integer> commandsFor(int rentals) {
+        Map<String, Integer> commands = new HashMap<>(BASE_COMMANDS);
+        COMMANDS_PER_RENTAL.forEach((command, count) -> commands.merge(command, rentals * count, Integer::sum));
+        commands.values().removeIf(count -> count == 0);
+        return commands;
+    }
+
     private void setupRentals() {
         List<Game> games = setupGames();
         saveGames(games, gameRepository);
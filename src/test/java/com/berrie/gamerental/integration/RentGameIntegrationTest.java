@@ -71,6 +71,7 @@ public class RentGameIntegrationTest {
 
         Rental savedRental = findRental(renter, rentalRepository);
         assertRental(savedRental, renter, game);
+        assertThat(response.getRentalId()).isEqualTo(savedRental.getId());
 
         // clean up
         deleteUser(renter, userRepository);
@@ -1,5 +1,6 @@
 package com.berrie.gamerental.integration;
 
+import com.berrie.gamerental.config.RoundTripCounter;
 import com.berrie.gamerental.dto.AuthenticationRequest;
 import com.berrie.gamerental.model.Game;
 import com.berrie.gamerental.model.Rental;
@@ -19,7 +20,10 @@ import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -113,6 +117,26 @@ class TestUtil {
         return rental.get();
     }
 
+    /**
+     * Runs the call and asserts the MongoDB commands it issued, counted by command and collection, such as
+     * {@code "find users"}, so a change in the queries behind an endpoint, such as a new N+1, fails the test
+     * and names the query.
+     */
+    public static <T> T expectCommands(Map<String, Integer> expected, RoundTripCounter roundTripCounter,
+                                       Callable<T> call) throws Exception {
+        try (RoundTripCounter.Scope roundTrips = roundTripCounter.open()) {
+            T result = call.call();
+            Map<String, Integer> byCollection = new TreeMap<>();
+            roundTrips.repeatedCommands(1).forEach((shape, count) ->
+                    byCollection.merge(shape.substring(0, shape.indexOf(' ', shape.indexOf(' ') + 1)), count,
+                            Integer::sum));
+            assertThat(byCollection)
+                    .as("database commands, repeated commands %s", roundTrips.repeatedCommands(2))
+                    .isEqualTo(new TreeMap<>(expected));
+            return result;
+        }
+    }
+
     public static String getJson(MvcResult mvcResult) throws Exception {
         return mvcResult.getResponse().getContentAsString();
     }
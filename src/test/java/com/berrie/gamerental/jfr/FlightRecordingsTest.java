@@ -0,0 +1,99 @@
+package com.berrie.gamerental.jfr;
+
+import com.berrie.gamerental.dto.RecordingResponse;
+import com.berrie.gamerental.exception.GameRentedException;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlightRecordingsTest {
+
+    private FlightRecordings flightRecordings;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        flightRecordings = new FlightRecordings(Duration.ofMinutes(1), DataSize.ofMegabytes(10), "default");
+    }
+
+    @AfterEach
+    void tearDown() {
+        flightRecordings.close();
+    }
+
+    @Test
+    void start_durationOverMaximum_cappedAtMaximum() {
+        // when
+        RecordingResponse response = flightRecordings.start(Duration.ofHours(1));
+
+        // then
+        assertThat(response.getState()).isEqualTo("RUNNING");
+        assertThat(response.getDurationSeconds()).isEqualTo(60);
+        assertThat(response.getMaxSizeBytes()).isEqualTo(DataSize.ofMegabytes(10).toBytes());
+    }
+
+    @Test
+    void dump_noRecordingStarted_returnsEmpty() throws Exception {
+        // when
+        Optional<Path> dump = flightRecordings.dump();
+
+        // then
+        assertThat(dump).isEmpty();
+    }
+
+    @Test
+    void dump_recordingStarted_containsApplicationEvents() throws Exception {
+        // given
+        flightRecordings.start(Duration.ofSeconds(30));
+        RentalEvent event = RentalEvent.rent("game-1");
+        event.failed(new GameRentedException("rented"));
+        event.commit();
+        new RecordingPasswordEncoder(new PlainPasswordEncoder()).matches("password", "other");
+
+        // when
+        Path dump = flightRecordings.dump().orElseThrow();
+
+        // then
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+            assertThat(events)
+                    .filteredOn(recorded -> recorded.getEventType().getName().equals(RentalEvent.NAME))
+                    .singleElement()
+                    .satisfies(recorded -> {
+                        assertThat(recorded.getString("operation")).isEqualTo(RentalEvent.RENT);
+                        assertThat(recorded.getString("gameId")).isEqualTo("game-1");
+                        assertThat(recorded.getString("outcome")).isEqualTo("GameRentedException");
+                    });
+            assertThat(events)
+                    .filteredOn(recorded -> recorded.getEventType().getName().equals(PasswordHashEvent.NAME))
+                    .singleElement()
+                    .satisfies(recorded -> assertThat(recorded.getString("outcome"))
+                            .isEqualTo(PasswordHashEvent.MISMATCH));
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    private static class PlainPasswordEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
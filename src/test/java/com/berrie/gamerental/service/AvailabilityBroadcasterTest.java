@@ -0,0 +1,168 @@
+package com.berrie.gamerental.service;
+
+import com.berrie.gamerental.dto.AvailabilityEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static com.berrie.gamerental.model.enums.GameStatus.AVAILABLE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AvailabilityBroadcasterTest {
+
+    private AvailabilityBroadcaster broadcaster;
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void publish_subscriberFallsBehind_dropsOldestEvents() {
+        // given
+        broadcaster = withIdleDispatchers(2);
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(emitter);
+
+        // when
+        for (long version = 1; version <= 3; version++) {
+            broadcaster.publish(buildEvent(version));
+        }
+        broadcaster.sweep(false);
+
+        // then
+        assertThat(emitter.versions()).containsExactly(2L, 3L);
+        assertThat(broadcaster.droppedEventCount()).isEqualTo(1);
+        assertThat(broadcaster.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void publish_subscriberKeepsUp_receivesEveryEventOnce() {
+        // given
+        broadcaster = withIdleDispatchers(2);
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(emitter);
+
+        // when
+        broadcaster.publish(buildEvent(1L));
+        broadcaster.sweep(false);
+        broadcaster.publish(buildEvent(2L));
+        broadcaster.sweep(false);
+        broadcaster.sweep(false);
+
+        // then
+        assertThat(emitter.versions()).containsExactly(1L, 2L);
+        assertThat(broadcaster.droppedEventCount()).isZero();
+    }
+
+    @Test
+    void register_afterPublish_receivesOnlyLaterEvents() {
+        // given
+        broadcaster = withIdleDispatchers(4);
+        broadcaster.publish(buildEvent(1L));
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(emitter);
+
+        // when
+        broadcaster.publish(buildEvent(2L));
+        broadcaster.sweep(false);
+
+        // then
+        assertThat(emitter.versions()).containsExactly(2L);
+    }
+
+    @Test
+    void sweep_heartbeat_keepsIdleSubscribersConnected() {
+        // given
+        broadcaster = withIdleDispatchers(2);
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(emitter);
+
+        // when
+        broadcaster.sweep(true);
+
+        // then
+        assertThat(emitter.heartbeats).isEqualTo(1);
+        assertThat(emitter.versions()).isEmpty();
+        assertThat(broadcaster.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void publish_thousandsOfSubscribers_reachesEverySubscriber() throws InterruptedException {
+        // given
+        broadcaster = new AvailabilityBroadcaster(16, Duration.ofMinutes(1), Duration.ofMinutes(1), 2, Thread::new);
+        List<RecordingEmitter> emitters = IntStream.range(0, 5_000)
+                .mapToObj(i -> new RecordingEmitter())
+                .toList();
+        emitters.forEach(broadcaster::register);
+
+        // when
+        broadcaster.publish(buildEvent(1L));
+        broadcaster.publish(buildEvent(2L));
+
+        // then
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (emitters.stream().anyMatch(emitter -> emitter.events.size() < 2) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(emitters).allSatisfy(emitter -> assertThat(emitter.versions()).containsExactly(1L, 2L));
+        assertThat(broadcaster.subscriberCount()).isEqualTo(5_000);
+    }
+
+    @Test
+    void subscribe_newSubscriber_isRegistered() {
+        // given
+        broadcaster = withIdleDispatchers(2);
+
+        // when
+        SseEmitter emitter = broadcaster.subscribe();
+
+        // then
+        assertThat(emitter.getTimeout()).isEqualTo(Duration.ofMinutes(1).toMillis());
+        assertThat(broadcaster.subscriberCount()).isEqualTo(1);
+    }
+
+    /**
+     * The dispatcher threads return at once, so events are only written when the test sweeps.
+     */
+    private static AvailabilityBroadcaster withIdleDispatchers(int bufferSize) {
+        return new AvailabilityBroadcaster(bufferSize, Duration.ofMinutes(1), Duration.ofMinutes(1), 2,
+                runnable -> new Thread(() -> { }));
+    }
+
+    private AvailabilityEvent buildEvent(Long version) {
+        return AvailabilityEvent.builder()
+                .gameId("game-" + version)
+                .title("Returnal")
+                .status(AVAILABLE)
+                .version(version)
+                .build();
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final Queue<AvailabilityEvent> events = new ConcurrentLinkedQueue<>();
+        private volatile int heartbeats;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            builder.build().forEach(part -> {
+                if (part.getData() instanceof AvailabilityEvent event) {
+                    events.add(event);
+                } else if (part.getData().toString().startsWith(":heartbeat")) {
+                    heartbeats++;
+                }
+            });
+        }
+
+        List<Long> versions() {
+            return events.stream().map(AvailabilityEvent::getVersion).toList();
+        }
+    }
+}
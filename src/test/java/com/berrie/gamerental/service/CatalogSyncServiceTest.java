@@ -0,0 +1,241 @@
+package com.berrie.gamerental.service;
+
+import com.berrie.gamerental.dto.GameChangesResponse;
+import com.berrie.gamerental.model.Game;
+import com.berrie.gamerental.model.GameTombstone;
+import com.berrie.gamerental.model.SequenceCounter;
+import com.berrie.gamerental.model.User;
+import com.berrie.gamerental.repository.GameRepository;
+import com.berrie.gamerental.repository.GameTombstoneRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+import static com.berrie.gamerental.service.CatalogSyncService.GAMES_SEQUENCE;
+import static com.berrie.gamerental.service.CatalogSyncService.HORIZON_SEQUENCE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogSyncServiceTest {
+
+    @Mock
+    private GameRepository gameRepository;
+    @Mock
+    private GameTombstoneRepository tombstoneRepository;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    private CatalogSyncService syncService;
+
+    @BeforeEach
+    void setup() {
+        syncService = new CatalogSyncService(gameRepository, tombstoneRepository, mongoTemplate, Duration.ofDays(30),
+                Duration.ofSeconds(30), Duration.ofHours(1));
+    }
+
+    @Test
+    void getChangesSince_recordedVersion_returnsChangedAndDeletedGames() {
+        // given
+        when(gameRepository.findByUpdateSequenceBetweenOrderByUpdateSequenceAsc(5L, 9L))
+                .thenReturn(List.of(buildGame("a", 6L), buildGame("b", 8L)));
+        when(tombstoneRepository.findByUpdateSequenceBetweenOrderByUpdateSequenceAsc(5L, 9L))
+                .thenReturn(List.of(buildTombstone("c", 7L, new Date())));
+        stubSequence(HORIZON_SEQUENCE, 2L);
+        stubSequence(GAMES_SEQUENCE, 8L);
+
+        // when
+        GameChangesResponse response = syncService.getChangesSince(5L);
+
+        // then
+        assertThat(response.isResyncRequired()).isFalse();
+        assertThat(response.getVersion()).isEqualTo(8L);
+        assertThat(response.getChanged()).extracting("id").containsExactly("a", "b");
+        assertThat(response.getChanged().get(0).getGame().getTitle()).isEqualTo("a");
+        assertThat(response.getDeleted()).containsExactly("c");
+    }
+
+    @Test
+    void getChangesSince_noChanges_returnsSameVersion() {
+        // given
+        when(gameRepository.findByUpdateSequenceBetweenOrderByUpdateSequenceAsc(8L, 9L)).thenReturn(List.of());
+        when(tombstoneRepository.findByUpdateSequenceBetweenOrderByUpdateSequenceAsc(8L, 9L)).thenReturn(List.of());
+        stubSequence(HORIZON_SEQUENCE, 2L);
+        stubSequence(GAMES_SEQUENCE, 8L);
+
+        // when
+        GameChangesResponse response = syncService.getChangesSince(8L);
+
+        // then
+        assertThat(response.isResyncRequired()).isFalse();
+        assertThat(response.getVersion()).isEqualTo(8L);
+        assertThat(response.getChanged()).isEmpty();
+        assertThat(response.getDeleted()).isEmpty();
+    }
+
+    @Test
+    void getChangesSince_versionBelowHorizon_requiresResync() {
+        // given
+        when(gameRepository.findByUpdateSequenceBetweenOrderByUpdateSequenceAsc(1L, 9L))
+                .thenReturn(List.of(buildGame("a", 6L)));
+        stubSequence(HORIZON_SEQUENCE, 4L);
+        stubSequence(GAMES_SEQUENCE, 8L);
+
+        // when
+        GameChangesResponse response = syncService.getChangesSince(1L);
+
+        // then
+        assertThat(response.isResyncRequired()).isTrue();
+        assertThat(response.getVersion()).isEqualTo(8L);
+        assertThat(response.getChanged()).isEmpty();
+    }
+
+    @Test
+    void getChangesSince_versionAheadOfCatalog_requiresResync() {
+        // given
+        stubSequence(GAMES_SEQUENCE, 8L);
+
+        // when
+        GameChangesResponse response = syncService.getChangesSince(20L);
+
+        // then
+        assertThat(response.isResyncRequired()).isTrue();
+        assertThat(response.getVersion()).isEqualTo(8L);
+    }
+
+    @Test
+    void getChangesSince_earlierVersionPending_returnsChangesBelowIt() {
+        // given
+        when(gameRepository.findByUpdateSequenceBetweenOrderByUpdateSequenceAsc(5L, 7L))
+                .thenReturn(List.of(buildGame("a", 6L)));
+        when(tombstoneRepository.findByUpdateSequenceBetweenOrderByUpdateSequenceAsc(5L, 7L)).thenReturn(List.of());
+        stubSequence(HORIZON_SEQUENCE, 2L);
+        stubSequence(GAMES_SEQUENCE, 8L, List.of(new SequenceCounter.Reservation(7L, new Date())));
+
+        // when
+        GameChangesResponse response = syncService.getChangesSince(5L);
+
+        // then
+        assertThat(response.isResyncRequired()).isFalse();
+        assertThat(response.getVersion()).isEqualTo(6L);
+        assertThat(response.getChanged()).extracting("id").containsExactly("a");
+    }
+
+    @Test
+    void getChangesSince_pendingLeaseExpired_ignoresReservation() {
+        // given
+        Date longAgo = new Date(System.currentTimeMillis() - Duration.ofMinutes(5).toMillis());
+        when(gameRepository.findByUpdateSequenceBetweenOrderByUpdateSequenceAsc(5L, 9L)).thenReturn(List.of());
+        when(tombstoneRepository.findByUpdateSequenceBetweenOrderByUpdateSequenceAsc(5L, 9L)).thenReturn(List.of());
+        stubSequence(HORIZON_SEQUENCE, 2L);
+        stubSequence(GAMES_SEQUENCE, 8L, List.of(new SequenceCounter.Reservation(7L, longAgo)));
+
+        // when
+        GameChangesResponse response = syncService.getChangesSince(5L);
+
+        // then
+        assertThat(response.getVersion()).isEqualTo(8L);
+    }
+
+    @Test
+    void getChangesSince_releasedVersions_pullsThemBeforeReading() {
+        // given
+        syncService.release(7L);
+        when(gameRepository.findByUpdateSequenceBetweenOrderByUpdateSequenceAsc(5L, 9L)).thenReturn(List.of());
+        when(tombstoneRepository.findByUpdateSequenceBetweenOrderByUpdateSequenceAsc(5L, 9L)).thenReturn(List.of());
+        stubSequence(HORIZON_SEQUENCE, 2L);
+        stubSequence(GAMES_SEQUENCE, 8L);
+
+        // when
+        syncService.getChangesSince(5L);
+
+        // then
+        ArgumentCaptor<Update> captor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), captor.capture(), eq(SequenceCounter.class));
+        assertThat(captor.getValue().toString()).contains("$pull").contains("7");
+    }
+
+    @Test
+    void recordDeletion_expiredTombstones_prunesAndRaisesHorizon() {
+        // given
+        Date longAgo = new Date(System.currentTimeMillis() - Duration.ofDays(60).toMillis());
+        List<GameTombstone> expired = List.of(buildTombstone("x", 3L, longAgo), buildTombstone("y", 5L, longAgo));
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(SequenceCounter.class)))
+                .thenReturn(new SequenceCounter(GAMES_SEQUENCE, 9L, null));
+        when(tombstoneRepository.findByDeletedAtBefore(any(Date.class))).thenReturn(expired);
+
+        // when
+        syncService.recordDeletion("z");
+
+        // then
+        ArgumentCaptor<GameTombstone> captor = ArgumentCaptor.forClass(GameTombstone.class);
+        verify(tombstoneRepository).save(captor.capture());
+        assertThat(captor.getValue().getId()).isEqualTo("z");
+        assertThat(captor.getValue().getUpdateSequence()).isEqualTo(9L);
+
+        ArgumentCaptor<Update> horizonCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), horizonCaptor.capture(), eq(SequenceCounter.class));
+        assertThat(horizonCaptor.getValue().toString()).contains("$max").contains("5");
+        verify(tombstoneRepository).deleteAll(expired);
+    }
+
+    @Test
+    void recordDeletion_noExpiredTombstones_keepsHorizon() {
+        // given
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(SequenceCounter.class)))
+                .thenReturn(new SequenceCounter(GAMES_SEQUENCE, 9L, null));
+        when(tombstoneRepository.findByDeletedAtBefore(any(Date.class))).thenReturn(List.of());
+
+        // when
+        syncService.recordDeletion("z");
+
+        // then
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(SequenceCounter.class));
+        verify(tombstoneRepository, never()).deleteAll(anyList());
+    }
+
+    private void stubSequence(String sequence, long value) {
+        stubSequence(sequence, value, null);
+    }
+
+    private void stubSequence(String sequence, long value, List<SequenceCounter.Reservation> pending) {
+        when(mongoTemplate.findById(sequence, SequenceCounter.class))
+                .thenReturn(new SequenceCounter(sequence, value, pending));
+    }
+
+    private Game buildGame(String id, Long updateSequence) {
+        return Game.builder()
+                .id(id)
+                .title(id)
+                .numberOfRentals(0)
+                .submittedBy(User.builder()
+                        .username("berrie.user")
+                        .build())
+                .updateSequence(updateSequence)
+                .build();
+    }
+
+    private GameTombstone buildTombstone(String id, Long updateSequence, Date deletedAt) {
+        return GameTombstone.builder()
+                .id(id)
+                .updateSequence(updateSequence)
+                .deletedAt(deletedAt)
+                .build();
+    }
+}
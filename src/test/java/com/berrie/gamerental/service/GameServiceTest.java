@@ -1,5 +1,12 @@
 package com.berrie.gamerental.service;
 
+import com.berrie.gamerental.cache.CatalogVersion;
+import com.berrie.gamerental.cache.GameFacetIndex;
+import com.berrie.gamerental.cache.SearchResultCache;
+import com.berrie.gamerental.cache.SingleFlight;
+import com.berrie.gamerental.config.RequestDeadlines;
+import com.berrie.gamerental.config.SessionBindingMongoDatabaseFactory;
+import com.berrie.gamerental.dto.AvailabilityEvent;
 import com.berrie.gamerental.dto.GameModel;
 import com.berrie.gamerental.dto.GetGamesRequest;
 import com.berrie.gamerental.dto.SubmitGameRequest;
@@ -11,15 +18,20 @@ import com.berrie.gamerental.model.enums.Genre;
 import com.berrie.gamerental.model.enums.Platform;
 import com.berrie.gamerental.model.enums.SortBy;
 import com.berrie.gamerental.repository.GameRepository;
+import org.bson.Document;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.TextQuery;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -42,7 +54,19 @@ public class GameServiceTest {
     @Mock
     private AuthenticationService authService;
     @Mock
-    private MongoTemplate mongoTemplate;
+    private MongoTemplate catalogMongoTemplate;
+    @Spy
+    private GameSearchRanker searchRanker = new GameSearchRanker(0.6, 0.25, 0.15);
+    @Mock
+    private SearchResultCache searchCache;
+    @Mock
+    private GameFacetIndex facetIndex;
+    @Mock
+    private AvailabilityBroadcaster availabilityBroadcaster;
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(new RequestDeadlines(),
+            new SessionBindingMongoDatabaseFactory(mock(MongoDatabaseFactory.class)),
+            new CatalogVersion(Duration.ofSeconds(90)), Duration.ofSeconds(2));
     @InjectMocks
     private GameService gameService;
 
@@ -72,10 +96,10 @@ public class GameServiceTest {
     @Test
     void getGames_sortByPopularity_returnsGameModelsInOrder() {
         // given
-        GetGamesRequest request = new GetGamesRequest(SortBy.POPULARITY);
+        GetGamesRequest request = GetGamesRequest.builder().sortBy(SortBy.POPULARITY).build();
         List<Game> gameList = buildGameList(SortBy.POPULARITY);
 
-        when(gameRepository.findAllByOrderByNumberOfRentalsDesc()).thenReturn(gameList);
+        when(catalogMongoTemplate.find(any(Query.class), eq(Game.class))).thenReturn(gameList);
 
         // when
         List<GameModel> result = gameService.getGames(request);
@@ -85,16 +109,19 @@ public class GameServiceTest {
         GameModel actual = result.get(1);
         Game expected = gameList.get(1);
         assertGameModel(actual, expected);
-        verify(gameRepository, never()).findAllByOrderByTitleAsc();
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(catalogMongoTemplate).find(captor.capture(), eq(Game.class));
+        assertThat(captor.getValue().getSortObject()).isEqualTo(new Document("numberOfRentals", -1));
+        assertThat(captor.getValue().getQueryObject()).isEmpty();
     }
 
     @Test
     void getGames_sortByTitle_returnsGameModelsInOrder() {
         // given
-        GetGamesRequest request = new GetGamesRequest(SortBy.TITLE);
+        GetGamesRequest request = GetGamesRequest.builder().sortBy(SortBy.TITLE).build();
         List<Game> gameList = buildGameList(SortBy.TITLE);
 
-        when(gameRepository.findAllByOrderByTitleAsc()).thenReturn(gameList);
+        when(catalogMongoTemplate.find(any(Query.class), eq(Game.class))).thenReturn(gameList);
 
         // when
         List<GameModel> result = gameService.getGames(request);
@@ -104,48 +131,162 @@ public class GameServiceTest {
         GameModel actual = result.get(2);
         Game expected = gameList.get(2);
         assertGameModel(actual, expected);
-        verify(gameRepository, never()).findAllByOrderByNumberOfRentalsDesc();
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(catalogMongoTemplate).find(captor.capture(), eq(Game.class));
+        assertThat(captor.getValue().getSortObject()).isEqualTo(new Document("title", 1));
     }
 
     @Test
     void getGames_noGames_throwsNoGamesFoundException() {
         // given
-        GetGamesRequest request = new GetGamesRequest(SortBy.POPULARITY);
-        when(gameRepository.findAllByOrderByNumberOfRentalsDesc()).thenReturn(new ArrayList<>());
+        GetGamesRequest request = GetGamesRequest.builder().sortBy(SortBy.POPULARITY).build();
+        when(catalogMongoTemplate.find(any(Query.class), eq(Game.class))).thenReturn(new ArrayList<>());
 
         // when & then
         assertThatThrownBy(() -> gameService.getGames(request)).isInstanceOf(NoGamesFoundException.class);
     }
 
     @Test
-    void searchGame_titleWithMatches_returnsGameModels() {
+    void getGames_withFilters_returnsGameModelsFromFacetIndex() {
+        // given
+        GetGamesRequest request = GetGamesRequest.builder()
+                .sortBy(SortBy.POPULARITY)
+                .genre(ADVENTURE)
+                .status(AVAILABLE)
+                .build();
+        List<GameModel> gameModels = List.of(GameModel.builder().title("Uncharted").build());
+
+        when(facetIndex.isReady()).thenReturn(true);
+        when(facetIndex.findGames(request)).thenReturn(gameModels);
+
+        // when
+        List<GameModel> result = gameService.getGames(request);
+
+        // then
+        assertThat(result).isEqualTo(gameModels);
+        verifyNoInteractions(gameRepository, catalogMongoTemplate);
+    }
+
+    @Test
+    void getGames_withFiltersNoMatches_throwsNoGamesFoundException() {
+        // given
+        GetGamesRequest request = GetGamesRequest.builder()
+                .sortBy(SortBy.TITLE)
+                .platform(XBOX_360)
+                .build();
+
+        when(facetIndex.isReady()).thenReturn(true);
+        when(facetIndex.findGames(request)).thenReturn(new ArrayList<>());
+
+        // when & then
+        assertThatThrownBy(() -> gameService.getGames(request)).isInstanceOf(NoGamesFoundException.class);
+    }
+
+    @Test
+    void searchGame_titleWithMatches_returnsRankedGameModels() {
         // given
         String title = "Horizon";
         Game game1 = buildGame("Horizon Forest", 4, ADVENTURE, PS5, UNAVAILABLE);
         Game game2 = buildGame("Horizon Zero Dawn", 6, ADVENTURE, PS4, AVAILABLE);
         List<Game> gameMatches = List.of(game1, game2);
 
-        when(mongoTemplate.find(any(TextQuery.class), eq(Game.class))).thenReturn(gameMatches);
+        when(catalogMongoTemplate.find(any(TextQuery.class), eq(Game.class))).thenReturn(gameMatches);
 
         // when
-        List<GameModel> result = gameService.searchGame(title);
+        List<GameModel> result = gameService.searchGame(title, null);
 
         // then
-        verify(mongoTemplate).find(any(TextQuery.class), eq(Game.class));
+        verify(catalogMongoTemplate).find(any(TextQuery.class), eq(Game.class));
         assertThat(result).hasSize(2);
-        GameModel actual = result.get(0);
-        Game expected = gameMatches.get(0);
-        assertGameModel(actual, expected);
+        assertGameModel(result.get(0), game2);
+        assertGameModel(result.get(1), game1);
+    }
+
+    @Test
+    void searchGame_unavailableBetterTextMatch_ranksPopularAvailableGameFirst() {
+        // given
+        String title = "Horizon";
+        Game unavailable = buildGame("Horizon Horizon", 0, ADVENTURE, PS5, UNAVAILABLE);
+        unavailable.setTextScore(1.5f);
+        Game popular = buildGame("Horizon Zero Dawn", 40, ADVENTURE, PS4, AVAILABLE);
+        popular.setTextScore(1.0f);
+
+        when(catalogMongoTemplate.find(any(TextQuery.class), eq(Game.class))).thenReturn(List.of(unavailable, popular));
+
+        // when
+        List<GameModel> result = gameService.searchGame(title, null);
+
+        // then
+        assertThat(result).extracting(GameModel::getTitle)
+                .containsExactly("Horizon Zero Dawn", "Horizon Horizon");
+    }
+
+    @Test
+    void searchGame_withLimit_returnsOnlyTopRankedGameModels() {
+        // given
+        String title = "Horizon";
+        Game game1 = buildGame("Horizon Forest", 2, ADVENTURE, PS5, AVAILABLE);
+        Game game2 = buildGame("Horizon Zero Dawn", 9, ADVENTURE, PS4, AVAILABLE);
+        Game game3 = buildGame("Horizon Call", 5, ADVENTURE, PS4, AVAILABLE);
+
+        when(catalogMongoTemplate.find(any(TextQuery.class), eq(Game.class))).thenReturn(List.of(game1, game2, game3));
+
+        // when
+        List<GameModel> result = gameService.searchGame(title, 2);
+
+        // then
+        assertThat(result).extracting(GameModel::getTitle)
+                .containsExactly("Horizon Zero Dawn", "Horizon Call");
     }
 
     @Test
     void searchGame_titleWithNoMatches_throwsNoGameFoundException() {
         // given
         String title = "Hogwarts Legacy";
-        when(mongoTemplate.find(any(TextQuery.class), eq(Game.class))).thenReturn(new ArrayList<>());
+        when(catalogMongoTemplate.find(any(TextQuery.class), eq(Game.class))).thenReturn(new ArrayList<>());
+
+        // when & then
+        assertThatThrownBy(() -> gameService.searchGame(title, null)).isInstanceOf(NoGamesFoundException.class);
+    }
+
+    @Test
+    void searchGame_cachedMatches_doesNotQueryDatabase() {
+        // given
+        String title = "Horizon";
+        List<GameModel> cachedMatches = List.of(GameModel.builder().title("Horizon Zero Dawn").build());
+        when(searchCache.get(SearchResultCache.keyOf(title, null))).thenReturn(Optional.of(cachedMatches));
+
+        // when
+        List<GameModel> result = gameService.searchGame(title, null);
+
+        // then
+        assertThat(result).isEqualTo(cachedMatches);
+        verifyNoInteractions(catalogMongoTemplate);
+    }
+
+    @Test
+    void searchGame_cachedNoMatches_throwsNoGameFoundExceptionWithoutQueryingDatabase() {
+        // given
+        String title = "Hogwarts Legacy";
+        when(searchCache.get(SearchResultCache.keyOf(title, null))).thenReturn(Optional.of(List.of()));
 
         // when & then
-        assertThatThrownBy(() -> gameService.searchGame(title)).isInstanceOf(NoGamesFoundException.class);
+        assertThatThrownBy(() -> gameService.searchGame(title, null)).isInstanceOf(NoGamesFoundException.class);
+        verifyNoInteractions(catalogMongoTemplate);
+    }
+
+    @Test
+    void searchGame_uncachedSearch_cachesRankedMatches() {
+        // given
+        String title = "Hogwarts Legacy";
+        when(searchCache.generation()).thenReturn(3L);
+        when(catalogMongoTemplate.find(any(TextQuery.class), eq(Game.class))).thenReturn(new ArrayList<>());
+
+        // when
+        assertThatThrownBy(() -> gameService.searchGame(title, null)).isInstanceOf(NoGamesFoundException.class);
+
+        // then
+        verify(searchCache).put(SearchResultCache.keyOf(title, null), List.of(), 3L);
     }
 
     @Test
@@ -164,6 +305,34 @@ public class GameServiceTest {
         assertThat(result.getStatus()).isEqualTo(UNAVAILABLE);
     }
 
+    @Test
+    void rentGameCopy_availableGame_publishesAvailabilityChange() {
+        // given
+        Game game = buildGame("Spiderman", 0, ACTION, NINTENDO_SWITCH, AVAILABLE);
+
+        // when
+        gameService.rentGameCopy(game);
+
+        // then
+        ArgumentCaptor<AvailabilityEvent> captor = ArgumentCaptor.forClass(AvailabilityEvent.class);
+        verify(availabilityBroadcaster).publish(captor.capture());
+        assertThat(captor.getValue().getTitle()).isEqualTo("Spiderman");
+        assertThat(captor.getValue().getStatus()).isEqualTo(UNAVAILABLE);
+    }
+
+    @Test
+    void returnGameCopy_alreadyAvailableGame_publishesNothing() {
+        // given
+        Game game = buildGame("Spiderman", 3, ACTION, NINTENDO_SWITCH, AVAILABLE);
+
+        // when
+        gameService.returnGameCopy(game);
+
+        // then
+        verify(gameRepository).save(game);
+        verifyNoInteractions(availabilityBroadcaster);
+    }
+
     private void assertGame(Game game) {
         assertThat(game.getTitle()).isEqualTo(GameServiceTest.TITLE);
         assertThat(game.getGenre()).isEqualTo(Genre.SPORTS);
@@ -0,0 +1,182 @@
+package com.berrie.gamerental.service;
+
+import com.berrie.gamerental.cache.GameFacetIndex;
+import com.berrie.gamerental.cache.SearchResultCache;
+import com.berrie.gamerental.dto.GameModel;
+import com.berrie.gamerental.dto.GetGamesRequest;
+import com.berrie.gamerental.dto.SubmitGameRequest;
+import com.berrie.gamerental.exception.NoGamesFoundException;
+import com.berrie.gamerental.model.Game;
+import com.berrie.gamerental.model.User;
+import com.berrie.gamerental.model.enums.Genre;
+import com.berrie.gamerental.model.enums.Platform;
+import com.berrie.gamerental.model.enums.SortBy;
+import com.berrie.gamerental.repository.ReactiveGameRepository;
+import com.berrie.gamerental.repository.ReactiveUserRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.berrie.gamerental.model.enums.GameStatus.AVAILABLE;
+import static com.berrie.gamerental.model.enums.GameStatus.UNAVAILABLE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveGameServiceTest {
+    private static final String USERNAME = "berrie.user";
+    private static final String TITLE = "FIFA 23";
+
+    @Mock
+    private ReactiveGameRepository gameRepository;
+    @Mock
+    private ReactiveUserRepository userRepository;
+    @Mock
+    private ReactiveMongoTemplate catalogMongoTemplate;
+    @Spy
+    private GameSearchRanker searchRanker = new GameSearchRanker(0.6, 0.25, 0.15);
+    @Mock
+    private SearchResultCache searchCache;
+    @Mock
+    private GameFacetIndex facetIndex;
+    @InjectMocks
+    private ReactiveGameService gameService;
+
+    @Test
+    void submitGame_validRequest_returnsSavedGame() {
+        // given
+        SubmitGameRequest request = SubmitGameRequest.builder()
+                .title(TITLE)
+                .genre(Genre.SPORTS)
+                .platform(Platform.PS5)
+                .build();
+
+        when(userRepository.findByUsername(USERNAME)).thenReturn(Mono.just(buildUser()));
+        when(gameRepository.save(any(Game.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // when
+        StepVerifier.create(gameService.submitGame(request, USERNAME))
+                .assertNext(game -> {
+                    // then
+                    assertThat(game.getTitle()).isEqualTo(TITLE);
+                    assertThat(game.getStatus()).isEqualTo(AVAILABLE);
+                    assertThat(game.getNumberOfRentals()).isZero();
+                    assertThat(game.getSubmittedBy().getUsername()).isEqualTo(USERNAME);
+                })
+                .verifyComplete();
+        verify(searchCache).invalidate(TITLE);
+    }
+
+    @Test
+    void getGames_gamesExist_returnsGamesWithoutSubmittedGames() {
+        // given
+        GetGamesRequest request = GetGamesRequest.builder().sortBy(SortBy.TITLE).build();
+        when(catalogMongoTemplate.find(any(Query.class), eq(Game.class))).thenReturn(Flux.just(buildGame()));
+
+        // when
+        StepVerifier.create(gameService.getGames(request))
+                .assertNext(games -> {
+                    // then
+                    assertThat(games).extracting(GameModel::getTitle).containsExactly(TITLE);
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(catalogMongoTemplate).find(captor.capture(), eq(Game.class));
+        assertThat(captor.getValue().getSortObject()).isEqualTo(new Document("title", 1));
+        assertThat(captor.getValue().getFieldsObject()).isEqualTo(new Document("submittedBy.submittedGames", 0));
+    }
+
+    @Test
+    void getGames_noGamesExist_emitsNoGamesFoundException() {
+        // given
+        GetGamesRequest request = GetGamesRequest.builder().sortBy(SortBy.POPULARITY).build();
+        when(catalogMongoTemplate.find(any(Query.class), eq(Game.class))).thenReturn(Flux.empty());
+
+        // when
+        StepVerifier.create(gameService.getGames(request))
+                // then
+                .expectErrorSatisfies(ex -> assertThat(ex)
+                        .isInstanceOf(NoGamesFoundException.class)
+                        .hasMessage("No games in stock, check back at a later time!"))
+                .verify();
+    }
+
+    @Test
+    void getGames_filtersAndIndexReady_readsFacetIndex() {
+        // given
+        GetGamesRequest request = GetGamesRequest.builder().sortBy(SortBy.TITLE).genre(Genre.SPORTS).build();
+        List<GameModel> indexed = List.of(GameModel.builder().title(TITLE).build());
+        when(facetIndex.isReady()).thenReturn(true);
+        when(facetIndex.findGames(request)).thenReturn(indexed);
+
+        // when
+        StepVerifier.create(gameService.getGames(request))
+                // then
+                .expectNext(indexed)
+                .verifyComplete();
+        verifyNoInteractions(catalogMongoTemplate);
+    }
+
+    @Test
+    void searchGame_cachedMatches_doesNotQueryDatabase() {
+        // given
+        List<GameModel> cached = List.of(GameModel.builder().title(TITLE).build());
+        when(searchCache.get(SearchResultCache.keyOf(TITLE, null))).thenReturn(Optional.of(cached));
+
+        // when
+        StepVerifier.create(gameService.searchGame(TITLE, null))
+                // then
+                .expectNext(cached)
+                .verifyComplete();
+        verifyNoInteractions(catalogMongoTemplate);
+    }
+
+    @Test
+    void rentGameCopy_availableGame_savesUnavailableGame() {
+        // given
+        Game game = buildGame();
+        when(gameRepository.save(game)).thenReturn(Mono.just(game));
+
+        // when
+        StepVerifier.create(gameService.rentGameCopy(game))
+                .assertNext(rented -> {
+                    // then
+                    assertThat(rented.getStatus()).isEqualTo(UNAVAILABLE);
+                    assertThat(rented.getNumberOfRentals()).isEqualTo(4);
+                })
+                .verifyComplete();
+        verify(searchCache).invalidate(TITLE);
+    }
+
+    private User buildUser() {
+        return User.builder()
+                .username(USERNAME)
+                .build();
+    }
+
+    private Game buildGame() {
+        return Game.builder()
+                .id("game-id")
+                .title(TITLE)
+                .genre(Genre.SPORTS)
+                .platform(Platform.PS5)
+                .status(AVAILABLE)
+                .numberOfRentals(3)
+                .submittedBy(buildUser())
+                .build();
+    }
+}
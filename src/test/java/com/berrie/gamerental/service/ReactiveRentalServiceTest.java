@@ -0,0 +1,99 @@
+package com.berrie.gamerental.service;
+
+import com.berrie.gamerental.dto.RentGameRequest;
+import com.berrie.gamerental.exception.UserUnauthorizedException;
+import com.berrie.gamerental.model.Game;
+import com.berrie.gamerental.model.Rental;
+import com.berrie.gamerental.model.User;
+import com.berrie.gamerental.model.enums.Genre;
+import com.berrie.gamerental.model.enums.Platform;
+import com.berrie.gamerental.model.enums.RentalStatus;
+import com.berrie.gamerental.repository.ReactiveRentalRepository;
+import com.berrie.gamerental.repository.ReactiveUserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static com.berrie.gamerental.model.enums.GameStatus.AVAILABLE;
+import static com.berrie.gamerental.model.enums.GameStatus.UNAVAILABLE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveRentalServiceTest {
+    private static final String USERNAME = "berrie.user";
+    private static final String GAME_ID = "game-id";
+
+    @Mock
+    private ReactiveRentalRepository rentalRepository;
+    @Mock
+    private ReactiveUserRepository userRepository;
+    @Mock
+    private ReactiveGameService gameService;
+    @Mock
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+    @InjectMocks
+    private ReactiveRentalService rentalService;
+
+    @Test
+    void rentGame_validRequest_insertsActiveRental() {
+        // given
+        User user = User.builder().username(USERNAME).build();
+        Game game = buildGame();
+        when(userRepository.findByUsername(USERNAME)).thenReturn(Mono.just(user));
+        when(gameService.findGameById(GAME_ID)).thenReturn(Mono.just(game));
+        when(gameService.rentGameCopy(game)).thenAnswer(invocation -> {
+            game.setStatus(UNAVAILABLE);
+            return Mono.just(game);
+        });
+        when(rentalRepository.insert(any(Rental.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // when
+        StepVerifier.create(rentalService.rentGame(buildRequest(), USERNAME))
+                .assertNext(rental -> {
+                    // then
+                    assertThat(rental.getRentalStatus()).isEqualTo(RentalStatus.ACTIVE);
+                    assertThat(rental.getUser()).isEqualTo(user);
+                    assertThat(rental.getGame().getStatus()).isEqualTo(UNAVAILABLE);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void rentGame_unknownUser_leavesGameAvailable() {
+        // given
+        when(userRepository.findByUsername(USERNAME)).thenReturn(Mono.empty());
+
+        // when
+        StepVerifier.create(rentalService.rentGame(buildRequest(), USERNAME))
+                // then
+                .expectError(UserUnauthorizedException.class)
+                .verify();
+        verify(gameService, never()).rentGameCopy(any());
+        verifyNoInteractions(rentalRepository);
+    }
+
+    private RentGameRequest buildRequest() {
+        return RentGameRequest.builder()
+                .gameId(GAME_ID)
+                .build();
+    }
+
+    private Game buildGame() {
+        return Game.builder()
+                .id(GAME_ID)
+                .title("FIFA 23")
+                .genre(Genre.SPORTS)
+                .platform(Platform.PS5)
+                .status(AVAILABLE)
+                .numberOfRentals(3)
+                .submittedBy(User.builder().username("game.owner").build())
+                .build();
+    }
+}